@@ -0,0 +1,67 @@
+/* Mede o custo do login (UsuarioService.autenticarUsuario): consulta do usuário no Banco de dados + verificação da senha com o BCrypt. */
+
+package com.generation.blogpessoal.benchmark;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.generation.blogpessoal.model.UsuarioLogin;
+import com.generation.blogpessoal.service.UsuarioService;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class AutenticacaoBenchmark {
+
+    private ConfigurableApplicationContext contexto;
+
+    private UsuarioService usuarioService;
+
+    @Setup(Level.Trial)
+    public void iniciar() {
+        contexto = ContextoBenchmark.iniciar(0);
+        usuarioService = contexto.getBean(UsuarioService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void encerrar() {
+        contexto.close();
+    }
+
+    @Benchmark
+    public Optional<UsuarioLogin> autenticarUsuario() {
+        return usuarioService.autenticarUsuario(Optional.of(login(ContextoBenchmark.SENHA)));
+    }
+
+    @Benchmark
+    public Optional<UsuarioLogin> autenticarUsuarioComSenhaErrada() {
+        return usuarioService.autenticarUsuario(Optional.of(login("senhaerrada")));
+    }
+
+    private static UsuarioLogin login(String senha) {
+
+        UsuarioLogin login = new UsuarioLogin();
+        login.setUsuario(ContextoBenchmark.USUARIO);
+        login.setSenha(senha);
+
+        return login;
+    }
+
+}
@@ -0,0 +1,48 @@
+/* Mede o custo da verificação de senha com o BCrypt em diferentes forças (strength). Cada ponto a mais na força dobra o custo. */
+
+package com.generation.blogpessoal.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class BCryptBenchmark {
+
+    private static final String SENHA = "rootroot";
+
+    @Param({"4", "8", "10", "12"})
+    private int forca;
+
+    private BCryptPasswordEncoder encoder;
+
+    private String hash;
+
+    @Setup
+    public void iniciar() {
+        encoder = new BCryptPasswordEncoder(forca);
+        hash = encoder.encode(SENHA);
+    }
+
+    @Benchmark
+    public boolean verificarSenha() {
+        return encoder.matches(SENHA, hash);
+    }
+
+}
@@ -0,0 +1,109 @@
+/* A Classe ContextoBenchmark inicia a aplicação Blog Pessoal (em uma porta aleatória, já que a configuração do Spring Security
+depende do Spring MVC) com um Banco de dados H2 em memória e insere
+uma massa de dados realista: Temas, Usuários e a quantidade de Postagens pedida pelo benchmark.
+O usuário benchmark@email.com.br (senha "benchmark123") é cadastrado pela Classe UsuarioService, com a senha criptografada. */
+
+package com.generation.blogpessoal.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.generation.blogpessoal.BlogpessoalApplication;
+import com.generation.blogpessoal.model.Postagem;
+import com.generation.blogpessoal.model.Tema;
+import com.generation.blogpessoal.model.Usuario;
+import com.generation.blogpessoal.repository.PostagemRepository;
+import com.generation.blogpessoal.repository.TemaRepository;
+import com.generation.blogpessoal.repository.UsuarioRepository;
+import com.generation.blogpessoal.service.UsuarioService;
+
+final class ContextoBenchmark {
+
+    static final String USUARIO = "benchmark@email.com.br";
+
+    static final String SENHA = "benchmark123";
+
+    private static final String[] PALAVRAS = {
+            "java", "spring", "banco", "dados", "programação", "receita", "viagem", "esporte", "música", "cinema",
+            "tecnologia", "carreira", "estudo", "projeto", "api", "segurança", "desempenho", "teste", "nuvem", "front"};
+
+    private ContextoBenchmark() {
+    }
+
+    static ConfigurableApplicationContext iniciar(int quantidadePostagens) {
+
+        ConfigurableApplicationContext contexto = new SpringApplicationBuilder(BlogpessoalApplication.class)
+                .run("--spring.profiles.active=benchmark",
+                        "--server.port=0",
+                        "--spring.datasource.url=jdbc:h2:mem:benchmark" + System.nanoTime() + ";DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=sa",
+                        "--spring.jpa.hibernate.ddl-auto=validate",
+                        "--spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+                        "--spring.jpa.show-sql=false",
+                        "--blogpessoal.busca.reconstruir-ao-iniciar=false",
+                        "--logging.level.root=WARN");
+
+        popular(contexto, quantidadePostagens);
+
+        return contexto;
+    }
+
+    private static void popular(ConfigurableApplicationContext contexto, int quantidadePostagens) {
+
+        Random aleatorio = new Random(42);
+
+        contexto.getBean(UsuarioService.class).cadastrarUsuario(new Usuario(0L, "Benchmark", USUARIO, SENHA, " "));
+
+        TemaRepository temaRepository = contexto.getBean(TemaRepository.class);
+        List<Tema> temas = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            Tema tema = new Tema();
+            tema.setDescricao("Tema " + PALAVRAS[i % PALAVRAS.length]);
+            temas.add(temaRepository.save(tema));
+        }
+
+        UsuarioRepository usuarioRepository = contexto.getBean(UsuarioRepository.class);
+        List<Usuario> usuarios = new ArrayList<>();
+        for (int i = 0; i < 50; i++)
+            usuarios.add(usuarioRepository.save(new Usuario(0L, "Autor " + i, "autor" + i + "@email.com.br",
+                    "$2a$10$naoutilizadonobenchmarknaoutilizadonobenchmarknaoutil", "https://i.imgur.com/foto" + i + ".jpg")));
+
+        PostagemRepository postagemRepository = contexto.getBean(PostagemRepository.class);
+        List<Postagem> lote = new ArrayList<>();
+
+        for (int i = 0; i < quantidadePostagens; i++) {
+            Postagem postagem = new Postagem();
+            postagem.setTitulo(frase(aleatorio, 3 + aleatorio.nextInt(5)));
+            postagem.setTexto(frase(aleatorio, 40 + aleatorio.nextInt(80)));
+            postagem.setTema(temas.get(aleatorio.nextInt(temas.size())));
+            postagem.setUsuario(usuarios.get(aleatorio.nextInt(usuarios.size())));
+            lote.add(postagem);
+
+            if (lote.size() == 1000) {
+                postagemRepository.saveAll(lote);
+                lote.clear();
+            }
+        }
+
+        postagemRepository.saveAll(lote);
+    }
+
+    static String frase(Random aleatorio, int quantidadePalavras) {
+
+        StringBuilder frase = new StringBuilder();
+
+        for (int i = 0; i < quantidadePalavras; i++) {
+            if (i > 0)
+                frase.append(' ');
+            frase.append(PALAVRAS[aleatorio.nextInt(PALAVRAS.length)]);
+        }
+
+        return frase.length() > 1000 ? frase.substring(0, 1000) : frase.toString();
+    }
+
+}
@@ -0,0 +1,93 @@
+/* Mede as consultas da Interface PostagemRepository em um Banco de dados H2 em memória com milhares de Postagens:
+a primeira página e uma página profunda da listagem (paginação por cursor), a busca por título e a busca por id. */
+
+package com.generation.blogpessoal.benchmark;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import com.generation.blogpessoal.model.Postagem;
+import com.generation.blogpessoal.repository.PostagemRepository;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class PostagemRepositoryBenchmark {
+
+    @Param({"10000", "50000"})
+    private int quantidadePostagens;
+
+    private ConfigurableApplicationContext contexto;
+
+    private PostagemRepository postagemRepository;
+
+    private final Pageable pagina = PageRequest.of(0, 21);
+
+    private LocalDateTime dataProfunda;
+
+    private Long idProfundo;
+
+    private Long idExistente;
+
+    @Setup(Level.Trial)
+    public void iniciar() {
+
+        contexto = ContextoBenchmark.iniciar(quantidadePostagens);
+        postagemRepository = contexto.getBean(PostagemRepository.class);
+
+        /* Cursor de uma página no fim da listagem (Postagem mais antiga + 20), para comparar com a primeira página. */
+        List<Postagem> antigas = postagemRepository.findAllByIdGreaterThanOrderByIdAsc(0L, PageRequest.of(0, 20));
+        Postagem referencia = antigas.get(antigas.size() - 1);
+        dataProfunda = referencia.getData();
+        idProfundo = referencia.getId();
+        idExistente = antigas.get(0).getId();
+    }
+
+    @TearDown(Level.Trial)
+    public void encerrar() {
+        contexto.close();
+    }
+
+    @Benchmark
+    public List<Postagem> primeiraPagina() {
+        return postagemRepository.findPagina(pagina);
+    }
+
+    @Benchmark
+    public List<Postagem> paginaProfunda() {
+        return postagemRepository.findPaginaApos(dataProfunda, idProfundo, pagina);
+    }
+
+    @Benchmark
+    public List<Postagem> buscaPorTitulo() {
+        return postagemRepository.findPaginaByTitulo("segurança", pagina);
+    }
+
+    @Benchmark
+    public Optional<Postagem> buscaPorId() {
+        return postagemRepository.findById(idExistente);
+    }
+
+}
@@ -0,0 +1,126 @@
+/* Mede o custo da serialização (Jackson) de uma lista de Postagens com o Tema e o Usuario aninhados, nos formatos aceitos pelos
+controladores: JSON, CBOR e Smile. O ObjectMapper é configurado da mesma forma que o arquivo application.properties (spring.jackson.*).
+O tamanho da resposta de cada formato (em bytes) aparece como a métrica secundária "bytes" de cada resultado (@AuxCounters). */
+
+package com.generation.blogpessoal.benchmark;
+
+import java.text.SimpleDateFormat;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.generation.blogpessoal.model.Postagem;
+import com.generation.blogpessoal.model.Tema;
+import com.generation.blogpessoal.model.Usuario;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class SerializacaoBenchmark {
+
+    @Param({"10", "100", "1000"})
+    private int quantidadePostagens;
+
+    @Param({"json", "cbor", "smile"})
+    private String formato;
+
+    private ObjectMapper objectMapper;
+
+    private List<Postagem> postagens;
+
+    @Setup
+    public void iniciar() {
+
+        objectMapper = Jackson2ObjectMapperBuilder.json()
+                .factory(fabrica(formato))
+                .dateFormat(new SimpleDateFormat("yyyy-MM-dd HH:mm:ss"))
+                .timeZone(TimeZone.getTimeZone("Brazil/East"))
+                .build();
+
+        postagens = criarPostagens(quantidadePostagens);
+    }
+
+    @Benchmark
+    public byte[] serializarPostagens(Tamanho tamanho) throws JsonProcessingException {
+
+        byte[] resposta = objectMapper.writeValueAsBytes(postagens);
+        tamanho.bytes = resposta.length;
+
+        return resposta;
+    }
+
+    /* Tamanho da última resposta serializada. O JMH mostra os Atributos públicos como métricas secundárias do resultado. */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Tamanho {
+
+        public long bytes;
+
+    }
+
+    private static JsonFactory fabrica(String formato) {
+        return switch (formato) {
+            case "cbor" -> new CBORFactory();
+            case "smile" -> new SmileFactory();
+            default -> new JsonFactory();
+        };
+    }
+
+    static List<Postagem> criarPostagens(int quantidade) {
+
+        Random aleatorio = new Random(42);
+
+        List<Tema> temas = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            Tema tema = new Tema();
+            tema.setId((long) i + 1);
+            tema.setDescricao("Tema " + i);
+            temas.add(tema);
+        }
+
+        List<Usuario> usuarios = new ArrayList<>();
+        for (int i = 0; i < 50; i++)
+            usuarios.add(new Usuario((long) i + 1, "Autor " + i, "autor" + i + "@email.com.br",
+                    "$2a$10$naoutilizadonobenchmarknaoutilizadonobenchmarknaoutil", "https://i.imgur.com/foto" + i + ".jpg"));
+
+        List<Postagem> postagens = new ArrayList<>();
+        for (int i = 0; i < quantidade; i++) {
+            Postagem postagem = new Postagem();
+            postagem.setId((long) i + 1);
+            postagem.setTitulo(ContextoBenchmark.frase(aleatorio, 3 + aleatorio.nextInt(5)));
+            postagem.setTexto(ContextoBenchmark.frase(aleatorio, 40 + aleatorio.nextInt(80)));
+            postagem.setData(LocalDateTime.of(2023, 1, 1, 12, 0).plusMinutes(i));
+            postagem.setTema(temas.get(aleatorio.nextInt(temas.size())));
+            postagem.setUsuario(usuarios.get(aleatorio.nextInt(usuarios.size())));
+            postagens.add(postagem);
+        }
+
+        return postagens;
+    }
+
+}
@@ -2,8 +2,11 @@ package com.generation.blogpessoal;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcTransactionManagerAutoConfiguration;
 
-@SpringBootApplication
+@SpringBootApplication(exclude = R2dbcTransactionManagerAutoConfiguration.class)
+/* O R2DBC é utilizado apenas nas consultas de leitura (PostagemReativaController), que não precisam de transação. Sem a exclusão,
+o Spring criaria um segundo gerenciador de transações (reativo) e as anotações @Transactional do JPA deixariam de saber qual utilizar. */
 public class BlogpessoalApplication {
 
 	public static void main(String[] args) {
@@ -0,0 +1,14 @@
+package com.generation.blogpessoal.configuration;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+}
+/* A anotação @EnableCaching habilita as anotações @Cacheable e @CacheEvict do Spring. O Cache utilizado é o Caffeine (em memória),
+configurado no arquivo application.properties através das propriedades spring.cache.*: a quantidade máxima de registros, o tempo de
+expiração e a coleta de estatísticas (recordStats). Para desabilitar o Cache, basta configurar spring.cache.type=none: as anotações
+continuam funcionando, porém todas as consultas serão feitas direto no Banco de dados. */
@@ -0,0 +1,127 @@
+/* A Classe ConsultasLentas registra no log as instruções SQL (JDBC) que demoram mais do que blogpessoal.sql.lentas.limite-ms,
+no lugar do spring.jpa.show-sql, que imprimia todas as instruções de forma síncrona no console, sem o tempo de execução.
+
+O proxy do DataSource (Classe DataSourceConfig) chama o Método afterQuery() depois de cada instrução. Cada registro informa o tempo,
+o endpoint que executou a instrução (Classe ContadorSql), o tamanho do lote, o formato dos parâmetros e o SQL. Os parâmetros aparecem
+apenas pelo tipo ("Long, Timestamp, Null"), nunca pelo valor: o log não recebe senhas, e-mails nem textos das Postagens, e instruções
+iguais com valores diferentes ficam com o mesmo registro.
+
+As instruções rápidas podem ser registradas por amostragem (blogpessoal.sql.lentas.amostragem, de 0 a 1) para comparar com as lentas.
+O logger "blogpessoal.sql.lentas" escreve por um AsyncAppender com fila limitada (logback-spring.xml): a thread da requisição apenas
+coloca o registro na fila e, com a fila cheia, o registro é descartado, sem bloquear a requisição. */
+
+package com.generation.blogpessoal.configuration;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+
+@Component
+public class ConsultasLentas implements QueryExecutionListener {
+
+    private static final Logger log = LoggerFactory.getLogger("blogpessoal.sql.lentas");
+
+    private static final int TAMANHO_MAXIMO_SQL = 1000;
+
+    private final boolean habilitado;
+
+    private final long limiteMs;
+
+    private final double amostragem;
+
+    private final ContadorSql contadorSql;
+
+    public ConsultasLentas(ContadorSql contadorSql,
+                           @Value("${blogpessoal.sql.lentas.habilitado:true}") boolean habilitado,
+                           @Value("${blogpessoal.sql.lentas.limite-ms:200}") long limiteMs,
+                           @Value("${blogpessoal.sql.lentas.amostragem:0}") double amostragem) {
+
+        this.contadorSql = contadorSql;
+        this.habilitado = habilitado;
+        this.limiteMs = limiteMs;
+        this.amostragem = Math.max(0, Math.min(1, amostragem));
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+
+        if (!habilitado || queryInfoList.isEmpty())
+            return;
+
+        long tempoMs = execInfo.getElapsedTime();
+
+        if (tempoMs >= limiteMs) {
+            if (log.isWarnEnabled())
+                log.warn(registro("lenta", execInfo, queryInfoList));
+        } else if (amostragem > 0 && ThreadLocalRandom.current().nextDouble() < amostragem && log.isInfoEnabled()) {
+            log.info(registro("amostra", execInfo, queryInfoList));
+        }
+    }
+
+    private String registro(String tipo, ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+
+        QueryInfo consulta = queryInfoList.get(0);
+        String endpoint = contadorSql.endpointAtual();
+
+        return tipo + " " + execInfo.getElapsedTime() + " ms"
+                + " | endpoint=" + (endpoint == null ? "-" : endpoint)
+                + " | sucesso=" + execInfo.isSuccess()
+                + " | lote=" + (execInfo.isBatch() ? execInfo.getBatchSize() : 1)
+                + " | parametros=[" + formatoParametros(consulta) + "]"
+                + " | sql=" + resumir(consulta.getQuery());
+    }
+
+    /* Tipo de cada parâmetro do primeiro conjunto (em um lote, todos os conjuntos têm o mesmo formato), na ordem dos "?" do SQL:
+    setLong() aparece como "Long", setNull() como "Null" e setObject() com o tipo do valor. */
+    static String formatoParametros(QueryInfo consulta) {
+
+        if (consulta.getParametersList().isEmpty())
+            return "";
+
+        return consulta.getParametersList().get(0).stream()
+                .sorted(Comparator.comparingInt(ConsultasLentas::posicao))
+                .map(ConsultasLentas::tipo)
+                .collect(Collectors.joining(", "));
+    }
+
+    private static int posicao(ParameterSetOperation parametro) {
+
+        Object[] argumentos = parametro.getArgs();
+
+        return argumentos.length > 0 && argumentos[0] instanceof Integer posicao ? posicao : Integer.MAX_VALUE;
+    }
+
+    private static String tipo(ParameterSetOperation parametro) {
+
+        String metodo = parametro.getMethod().getName();
+        Object[] argumentos = parametro.getArgs();
+
+        if (metodo.equals("setObject") && argumentos.length > 1)
+            return argumentos[1] == null ? "Null" : argumentos[1].getClass().getSimpleName();
+
+        return metodo.startsWith("set") ? metodo.substring(3) : metodo;
+    }
+
+    private static String resumir(String sql) {
+
+        String linha = sql.replaceAll("\\s+", " ").trim();
+
+        return linha.length() > TAMANHO_MAXIMO_SQL ? linha.substring(0, TAMANHO_MAXIMO_SQL) + "..." : linha;
+    }
+
+}
@@ -0,0 +1,294 @@
+/* A Classe ContadorSql conta as instruções SQL (JDBC) executadas em cada requisição HTTP e compara a contagem com o orçamento do
+endpoint: o valor da anotação @OrcamentoSql no Método do Controlador ou, sem a anotação, blogpessoal.sql.orcamento.padrao.
+Consultas N+1 aparecem sempre que alguém altera as associações entre Postagem, Tema e Usuario (um Atributo LAZY lido na serialização,
+um @EntityGraph removido...) e não quebram nenhuma funcionalidade, apenas multiplicam as idas ao Banco de dados.
+
+O proxy do DataSource (Classe DataSourceConfig) chama o Método beforeQuery() antes de cada instrução. A contagem fica em um ThreadLocal
+aberto pelo Filtro ContadorSqlFilter no início da requisição (depois da autenticação) e fechado no final dela. Instruções executadas
+fora de uma requisição (inicialização, Flyway) não são contadas.
+
+O comportamento ao ultrapassar o orçamento depende de blogpessoal.sql.orcamento.modo:
+- log: a requisição termina normalmente e um aviso (WARN) informa o endpoint, a contagem e as instruções mais repetidas;
+- falha: a instrução que ultrapassaria o orçamento lança OrcamentoSqlExcedidoException (utilizado nos testes);
+- desligado: nada é contado.
+
+Além disso, cada endpoint acumula um relatório (requisições, total e máximo de instruções, quantas vezes o orçamento foi ultrapassado e
+as instruções mais repetidas da pior requisição), disponível no endpoint /actuator/sql. Os testes consultam a contagem da última
+requisição de cada endpoint com o Método ultima(). */
+
+package com.generation.blogpessoal.configuration;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+import jakarta.servlet.http.HttpServletRequest;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+
+@Component
+public class ContadorSql implements QueryExecutionListener {
+
+    private static final Logger log = LoggerFactory.getLogger(ContadorSql.class);
+
+    /* Quantas instruções diferentes são guardadas por requisição para o relatório (as demais são apenas contadas). */
+    private static final int MAXIMO_INSTRUCOES_DISTINTAS = 50;
+
+    private static final int INSTRUCOES_NO_RELATORIO = 3;
+
+    private static final int TAMANHO_MAXIMO_SQL = 200;
+
+    private static final String SEM_MAPEAMENTO = "(sem mapeamento)";
+
+    public enum Modo { LOG, FALHA, DESLIGADO }
+
+    private final Modo modo;
+
+    private final int orcamentoPadrao;
+
+    private final ThreadLocal<Requisicao> atual = new ThreadLocal<>();
+
+    private final Map<String, Estatistica> estatisticas = new ConcurrentHashMap<>();
+
+    public ContadorSql(@Value("${blogpessoal.sql.orcamento.modo:log}") String modo,
+                       @Value("${blogpessoal.sql.orcamento.padrao:10}") int orcamentoPadrao) {
+
+        this.modo = Modo.valueOf(modo.trim().toUpperCase(Locale.ROOT));
+        this.orcamentoPadrao = orcamentoPadrao;
+    }
+
+    /* Abre a contagem da requisição na thread atual. */
+    public void iniciar(HttpServletRequest request) {
+
+        if (modo != Modo.DESLIGADO)
+            atual.set(new Requisicao(request));
+    }
+
+    /* Fecha a contagem da requisição, acumula o relatório do endpoint e, se o orçamento foi ultrapassado, registra o aviso. */
+    public void finalizar() {
+
+        Requisicao requisicao = atual.get();
+
+        if (requisicao == null)
+            return;
+
+        atual.remove();
+
+        int orcamento = requisicao.orcamento();
+        boolean excedeu = orcamento != OrcamentoSql.SEM_LIMITE && requisicao.contagem > orcamento;
+        String endpoint = requisicao.endpoint();
+
+        /* Requisições sem Controlador e sem SQL (recursos estáticos, 404) não entram no relatório. */
+        if (requisicao.contagem == 0 && endpoint.endsWith(SEM_MAPEAMENTO))
+            return;
+
+        estatisticas.computeIfAbsent(endpoint, chave -> new Estatistica()).registrar(requisicao, orcamento, excedeu);
+
+        if (excedeu && modo == Modo.LOG)
+            log.warn("{} executou {} instruções SQL (orçamento {}). Mais repetidas: {}",
+                    endpoint, requisicao.contagem, orcamento, requisicao.maisRepetidas());
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+
+        Requisicao requisicao = atual.get();
+
+        if (requisicao == null)
+            return;
+
+        requisicao.contar(queryInfoList.isEmpty() ? "" : queryInfoList.get(0).getQuery());
+
+        if (modo != Modo.FALHA)
+            return;
+
+        int orcamento = requisicao.orcamento();
+
+        if (orcamento != OrcamentoSql.SEM_LIMITE && requisicao.contagem > orcamento) {
+
+            String mensagem = requisicao.endpoint() + " ultrapassou o orçamento de " + orcamento
+                    + " instruções SQL. Mais repetidas: " + requisicao.maisRepetidas();
+
+            log.error(mensagem);
+            throw new OrcamentoSqlExcedidoException(mensagem);
+        }
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    /* Endpoint da requisição em andamento na thread atual ("GET /postagens/{id}"), ou nulo fora de uma requisição
+    (e no modo desligado). Utilizado no log de consultas lentas (Classe ConsultasLentas). */
+    public String endpointAtual() {
+
+        Requisicao requisicao = atual.get();
+
+        return requisicao == null ? null : requisicao.endpoint();
+    }
+
+    /* Quantidade de instruções da última requisição do endpoint ("GET /postagens/{id}"), ou -1 se ele ainda não foi chamado. */
+    public int ultima(String endpoint) {
+
+        Estatistica estatistica = estatisticas.get(endpoint);
+
+        return estatistica == null ? -1 : estatistica.ultima;
+    }
+
+    /* Maior quantidade de instruções em uma requisição do endpoint, ou -1 se ele ainda não foi chamado. */
+    public long maximo(String endpoint) {
+
+        Estatistica estatistica = estatisticas.get(endpoint);
+
+        return estatistica == null ? -1 : estatistica.maximo.get();
+    }
+
+    public Map<String, Map<String, Object>> relatorio() {
+
+        Map<String, Map<String, Object>> relatorio = new TreeMap<>();
+        estatisticas.forEach((endpoint, estatistica) -> relatorio.put(endpoint, estatistica.resumo()));
+
+        return relatorio;
+    }
+
+    public void limpar() {
+        estatisticas.clear();
+    }
+
+    /* Contagem de uma requisição, acessada apenas pela thread da requisição. */
+    private final class Requisicao {
+
+        private final HttpServletRequest request;
+
+        private final Map<String, Integer> instrucoes = new LinkedHashMap<>();
+
+        private int contagem;
+
+        /* Nulo enquanto o Spring ainda não escolheu o Método do Controlador. */
+        private Integer orcamento;
+
+        Requisicao(HttpServletRequest request) {
+            this.request = request;
+        }
+
+        void contar(String sql) {
+
+            contagem++;
+
+            if (instrucoes.containsKey(sql) || instrucoes.size() < MAXIMO_INSTRUCOES_DISTINTAS)
+                instrucoes.merge(sql, 1, Integer::sum);
+        }
+
+        int orcamento() {
+
+            if (orcamento != null)
+                return orcamento;
+
+            Object handler = request.getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE);
+
+            if (handler == null)
+                return orcamentoPadrao;
+
+            OrcamentoSql anotacao = handler instanceof HandlerMethod metodo ? metodo.getMethodAnnotation(OrcamentoSql.class) : null;
+            orcamento = anotacao == null ? orcamentoPadrao : anotacao.value();
+
+            return orcamento;
+        }
+
+        /* O endpoint é identificado pelo padrão do mapeamento ("/postagens/{id}"), e não pela URL, para agrupar as requisições. */
+        String endpoint() {
+
+            Object padrao = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+
+            return request.getMethod() + " " + (padrao == null ? SEM_MAPEAMENTO : padrao);
+        }
+
+        List<String> maisRepetidas() {
+
+            List<String> maisRepetidas = new ArrayList<>();
+
+            instrucoes.entrySet().stream()
+                    .sorted(Map.Entry.<String, Integer>comparingByValue(Comparator.reverseOrder()))
+                    .limit(INSTRUCOES_NO_RELATORIO)
+                    .forEach(instrucao -> maisRepetidas.add(instrucao.getValue() + "x " + resumir(instrucao.getKey())));
+
+            return maisRepetidas;
+        }
+
+        private static String resumir(String sql) {
+
+            String linha = sql.replaceAll("\\s+", " ").trim();
+
+            return linha.length() > TAMANHO_MAXIMO_SQL ? linha.substring(0, TAMANHO_MAXIMO_SQL) + "..." : linha;
+        }
+
+    }
+
+    /* Relatório acumulado de um endpoint, atualizado por várias requisições ao mesmo tempo. */
+    private static final class Estatistica {
+
+        private final LongAdder requisicoes = new LongAdder();
+
+        private final LongAdder instrucoes = new LongAdder();
+
+        private final LongAdder excedidas = new LongAdder();
+
+        private final AtomicLong maximo = new AtomicLong();
+
+        private volatile int ultima;
+
+        private volatile int orcamento;
+
+        private volatile List<String> piorRequisicao = List.of();
+
+        void registrar(Requisicao requisicao, int orcamento, boolean excedeu) {
+
+            requisicoes.increment();
+            instrucoes.add(requisicao.contagem);
+            ultima = requisicao.contagem;
+            this.orcamento = orcamento;
+
+            if (excedeu)
+                excedidas.increment();
+
+            long anterior = maximo.getAndAccumulate(requisicao.contagem, Math::max);
+
+            if (requisicao.contagem > anterior || piorRequisicao.isEmpty() && requisicao.contagem > 0)
+                piorRequisicao = requisicao.maisRepetidas();
+        }
+
+        Map<String, Object> resumo() {
+
+            long quantidade = requisicoes.sum();
+
+            Map<String, Object> resumo = new LinkedHashMap<>();
+            resumo.put("requisicoes", quantidade);
+            resumo.put("instrucoes", instrucoes.sum());
+            resumo.put("media", quantidade == 0 ? 0.0 : instrucoes.sum() / (double) quantidade);
+            resumo.put("maximo", maximo.get());
+            resumo.put("ultima", ultima);
+            resumo.put("orcamento", orcamento);
+            resumo.put("excedidas", excedidas.sum());
+            resumo.put("maisRepetidas", piorRequisicao);
+
+            return resumo;
+        }
+
+    }
+
+}
@@ -0,0 +1,31 @@
+/* Relatório das instruções SQL por endpoint (Classe ContadorSql) no endpoint /actuator/sql, que exige autenticação como os demais.
+GET devolve o relatório e DELETE o reinicia (por exemplo, antes de medir uma alteração). */
+
+package com.generation.blogpessoal.configuration;
+
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+@Component
+@Endpoint(id = "sql")
+public class ContadorSqlEndpoint {
+
+    @Autowired
+    private ContadorSql contadorSql;
+
+    @ReadOperation
+    public Map<String, Map<String, Object>> relatorio() {
+        return contadorSql.relatorio();
+    }
+
+    @DeleteOperation
+    public void limpar() {
+        contadorSql.limpar();
+    }
+
+}
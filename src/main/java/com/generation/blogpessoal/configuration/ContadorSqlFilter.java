@@ -0,0 +1,37 @@
+/* O Filtro ContadorSqlFilter abre e fecha a contagem de instruções SQL de cada requisição (Classe ContadorSql).
+Ele é registrado pelo Spring Boot depois da cadeia de Filtros do Spring Security: as consultas da autenticação (que dependem do Cache
+de credenciais) não entram na contagem, que fica igual em todas as requisições do mesmo endpoint. */
+
+package com.generation.blogpessoal.configuration;
+
+import java.io.IOException;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+@Component
+public class ContadorSqlFilter extends OncePerRequestFilter {
+
+    @Autowired
+    private ContadorSql contadorSql;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+
+        contadorSql.iniciar(request);
+
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            contadorSql.finalizar();
+        }
+    }
+
+}
@@ -0,0 +1,121 @@
+package com.generation.blogpessoal.configuration;
+
+import java.sql.Connection;
+
+import javax.sql.DataSource;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+
+@Configuration
+@EnableConfigurationProperties(DataSourceProperties.class)
+public class DataSourceConfig {
+
+    /* A réplica só é configurada quando blogpessoal.datasource.replica.url não está vazia. */
+    private static final String COM_REPLICA = "!'${blogpessoal.datasource.replica.url:}'.isEmpty()";
+
+    @Bean
+    @Primary
+    public DataSource dataSource(DataSourceProperties propriedades, Environment environment, ContadorSql contadorSql,
+                                 ConsultasLentas consultasLentas, ObjectProvider<DataSourceRoteado> dataSourceRoteado) {
+
+        DataSourceRoteado roteado = dataSourceRoteado.getIfAvailable();
+
+        return ProxyDataSourceBuilder.create(roteado == null ? primario(propriedades, environment) : preguicoso(roteado))
+                .name("blogpessoal")
+                .listener(contadorSql)
+                .listener(consultasLentas)
+                .build();
+    }
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnExpression(COM_REPLICA)
+    public DataSourceRoteado dataSourceRoteado(DataSourceProperties propriedades, Environment environment,
+            @Value("${blogpessoal.datasource.replica.url}") String url,
+            @Value("${blogpessoal.datasource.replica.username:}") String usuario,
+            @Value("${blogpessoal.datasource.replica.password:}") String senha,
+            @Value("${blogpessoal.datasource.replica.consulta-atraso:}") String consultaAtraso,
+            @Value("${blogpessoal.datasource.replica.atraso-maximo-segundos:10}") double atrasoMaximoSegundos,
+            @Value("${blogpessoal.datasource.replica.intervalo-verificacao-ms:5000}") long intervaloVerificacaoMs) {
+
+        HikariDataSource primario = primario(propriedades, environment);
+
+        if (primario.getPoolName() == null)
+            primario.setPoolName("primario");
+
+        HikariDataSource replica = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .driverClassName(propriedades.determineDriverClassName())
+                .url(url)
+                .username(usuario.isEmpty() ? propriedades.determineUsername() : usuario)
+                .password(senha.isEmpty() ? propriedades.determinePassword() : senha)
+                .build();
+        Binder.get(environment).bind("blogpessoal.datasource.replica.hikari", Bindable.ofInstance(replica));
+
+        if (replica.getPoolName() == null)
+            replica.setPoolName("replica");
+
+        return new DataSourceRoteado(primario, replica, consultaAtraso, atrasoMaximoSegundos, intervaloVerificacaoMs);
+    }
+
+    /* Com a réplica, cada transação do Hibernate devolve a conexão ao terminar (o padrão do Spring é manter a mesma conexão até o fim
+    da requisição, por causa do open-in-view). Assim, uma requisição que lê na réplica e depois grava recebe uma nova conexão,
+    do primário, para a gravação. */
+    @Bean
+    @ConditionalOnExpression(COM_REPLICA)
+    public HibernatePropertiesCustomizer conexaoPorTransacao() {
+        return propriedades -> propriedades.put(AvailableSettings.CONNECTION_HANDLING,
+                PhysicalConnectionHandlingMode.DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION);
+    }
+
+    private static HikariDataSource primario(DataSourceProperties propriedades, Environment environment) {
+
+        HikariDataSource hikari = propriedades.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(hikari));
+
+        return hikari;
+    }
+
+    /* O LazyConnectionDataSourceProxy só pede a conexão ao DataSourceRoteado na primeira instrução SQL, quando o Spring já marcou a
+    transação como somente leitura. Os valores padrão de auto-commit e isolamento são informados aqui para que o proxy não abra
+    uma conexão durante a inicialização (antes das métricas do Hikari serem configuradas). */
+    private static DataSource preguicoso(DataSourceRoteado roteado) {
+
+        LazyConnectionDataSourceProxy preguicoso = new LazyConnectionDataSourceProxy();
+        preguicoso.setDefaultAutoCommit(true);
+        preguicoso.setDefaultTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
+        preguicoso.setTargetDataSource(roteado);
+        preguicoso.afterPropertiesSet();
+
+        return preguicoso;
+    }
+
+}
+/* O Spring Boot só cria o DataSource (JDBC, utilizado pelo JPA) automaticamente quando não existe uma ConnectionFactory do R2DBC.
+Como a aplicação utiliza os dois (o JPA em todas as operações e o R2DBC nas leituras da Classe PostagemReativaController), o DataSource
+é criado aqui, com as mesmas propriedades de antes (spring.datasource.* e spring.datasource.hikari.*).
+
+O pool do Hikari é envolvido por um proxy (datasource-proxy) que avisa as Classes ContadorSql (instruções por requisição) e
+ConsultasLentas (log das instruções lentas) a cada instrução executada no JDBC, seja pelo Hibernate, pelo JdbcTemplate ou pelo Flyway.
+As consultas do R2DBC não passam pelo JDBC e não são contadas.
+
+Quando blogpessoal.datasource.replica.url está configurada, o proxy envolve o DataSourceRoteado, que envia as transações somente
+leitura para a réplica e as demais operações para o primário (spring.datasource.*). O R2DBC continua lendo do primário. */
@@ -0,0 +1,196 @@
+/* A Classe DataSourceRoteado envia as transações somente leitura (@Transactional(readOnly = true)) para o pool da réplica e todas
+as demais operações (gravações, transações de leitura e escrita e consultas fora de transação) para o pool do primário.
+Os Métodos de consulta dos repositórios do Spring Data já são executados em transações somente leitura; os Serviços marcam com
+readOnly = true as leituras que devem ir para a réplica e com @Transactional as leituras que antecedem uma gravação, que precisam
+ver os dados mais recentes e continuam no primário.
+
+A decisão é tomada quando a primeira instrução da transação pede uma conexão: o DataSourceRoteado fica atrás de um
+LazyConnectionDataSourceProxy (Classe DataSourceConfig), porque o Hibernate pede a conexão no início da transação, antes do Spring
+marcar a transação como somente leitura.
+
+A réplica só recebe leituras enquanto estiver disponível. Uma thread própria verifica a réplica a cada intervalo: a conexão precisa
+ser válida e, se blogpessoal.datasource.replica.consulta-atraso estiver configurada, o atraso da replicação (em segundos, a primeira
+coluna do resultado) precisa ficar dentro do máximo. Se a réplica estiver indisponível, atrasada ou falhar ao entregar uma conexão,
+as leituras voltam para o primário até a próxima verificação bem sucedida. */
+
+package com.generation.blogpessoal.configuration;
+
+import java.io.Closeable;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+public class DataSourceRoteado extends AbstractDataSource implements Closeable, MeterBinder {
+
+    private static final Logger log = LoggerFactory.getLogger(DataSourceRoteado.class);
+
+    /* Tempo máximo, em segundos, da validação da conexão e da consulta do atraso. */
+    private static final int TEMPO_VERIFICACAO_SEGUNDOS = 2;
+
+    private final HikariDataSource primario;
+
+    private final HikariDataSource replica;
+
+    private final String consultaAtraso;
+
+    private final double atrasoMaximoSegundos;
+
+    /* Começa disponível: a primeira verificação, no construtor, registra no log se a réplica não responder. */
+    private final AtomicBoolean replicaDisponivel = new AtomicBoolean(true);
+
+    private final LongAdder conexoesReplica = new LongAdder();
+
+    private final LongAdder conexoesPrimario = new LongAdder();
+
+    private final LongAdder falhasReplica = new LongAdder();
+
+    private final ScheduledExecutorService verificador;
+
+    public DataSourceRoteado(HikariDataSource primario, HikariDataSource replica, String consultaAtraso,
+                             double atrasoMaximoSegundos, long intervaloVerificacaoMs) {
+
+        this.primario = primario;
+        this.replica = replica;
+        this.consultaAtraso = consultaAtraso == null ? "" : consultaAtraso.trim();
+        this.atrasoMaximoSegundos = atrasoMaximoSegundos;
+
+        verificarReplica();
+
+        this.verificador = Executors.newSingleThreadScheduledExecutor(tarefa -> {
+            Thread thread = new Thread(tarefa, "replica-verificacao");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.verificador.scheduleWithFixedDelay(this::verificarReplica, intervaloVerificacaoMs, intervaloVerificacaoMs,
+                TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly() && replicaDisponivel.get()) {
+            try {
+                Connection conexao = replica.getConnection();
+                conexoesReplica.increment();
+                return conexao;
+            } catch (SQLException e) {
+                falhasReplica.increment();
+                indisponivel("falha ao obter uma conexão (" + e.getMessage() + ")");
+            }
+        }
+
+        conexoesPrimario.increment();
+        return primario.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return primario.getConnection(username, password);
+    }
+
+    public boolean isReplicaDisponivel() {
+        return replicaDisponivel.get();
+    }
+
+    /* Confere a conexão e o atraso da réplica. Executado na inicialização e depois a cada intervalo pela thread de verificação. */
+    public void verificarReplica() {
+
+        try (Connection conexao = replica.getConnection()) {
+
+            if (!conexao.isValid(TEMPO_VERIFICACAO_SEGUNDOS)) {
+                indisponivel("conexão inválida");
+                return;
+            }
+
+            if (!consultaAtraso.isEmpty()) {
+                try (Statement instrucao = conexao.createStatement()) {
+                    instrucao.setQueryTimeout(TEMPO_VERIFICACAO_SEGUNDOS);
+
+                    try (ResultSet resultado = instrucao.executeQuery(consultaAtraso)) {
+                        double atraso = resultado.next() ? resultado.getDouble(1) : 0;
+
+                        if (atraso > atrasoMaximoSegundos) {
+                            indisponivel("atraso de " + atraso + " segundos (máximo " + atrasoMaximoSegundos + ")");
+                            return;
+                        }
+                    }
+                }
+            }
+
+            if (!replicaDisponivel.getAndSet(true))
+                log.info("Réplica disponível: as transações somente leitura voltam para a réplica");
+
+        } catch (SQLException | RuntimeException e) {
+            indisponivel(e.getMessage());
+        }
+    }
+
+    /* O Spring Boot procura o pool do Hikari dentro do DataSource para as métricas hikaricp.*: o DataSourceRoteado se apresenta
+    como o pool do primário. */
+    @Override
+    public boolean isWrapperFor(Class<?> iface) throws SQLException {
+        return iface.isInstance(this) || primario.isWrapperFor(iface);
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        return iface.isInstance(this) ? iface.cast(this) : primario.unwrap(iface);
+    }
+
+    /* Métricas do roteamento no endpoint /actuator/prometheus: se a réplica está recebendo as leituras (1) ou não (0) e quantas
+    conexões foram entregues por cada pool. */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+
+        Gauge.builder("blogpessoal.replica.disponivel", replicaDisponivel, disponivel -> disponivel.get() ? 1 : 0)
+                .description("Réplica recebendo as transações somente leitura")
+                .register(registry);
+
+        FunctionCounter.builder("blogpessoal.datasource.conexoes", conexoesReplica, LongAdder::sum)
+                .description("Conexões entregues pelo DataSource roteado")
+                .tag("destino", "replica")
+                .register(registry);
+
+        FunctionCounter.builder("blogpessoal.datasource.conexoes", conexoesPrimario, LongAdder::sum)
+                .description("Conexões entregues pelo DataSource roteado")
+                .tag("destino", "primario")
+                .register(registry);
+
+        FunctionCounter.builder("blogpessoal.replica.falhas", falhasReplica, LongAdder::sum)
+                .description("Falhas ao obter uma conexão da réplica (leitura enviada ao primário)")
+                .register(registry);
+    }
+
+    @Override
+    public void close() {
+
+        verificador.shutdownNow();
+        replica.close();
+        primario.close();
+    }
+
+    private void indisponivel(String motivo) {
+
+        if (replicaDisponivel.getAndSet(false))
+            log.warn("Réplica indisponível, as leituras vão para o primário: {}", motivo);
+    }
+
+}
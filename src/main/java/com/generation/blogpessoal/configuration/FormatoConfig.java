@@ -0,0 +1,35 @@
+package com.generation.blogpessoal.configuration;
+
+import java.util.List;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+@Configuration
+public class FormatoConfig implements WebMvcConfigurer {
+
+    @Autowired
+    private ObjectProvider<Jackson2ObjectMapperBuilder> jacksonBuilder;
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.add(new MappingJackson2CborHttpMessageConverter(jacksonBuilder.getObject().factory(new CBORFactory()).build()));
+        converters.add(new MappingJackson2SmileHttpMessageConverter(jacksonBuilder.getObject().factory(new SmileFactory()).build()));
+    }
+
+}
+/* Além do JSON, os controladores passam a responder nos formatos binários CBOR (application/cbor) e Smile
+(application/x-jackson-smile), escolhidos pelo cabeçalho Accept da requisição. Os dois formatos representam os mesmos Objetos do JSON,
+porém com menos bytes e uma conversão mais barata, o que interessa aos serviços que consomem listas grandes de Postagens.
+Os conversores são adicionados no fim da lista: quando o cliente não pede um formato específico (cabeçalho Accept genérico ou ausente), a resposta
+continua sendo o mesmo JSON de antes. Os ObjectMappers são criados pelo Jackson2ObjectMapperBuilder do Spring Boot, com as mesmas
+configurações do JSON (spring.jackson.*). */
@@ -0,0 +1,42 @@
+/* A Classe FormatoEtagAdvice acerta o ETag das respostas 200 com o formato que o Spring escolheu para escrever o corpo (JSON, CBOR ou
+Smile). O controlador confere o If-None-Match antes de carregar os dados (VersaoService.naoModificado()), quando o conversor ainda não
+foi escolhido; aqui o formato já é o negociado de fato, e o ETag enviado ao cliente é sempre o do corpo que ele recebe. */
+
+package com.generation.blogpessoal.configuration;
+
+import com.generation.blogpessoal.service.VersaoService;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.http.server.ServletServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+@ControllerAdvice
+public class FormatoEtagAdvice implements ResponseBodyAdvice<Object> {
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    /* O ETag sem sufixo fica em um atributo da requisição (VersaoService.ETAG): o cabeçalho já enviado pode trazer o sufixo do
+    formato previsto. O cabeçalho é substituído direto na resposta do Servlet, para não ser enviado duas vezes. */
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+
+        if (request instanceof ServletServerHttpRequest requisicao && response instanceof ServletServerHttpResponse resposta
+                && requisicao.getServletRequest().getAttribute(VersaoService.ETAG) instanceof String etag)
+            resposta.getServletResponse().setHeader(HttpHeaders.ETAG, VersaoService.etagDoFormato(etag, selectedContentType));
+
+        return body;
+    }
+
+}
@@ -0,0 +1,24 @@
+/* A anotação @OrcamentoSql define, em um Método dos Controladores, quantas instruções SQL (JDBC) uma requisição pode executar.
+Sem a anotação, vale o orçamento padrão (blogpessoal.sql.orcamento.padrao). A contagem começa depois da autenticação, então o
+orçamento inclui apenas o trabalho do próprio endpoint (consultas do Controlador, dos Serviços e da serialização da resposta).
+O valor SEM_LIMITE é utilizado nos endpoints cujo número de instruções cresce com o tamanho da entrada (por exemplo, o envio em lote).
+Ver a Classe ContadorSql. */
+
+package com.generation.blogpessoal.configuration;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface OrcamentoSql {
+
+    int SEM_LIMITE = -1;
+
+    int value();
+
+}
@@ -0,0 +1,16 @@
+/* Exceção lançada pela Classe ContadorSql, no modo "falha", quando uma requisição tenta executar mais instruções SQL do que o seu
+orçamento. A instrução que ultrapassaria o orçamento não é executada e a requisição termina com o Status 500 (Internal Server Error):
+nos testes, uma consulta N+1 introduzida em Postagem, Tema ou Usuario quebra o teste do endpoint, com as instruções mais repetidas
+na mensagem. */
+
+package com.generation.blogpessoal.configuration;
+
+public class OrcamentoSqlExcedidoException extends IllegalStateException {
+
+    private static final long serialVersionUID = 1L;
+
+    public OrcamentoSqlExcedidoException(String mensagem) {
+        super(mensagem);
+    }
+
+}
@@ -1,17 +1,39 @@
 package com.generation.blogpessoal.controller;
 
+import com.generation.blogpessoal.configuration.OrcamentoSql;
+import com.generation.blogpessoal.model.Pagina;
 import com.generation.blogpessoal.model.Postagem;
+import com.generation.blogpessoal.model.ResultadoIngestao;
 import com.generation.blogpessoal.repository.PostagemRepository;
-import com.generation.blogpessoal.repository.TemaRepository;
+import com.generation.blogpessoal.service.BuscaService;
+import com.generation.blogpessoal.service.EstatisticasService;
+import com.generation.blogpessoal.service.ExclusaoService;
+import com.generation.blogpessoal.service.PostagemAtualizacaoService;
+import com.generation.blogpessoal.service.PaginacaoService;
+import com.generation.blogpessoal.service.PostagemExportacaoService;
+import com.generation.blogpessoal.service.PostagemIngestaoService;
+import jakarta.servlet.http.HttpServletResponse;
+import com.generation.blogpessoal.service.TemaService;
+import com.generation.blogpessoal.service.VersaoService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 @RestController
 /* Define que a Classe é do tipo RestController e receberá requisições compostas por URL (endpoint), Verbo (método HTTP) e Corpo da Requisição (Request Body), objeto
@@ -40,9 +62,44 @@ a partir da Interface PostagemRepository, permitindo o uso de todos os Métodos
 Métodos Construtores na Classe Model ou Criar/Instaciar Objetos de forma manual. Transferimos a responsabilidade disso, para o Spring e focamos nas Requisições. */
 
     @Autowired
-    private TemaRepository temaRepository;
-    /* Para termos acesso aos Métodos das Classes Tema e TemaController, precisamos inserir uma uma Injeção de Dependência do Recurso Tema,
-     logo abaixo da uma Injeção de Dependência do Recurso Postagem. */
+    private TemaService temaService;
+    /* Para termos acesso aos Temas, precisamos inserir uma Injeção de Dependência do Recurso Tema, logo abaixo da Injeção de Dependência
+    do Recurso Postagem. Utilizamos a Classe TemaService (e não a Interface TemaRepository) porque ela guarda em Cache a verificação de
+    existência dos Temas, feita a cada post e put de Postagem. */
+
+    @Autowired
+    private PaginacaoService paginacaoService;
+    /* A Classe PaginacaoService limita o tamanho das listagens e monta o cursor da próxima página. */
+
+    @Autowired
+    private BuscaService buscaService;
+    /* A Classe BuscaService mantém o índice invertido utilizado na busca por palavras no título e no texto das Postagens.
+    Os Métodos post, put e delete atualizam o índice logo após gravar no Banco de dados. */
+
+    @Autowired
+    private EstatisticasService estatisticasService;
+    /* A Classe EstatisticasService mantém em memória as quantidades de Postagens por Tema e por Usuario. */
+
+    @Autowired
+    private PostagemIngestaoService postagemIngestaoService;
+    /* A Classe PostagemIngestaoService grava as Postagens enviadas em lote (NDJSON) utilizando o JDBC em modo batch. */
+
+    @Autowired
+    private PostagemExportacaoService postagemExportacaoService;
+    /* A Classe PostagemExportacaoService lê as Postagens do Banco de dados aos poucos e as escreve direto na resposta. */
+
+    @Autowired
+    private PostagemAtualizacaoService postagemAtualizacaoService;
+    /* A Classe PostagemAtualizacaoService grava as atualizações de Postagens com controle de concorrência otimista (versão). */
+
+    @Autowired
+    private ExclusaoService exclusaoService;
+    /* A Classe ExclusaoService apaga as Postagens e as remove do índice de busca e das estatísticas depois do commit. */
+
+    @Autowired
+    private VersaoService versaoService;
+    /* A Classe VersaoService calcula o ETag e a data da última alteração das respostas, utilizados nas requisições condicionais
+    (If-None-Match e If-Modified-Since): se nada mudou, a resposta é 304 (Not Modified), sem corpo e sem carregar as Postagens. */
 
 
     /*Vamos implementar o Método getAll() na Classe Postagem Controller, que retornará todos os Objetos da Classe Postagem persistidos no Banco de dados.
@@ -52,16 +109,37 @@ Métodos Construtores na Classe Model ou Criar/Instaciar Objetos de forma manual
     para um Método específico que responderá a requisição, ou seja, ele indica que o Método getAll(), responderá a todas as requisições do tipo HTTP GET,
     enviadas no endereço http://localhost:8080/postagens/. */
 
-    public ResponseEntity<List<Postagem>> getAll() {
+    @OrcamentoSql(2)
+    /* A anotação @OrcamentoSql limita o número de instruções SQL da requisição (ver a Classe ContadorSql): a consulta do ETag e a
+    consulta da página, com os Temas e os Usuários carregados no mesmo SELECT. Uma consulta a mais por Postagem (N+1) ultrapassa o limite. */
+
+    public ResponseEntity<Pagina<Postagem>> getAll(@RequestParam(required = false) String cursor,
+                                                   @RequestParam(required = false) Integer tamanho,
+                                                   WebRequest request) {
         /* O Método getAll() será do tipo ResponseEntity pq ele responderá a Requisição HTTP (HTTP Request), com uma Resposta HTTP (HTTP Response).
-        <list<Postagem>>: O Método além de retornar um Objeto da Classe ResponseEntity (OK=200), no parâmetro body (Corpo da Resposta),
-        será retornado um Objeto da Classe List (Collection), contendo todos os Objetos da Classe postagem persistidos no Banco de Dados, na tabela tb_postagens.
-        Usamos aqui nessa linha 46, o recurso Java Generics, que além de simplificar o retorno do Objeto da Classe List, dispensa o uso do casting (mudança de tipos).
-        Na definição do Método, foram usados os símbolos, onde T é o tipo do objeto que será retornado no Corpo da Resposta. */
-
-        return ResponseEntity.ok(postagemRepository.findAll());
-        /* Executa o Método findAll() (Método padrão da Interface JpaRepository), que retornará todos os Objetos da Classe Postagem persistidos no Banco de dados
-        (<List<Postagem>>. Como a List sempre será gerada (vazia ou não), o Método sempre retornará o Status 200=OK */
+        <Pagina<Postagem>>: O Método além de retornar um Objeto da Classe ResponseEntity (OK=200), no parâmetro body (Corpo da Resposta),
+        será retornado um Objeto da Classe Pagina, contendo no máximo "tamanho" Objetos da Classe Postagem (das mais recentes para as mais antigas)
+        e o cursor da próxima página. O servidor nunca devolve mais do que blogpessoal.paginacao.tamanho-maximo Postagens por vez.
+
+        @RequestParam String cursor: parâmetro opcional com o valor de proximoCursor devolvido pela página anterior. Como a consulta
+        continua a partir da última Postagem lida (e não pula as N primeiras linhas, como o OFFSET), todas as páginas custam o mesmo.
+
+        WebRequest request: utilizado para conferir o cabeçalho If-None-Match (a listagem não envia Last-Modified). Se nenhuma Postagem mudou desde
+        a última resposta recebida pelo cliente, o Método retorna nulo e o Spring responde 304 (Not Modified). */
+
+        if (versaoService.naoModificado(versaoService.postagens(), request))
+            return null;
+
+        int limite = paginacaoService.tamanho(tamanho);
+
+        List<Postagem> postagens = (cursor == null)
+                ? postagemRepository.findPagina(paginacaoService.limite(limite))
+                : postagemRepository.findPaginaApos(paginacaoService.dataDoCursor(cursor),
+                        paginacaoService.idDoCursor(cursor), paginacaoService.limite(limite));
+
+        return ResponseEntity.ok().cacheControl(VersaoService.revalidar()).body(paginacaoService.montarPagina(postagens, limite,
+                postagem -> paginacaoService.codificarCursor(postagem.getData(), postagem.getId())));
+        /* Como a Pagina sempre será gerada (vazia ou não), o Método sempre retornará o Status 200=OK */
     }
 
     /*Vamos implementar o Método getById(Long id) na Classe Postagem Controller, que retornará um Objeto específico persistido no Banco de dados, identificado
@@ -75,7 +153,8 @@ Métodos Construtores na Classe Model ou Criar/Instaciar Objetos de forma manual
     do tipo HTTP GET, enviadas no endereço http://localhost:8080/postagens/id, onde id é uma Variável de Caminho (Path Variable), que receberá o id da
     Postagem que será Consultada. */
 
-    public ResponseEntity<Postagem> getById(@PathVariable Long id) {
+    @OrcamentoSql(2)
+    public ResponseEntity<Postagem> getById(@PathVariable Long id, WebRequest request) {
         /*O Método getById(@PathVariable Long id) será do tipo ResponseEntity porque ele responderá Requisições HTTP (HTTP Request), com uma Resposta HTTP
         (HTTP Response). Observe que o Método possui um parâmetro do tipo Long, chamado id.
         @PathVariable Long id: Esta anotação insere o valor enviado no endereço do endpoint, na Variável de Caminho {id}, no parâmetro do Método getById( Long id )
@@ -84,10 +163,17 @@ Métodos Construtores na Classe Model ou Criar/Instaciar Objetos de forma manual
         Classe Postagem, apenas e somente se o Objeto procurado for encontrado no Banco de dados, na tabela tb_postagens. Nesta linha também foi utilizado o
         recurso Java Generics para simplificar o retorno do Objeto. */
 
+        Optional<VersaoService.Versao> versao = versaoService.postagem(id);
+
+        if (versao.isPresent() && versaoService.naoModificado(versao.get(), request))
+            return null;
+        /* A versão da Postagem (data da última alteração da Postagem, do Tema e do Usuario) é lida sem carregar a Postagem.
+        Se o ETag enviado pelo cliente no cabeçalho If-None-Match for igual, retorna o HTTP Status NOT MODIFIED = 304. */
+
         return postagemRepository.findById(id)
                 /* Retorna a execução do Método findById(id), que é um Método padrão da Interface JpaRepository. O Método retornará um Objeto da Classe Postagem
                 persistido no Banco de dados (source: imgur.com), caso ele seja encontrado a partir do parâmetro Long id. Caso contrário, será retornado um Objeto Nulo.*/
-                .map(resposta -> ResponseEntity.ok(resposta))
+                .map(resposta -> ResponseEntity.ok().cacheControl(VersaoService.revalidar()).body(resposta))
                 /* Se o Objeto da Classe Postagem for econtrado, o Método map (Optional), mapeia no Objeto resp o Objeto Postagem retornado pelo Método findById(id)),
                  insere o Objeto mapeado no Corpo da Resposta do Método ResponseEntity.ok(resp); e retorna o HTTP Status OK🡪200. */
                 .orElse(ResponseEntity.status(HttpStatus.NOT_FOUND).build());
@@ -101,13 +187,83 @@ Métodos Construtores na Classe Model ou Criar/Instaciar Objetos de forma manual
      http://localhost:8080/postagens/titulo/esporte.
 
      */
-    public ResponseEntity<List<Postagem>> getByTitulo(@PathVariable String titulo) {
-        /*<List<Postagem>>: Além de retornar um objeto da Classe ResponseEntity (OK=200) no body, retornará um Objeto da Classe List (Collection),
-        que contém todos os objetos da classe postagem persistidos no BDD na tabela tb_postagem e o atributo tenha a String enviada como parâmetro. */
+    @OrcamentoSql(2)
+    public ResponseEntity<Pagina<Postagem>> getByTitulo(@PathVariable String titulo,
+                                                        @RequestParam(required = false) String cursor,
+                                                        @RequestParam(required = false) Integer tamanho,
+                                                        WebRequest request) {
+        /*<Pagina<Postagem>>: Além de retornar um objeto da Classe ResponseEntity (OK=200) no body, retornará um Objeto da Classe Pagina,
+        que contém as Postagens persistidas no BDD na tabela tb_postagem cujo título contenha a String enviada como parâmetro,
+        paginadas da mesma forma que no Método getAll(). */
+
+        if (versaoService.naoModificado(versaoService.postagens(), request))
+            return null;
+
+        int limite = paginacaoService.tamanho(tamanho);
+
+        List<Postagem> postagens = (cursor == null)
+                ? postagemRepository.findPaginaByTitulo(titulo, paginacaoService.limite(limite))
+                : postagemRepository.findPaginaByTituloApos(titulo, paginacaoService.dataDoCursor(cursor),
+                        paginacaoService.idDoCursor(cursor), paginacaoService.limite(limite));
+
+        return ResponseEntity.ok().cacheControl(VersaoService.revalidar()).body(paginacaoService.montarPagina(postagens, limite,
+                postagem -> paginacaoService.codificarCursor(postagem.getData(), postagem.getId())));
+    }
+
+    @GetMapping("/busca")
+    /* A anotação @GetMapping indica que o Método busca() responderá as requisições do tipo HTTP GET enviadas no endereço
+    http://localhost:8080/postagens/busca?q=palavras. A busca é feita no título e no texto das Postagens, sem diferenciar maiúsculas,
+    minúsculas e acentos, e as Postagens mais relevantes aparecem primeiro. */
+    public ResponseEntity<Pagina<Postagem>> busca(@RequestParam("q") String consulta,
+                                                  @RequestParam(required = false) String cursor,
+                                                  @RequestParam(required = false) Integer tamanho,
+                                                  WebRequest request) {
+
+        /* O índice de busca é montado a partir das Postagens, por isso a busca utiliza a mesma versão das listagens. */
+        if (versaoService.naoModificado(versaoService.postagens(), request))
+            return null;
+
+        int limite = paginacaoService.tamanho(tamanho);
+        int inicio = (cursor == null) ? 0 : paginacaoService.idDoCursor(cursor).intValue();
+
+        List<Long> ids = buscaService.buscar(consulta);
+
+        if (inicio < 0 || inicio > ids.size())
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Cursor inválido!", null);
 
-        return ResponseEntity.ok(postagemRepository.findAllByTituloContainingIgnoreCase(titulo));
-        /* Executa o Método findAllByTituloContainingIgnoreCase(String titulo) (Método personalizado, criado na Interface PostagemRepository), e exibe o resultado
-        (<list<Postagem>>, no corpo da Resposta. Como a List sempre será gerada sendo vazia ou não, o Método sempre vai retornar Status 200=OK. */
+        List<Long> idsDaPagina = ids.subList(inicio, Math.min(ids.size(), inicio + limite));
+
+        /* O findAllById() não garante a ordem, por isso as Postagens são reorganizadas na ordem de relevância do índice. */
+        Map<Long, Postagem> postagensPorId = postagemRepository.findAllById(idsDaPagina).stream()
+                .collect(Collectors.toMap(Postagem::getId, Function.identity()));
+
+        List<Postagem> postagens = idsDaPagina.stream()
+                .map(postagensPorId::get)
+                .filter(Objects::nonNull)
+                .toList();
+
+        int proximoInicio = inicio + idsDaPagina.size();
+
+        return ResponseEntity.ok().cacheControl(VersaoService.revalidar()).body(new Pagina<>(postagens,
+                proximoInicio < ids.size() ? paginacaoService.codificarCursor((long) proximoInicio) : null));
+    }
+
+    @GetMapping("/export")
+    /* A anotação @GetMapping indica que o Método export() responderá as requisições do tipo HTTP GET enviadas no endereço
+    http://localhost:8080/postagens/export?formato=ndjson (padrão) ou http://localhost:8080/postagens/export?formato=csv */
+
+    @OrcamentoSql(1)
+    public void export(@RequestParam(defaultValue = "ndjson") String formato, HttpServletResponse response) throws IOException {
+        /* O Método não devolve um ResponseEntity: as Postagens são escritas diretamente no corpo da resposta (response.getOutputStream()),
+        à medida que são lidas do Banco de dados, sem montar uma lista com todas elas na memória. */
+
+        PostagemExportacaoService.Formato formatoExportacao = postagemExportacaoService.formato(formato);
+        /* Um formato inválido gera o HTTP Status BAD REQUEST = 400 antes de qualquer byte ser escrito na resposta. */
+
+        response.setContentType(formatoExportacao.getTipoConteudo());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=postagens." + formatoExportacao.getExtensao());
+
+        postagemExportacaoService.exportar(formatoExportacao, response.getOutputStream());
     }
 
     /*Vamos implementar o Método post(Postagem postagem) na Classe Postagem Controller. Traçando um paralelo com o MySQL, seria o equivalente a
@@ -124,20 +280,41 @@ Métodos Construtores na Classe Model ou Criar/Instaciar Objetos de forma manual
 
         @RequestBody Postagem postagem: Recebe o Objeto do tipo Postagem enviado no Corpo da Requisição e insere no parâmetro Postagem no método post.*/
 
-        if (temaRepository.existsById(postagem.getTema().getId()))
+        if (temaService.existePorId(postagem.getTema().getId())) {
             /* Através do Método existsById(Long id), da Interface TemaRepository (Herança da Interface JPA), checamos se o id passado no Objeto tema, da Classe Tema, inserido no Objeto postagem, da Classe Postagem, existe.
             Para obter o id do tema, utilizamos os Métodos get das 2 Classes: postagem.getTema().getId() */
 
+            postagem.setTema(temaService.referencia(postagem.getTema().getId()));
+            /* Substitui o Tema recebido no JSON (apenas o id, sem a versão) pela referência ao Tema gravado no Banco de dados. */
+
             return ResponseEntity.status(HttpStatus.CREATED)
-                    .body(postagemRepository.save(postagem));
+                    .body(indexar(gravarComTema(postagem, () -> postagemRepository.save(postagem))));
             /* Executa o Método padrão da Interface JpaRepository (save(postagem)), se o Objeto tema existir, e retorna o HTTP Status CREATED🡪201
              se o Objeto foi persistido no Banco de dados. */
+        }
 
         return ResponseEntity.status(HttpStatus.CREATED)
-                .body(postagemRepository.save(postagem));
+                .body(indexar(gravarComTema(postagem, () -> postagemRepository.save(postagem))));
         /*Se o Objeto tema não for encontrado pelo Método existsById(Long id), será retornado o HTTP Status BAD REQUEST 🡪 400.
         O Método build() constrói a Resposta com o HTTP Status retornado. */
     }
+    @PostMapping(value = "/lote", consumes = {"application/x-ndjson", "application/jsonl", "text/plain"})
+    /* A anotação @PostMapping indica que o Método postLote() responderá as requisições do tipo HTTP POST enviadas no endereço
+    http://localhost:8080/postagens/lote, com uma Postagem em JSON por linha (NDJSON), por exemplo:
+    {"titulo": "Primeira", "texto": "Texto da primeira Postagem", "tema": {"id": 1}, "usuario": {"id": 1}}
+    {"titulo": "Segunda", "texto": "Texto da segunda Postagem", "tema": {"id": 2}, "usuario": {"id": 1}} */
+
+    @OrcamentoSql(OrcamentoSql.SEM_LIMITE)
+    /* O número de instruções cresce com o número de linhas enviadas (uma instrução em modo batch a cada tamanho-lote Postagens). */
+
+    public ResponseEntity<ResultadoIngestao> postLote(InputStream corpo) throws IOException {
+        /* InputStream corpo: o corpo da requisição é lido linha a linha, à medida que chega, ao invés de ser convertido
+        inteiro em uma lista de Objetos. As linhas inválidas são rejeitadas e descritas na resposta, sem interromper a carga.
+        Retorna o HTTP Status OK=200 com o resumo da carga (linhas lidas, inseridas, rejeitadas e os erros de cada linha). */
+
+        return ResponseEntity.ok(postagemIngestaoService.importar(corpo));
+    }
+
     /*Vamos implementar o Método put(Postagem postagem) na Classe Postagem Controller. Observe que ele é muito parecido com o Método post.
     Traçando um paralelo com o MySQL, seria o equivalente a instrução:
     UPDATE tb_postagens SET titulo = "titulo", texto = "texto", data = CURRENT_TIMESTAMP() WHERE id = id; */
@@ -146,30 +323,36 @@ Métodos Construtores na Classe Model ou Criar/Instaciar Objetos de forma manual
     /* A anotação @PutMapping indica que o Método put(Postagem postagem), responderá a todas as requisições do tipo HTTP PUT,
     enviadas no endereço http://localhost:8080/postagens */
 
-    public ResponseEntity<Postagem> put(@Valid @RequestBody Postagem postagem) {
-        if (postagemRepository.existsById(postagem.getId())) {
-            /* Através do Método existsById(Long id), da Interface PostagemRepository (Herança da Interface JPA), checamos se o id passado no
-            Objeto postagem, da Classe Postagem, existe. Caso o Objeto não exista, não é possível atualizar. */
+    @OrcamentoSql(4)
+    /* O select do Tema e do Usuario anteriores e uma instrução update no caso comum. A verificação do Tema vem do Cache da Classe
+    TemaService (uma consulta quando não está no Cache) e a consulta da nova versão só é executada quando o cliente não informa a
+    versão. */
 
-            if (temaRepository.existsById(postagem.getTema().getId()))
-                /* Através do Método existsById(Long id), da Interface TemaRepository (Herança da Interface JPA), checamos se o id passado no
-                Objeto tema, da Classe Tema, inserido no Objeto postagem, da Classe Postagem, existe.
-                Para obter o id do tema, utilizamos os Métodos get das 2 Classes: postagem.getTema().getId() */
-
-                return ResponseEntity.status(HttpStatus.OK)
-                        /* Executa o Método padrão da Interface JpaRepository (save(postagem)), se o Objeto tema existir,
-                        e retorna o HTTP Status OK=200 se o Objeto foi atualizado no Banco de dados. */
-                        .body(postagemRepository.save(postagem));
+    public ResponseEntity<Postagem> put(@Valid @RequestBody Postagem postagem,
+                                        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        /* @RequestHeader String ifMatch: cabeçalho If-Match opcional, com o ETag devolvido pelo GET da Postagem (/postagens/id).
+        A atualização só é gravada se a Postagem ainda estiver na versão indicada pelo ETag; caso contrário, a resposta é
+        PRECONDITION FAILED = 412. Sem o cabeçalho, vale o Atributo versao enviado no corpo (a versão que o cliente leu), com a resposta
+        CONFLICT = 409 quando outra pessoa alterou a Postagem antes. Assim, duas edições simultâneas não apagam uma à outra. */
 
+        if (!temaService.existePorId(postagem.getTema().getId()))
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
-            /* Se o Objeto tema não for encontrado pelo Método existsById(Long id), será retornado o HTTP Status BAD REQUEST = 400.
-            O Método build() constrói a Resposta com o HTTP Status retornado. */
-        }
-
-
-        return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
-        /* Se o Objeto Postagem não for encontrado pelo Método existsById(Long id), será retornado o HTTP Status NOT FOUND = 404 (Não Encontrado!),
-        indicando que a Postagem não existe. O Método build() constrói a Resposta com o HTTP Status retornado. */
+            /* Através do Método existePorId(Long id), da Classe TemaService, checamos se o id passado no Objeto tema, inserido no
+            Objeto postagem, existe. Se o Objeto tema não for encontrado, será retornado o HTTP Status BAD REQUEST = 400. */
+
+        PostagemAtualizacaoService.Atualizacao atualizacao = gravarComTema(postagem, () -> postagemAtualizacaoService.atualizar(
+                postagem, VersaoService.condicao(ifMatch, postagem.getVersao())));
+        /* A Classe PostagemAtualizacaoService grava a Postagem com uma única instrução update (sem o select do save()). Se a Postagem
+        não existir, retorna o HTTP Status NOT FOUND = 404 (Não Encontrado!). */
+
+        buscaService.indexar(atualizacao.postagem());
+        estatisticasService.atualizar(atualizacao.anterior(), atualizacao.postagem());
+        temaService.invalidarResumos();
+        /* Depois do commit, atualiza o índice de busca e move a Postagem do Tema e do Usuario anteriores para os atuais nas
+        estatísticas. */
+
+        return ResponseEntity.status(HttpStatus.OK).body(atualizacao.postagem());
+        /* Retorna o HTTP Status OK=200 com a nova versão. */
     }
 
     /* Vamos implementar o Método delete(Long id) na Classe Postagem Controller. Traçando um paralelo com o MySQL,
@@ -192,18 +375,38 @@ Métodos Construtores na Classe Model ou Criar/Instaciar Objetos de forma manual
         @PathVariable Long id: Esta anotação insere o valor enviado no endereço do endpoint, na Variável de Caminho {id},
         no parâmetro do Método delete( Long id ); */
 
-        Optional<Postagem> postagem = postagemRepository.findById(id);
-/*Cria um Objeto Optional da Classe Postagem chamado postagem, que receberá o resultado do Método findById(id).
-Como o Método pode retornar um Objeto Nulo, utilizaremos o Optional para evitar o erro NullPointerException. Ao ao invés de utilizarmos o map
-com as Expressões Lambda, utilizaremos o Optional. */
-
-        if (postagem.isEmpty())
+        if (!exclusaoService.excluirPostagem(id))
             throw new ResponseStatusException(HttpStatus.NOT_FOUND);
-        /* Através da estrutura condicional if, checamos se o Objeto postagem está vazio (postagem.isEmpty()). Se estiver, geramos um
-             HTTP Status NOT FOUND 🡪 404 (Não Encontrado!) e como estamos utilizando um Objeto da Classe ResponseStatusException
-             (throw new ResponseStatusException(HttpStatus.NOT_FOUND);), as próximas linhas do Método serão ignoradas.  */
+        /* A Classe ExclusaoService lê o Tema e o Usuario da Postagem e a apaga com uma única instrução delete, remove a Postagem do
+        índice de busca e das estatísticas e descarta a listagem de Temas guardada em Cache. Se a Postagem não existe, geramos um HTTP
+        Status NOT FOUND 🡪 404 (Não Encontrado!) e, como estamos utilizando um Objeto da Classe ResponseStatusException, as próximas
+        linhas do Método serão ignoradas. Caso contrário, retorna o HTTP Status NO_CONTENT 🡪 204, HTTP Status padrão do Método. */
+    }
+
+    private <T> T gravarComTema(Postagem postagem, Supplier<T> gravacao) {
+        /* A verificação do Tema (existePorId) vem do Cache e pode estar desatualizada: um Tema apagado por outra instância da
+        aplicação continua no Cache até expirar. Se o Banco de dados recusar a gravação e o Tema não existir mais, a resposta é
+        BAD REQUEST = 400 (e não 500) e o Cache é corrigido. Outras recusas do Banco de dados continuam sendo erros do servidor. */
+
+        try {
+            return gravacao.get();
+        } catch (DataIntegrityViolationException e) {
+
+            if (!temaService.confirmarExistencia(postagem.getTema().getId()))
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Tema não existe!", e);
+
+            throw e;
+        }
+    }
+
+    private Postagem indexar(Postagem postagem) {
+        /* Atualiza o índice de busca com o título e o texto da Postagem que acabou de ser criada, e as estatísticas do Tema e do
+        Usuario, e devolve a própria Postagem. Como a quantidade de Postagens do Tema mudou, a listagem de Temas guardada em Cache
+        também é descartada. */
 
-        postagemRepository.deleteById(id);
-        /*Executa o Método padrão da Interface JpaRepository deleteById(Long id) e retorna o HTTP Status NO_CONTENT 🡪 204, HTTP Status padrão do Método*/
+        buscaService.indexar(postagem);
+        estatisticasService.registrar(postagem);
+        temaService.invalidarResumos();
+        return postagem;
     }
 }
\ No newline at end of file
@@ -0,0 +1,79 @@
+package com.generation.blogpessoal.controller;
+
+import com.generation.blogpessoal.model.Pagina;
+import com.generation.blogpessoal.model.Postagem;
+import com.generation.blogpessoal.repository.PostagemReativaRepository;
+import com.generation.blogpessoal.service.PaginacaoService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@RestController
+/* A Classe PostagemReativaController oferece as mesmas consultas de leitura da Classe PostagemController (listar, buscar por id e
+buscar por título), porém sem bloquear as threads do servidor. Os Métodos retornam um Mono (resposta que ficará pronta no futuro):
+o Spring libera a thread do Tomcat enquanto a consulta é executada pelo driver reativo (R2DBC) e escreve a resposta quando o
+Banco de dados responder. Assim, um Banco de dados lento não ocupa as threads que atendem as demais requisições.
+As operações de escrita (post, put e delete) continuam na Classe PostagemController. */
+
+@RequestMapping("/reativo/postagens")
+@CrossOrigin(origins = "*", allowedHeaders = "*")
+public class PostagemReativaController {
+
+    @Autowired
+    private PostagemReativaRepository postagemReativaRepository;
+    /* A Classe PostagemReativaRepository consulta as Postagens com o R2DBC, ao invés da Interface PostagemRepository (JPA). */
+
+    @Autowired
+    private PaginacaoService paginacaoService;
+
+    @GetMapping
+    public Mono<Pagina<Postagem>> getAll(@RequestParam(required = false) String cursor,
+                                         @RequestParam(required = false) Integer tamanho) {
+        /* Mesma paginação por cursor do Método getAll() da Classe PostagemController: o cursor de uma resposta pode ser
+        utilizado tanto no endpoint /postagens quanto no endpoint /reativo/postagens. */
+
+        int limite = paginacaoService.tamanho(tamanho);
+
+        Flux<Postagem> postagens = (cursor == null)
+                ? postagemReativaRepository.findPagina(limite + 1)
+                : postagemReativaRepository.findPaginaApos(paginacaoService.dataDoCursor(cursor),
+                        paginacaoService.idDoCursor(cursor), limite + 1);
+
+        return pagina(postagens, limite);
+    }
+
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<Postagem>> getById(@PathVariable Long id) {
+        return postagemReativaRepository.findById(id)
+                .map(resposta -> ResponseEntity.ok(resposta))
+                .defaultIfEmpty(ResponseEntity.status(HttpStatus.NOT_FOUND).build());
+        /* Se a consulta não devolver nenhuma Postagem (Mono vazio), retorna o HTTP Status NOT FOUND = 404. */
+    }
+
+    @GetMapping("/titulo/{titulo}")
+    public Mono<Pagina<Postagem>> getByTitulo(@PathVariable String titulo,
+                                              @RequestParam(required = false) String cursor,
+                                              @RequestParam(required = false) Integer tamanho) {
+
+        int limite = paginacaoService.tamanho(tamanho);
+
+        Flux<Postagem> postagens = (cursor == null)
+                ? postagemReativaRepository.findPaginaByTitulo(titulo, limite + 1)
+                : postagemReativaRepository.findPaginaByTituloApos(titulo, paginacaoService.dataDoCursor(cursor),
+                        paginacaoService.idDoCursor(cursor), limite + 1);
+
+        return pagina(postagens, limite);
+    }
+
+    private Mono<Pagina<Postagem>> pagina(Flux<Postagem> postagens, int limite) {
+        /* A consulta busca um registro a mais do que o tamanho da página, apenas para saber se existe uma próxima página. */
+
+        return postagens.collectList()
+                .map(lista -> paginacaoService.montarPagina(lista, limite,
+                        postagem -> paginacaoService.codificarCursor(postagem.getData(), postagem.getId())));
+    }
+
+}
@@ -1,15 +1,27 @@
 package com.generation.blogpessoal.controller;
 
+import com.generation.blogpessoal.configuration.OrcamentoSql;
+import com.generation.blogpessoal.model.Pagina;
+import com.generation.blogpessoal.model.Postagem;
 import com.generation.blogpessoal.model.Tema;
+import com.generation.blogpessoal.repository.PostagemRepository;
 import com.generation.blogpessoal.repository.TemaRepository;
+import com.generation.blogpessoal.service.EstatisticasService;
+import com.generation.blogpessoal.service.ExclusaoService;
+import com.generation.blogpessoal.service.PaginacaoService;
+import com.generation.blogpessoal.service.TemaService;
+import com.generation.blogpessoal.service.VersaoService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.context.request.WebRequest;
 
+import java.net.URI;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @RestController
@@ -20,48 +32,150 @@ public class TemaController {
     @Autowired
     private TemaRepository temaRepository;
 
+    @Autowired
+    private TemaService temaService;
+
+    @Autowired
+    private PaginacaoService paginacaoService;
+
+    @Autowired
+    private VersaoService versaoService;
+
+    @Autowired
+    private PostagemRepository postagemRepository;
+
+    @Autowired
+    private ExclusaoService exclusaoService;
+
+    @Autowired
+    private EstatisticasService estatisticasService;
+
+    /* Por padrão a listagem devolve apenas o resumo de cada Tema (id, descrição e quantidade de Postagens).
+    O Tema com todas as suas Postagens só é devolvido quando o cliente envia o parâmetro completo=true.
+    Se nenhum Tema e nenhuma Postagem mudou desde a última resposta recebida pelo cliente (If-None-Match / If-Modified-Since),
+    a resposta é 304 (Not Modified), sem consultar os Temas. */
     @GetMapping
-    public ResponseEntity<List<Tema>> getAll(){
-        return ResponseEntity.ok(temaRepository.findAll());
+    public ResponseEntity<Pagina<?>> getAll(@RequestParam(required = false) String cursor,
+                                            @RequestParam(required = false) Integer tamanho,
+                                            @RequestParam(defaultValue = "false") boolean completo,
+                                            WebRequest request){
+
+        if (versaoService.naoModificado(versaoService.temas(), request))
+            return null;
+
+        int limite = paginacaoService.tamanho(tamanho);
+        Long ultimoId = (cursor == null) ? 0L : paginacaoService.idDoCursor(cursor);
+
+        if (completo)
+            return ResponseEntity.ok().cacheControl(VersaoService.revalidar()).body(paginacaoService.montarPagina(
+                    temaRepository.findAllByIdGreaterThanOrderByIdAsc(ultimoId, paginacaoService.limite(limite)),
+                    limite, tema -> paginacaoService.codificarCursor(tema.getId())));
+
+        return ResponseEntity.ok().cacheControl(VersaoService.revalidar()).body(paginacaoService.montarPagina(
+                temaService.listarResumos(ultimoId, limite),
+                limite, tema -> paginacaoService.codificarCursor(tema.getId())));
+    }
+
+    /* Quantidade de Postagens, data da Postagem mais recente e estimativa de autores distintos de cada Tema, mantidas em memória
+    pela Classe EstatisticasService: a resposta não executa nenhuma instrução SQL, seja qual for a quantidade de Postagens. */
+    @GetMapping("/estatisticas")
+    @OrcamentoSql(0)
+    public ResponseEntity<Map<Long, Map<String, Object>>> getEstatisticas(){
+        return ResponseEntity.ok(estatisticasService.temas());
+    }
+
+    @GetMapping("/cache/estatisticas")
+    public ResponseEntity<Map<String, Map<String, Number>>> getEstatisticasCache(){
+        return ResponseEntity.ok(temaService.estatisticas());
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Tema> getById(@PathVariable Long id){
-        return temaRepository.findById(id)
-                .map(resposta -> ResponseEntity.ok(resposta))
+    public ResponseEntity<Tema> getById(@PathVariable Long id, WebRequest request){
+
+        Optional<VersaoService.Versao> versao = versaoService.tema(id);
+
+        if (versao.isPresent() && versaoService.naoModificado(versao.get(), request))
+            return null;
+
+        return temaService.buscarPorId(id)
+                .map(resposta -> ResponseEntity.ok().cacheControl(VersaoService.revalidar()).body(resposta))
                 .orElse(ResponseEntity.status(HttpStatus.NOT_FOUND).build());
     }
 
+    /* Postagens do Tema, das mais recentes para as mais antigas, com a mesma paginação por cursor de /postagens.
+    A existência do Tema é verificada no Cache da Classe TemaService e a consulta percorre apenas o índice (tema_id, data, id). */
+    @GetMapping("/{id}/postagens")
+    @OrcamentoSql(3)
+    public ResponseEntity<Pagina<Postagem>> getPostagens(@PathVariable Long id,
+                                                         @RequestParam(required = false) String cursor,
+                                                         @RequestParam(required = false) Integer tamanho,
+                                                         WebRequest request){
+
+        if (!temaService.existePorId(id))
+            return ResponseEntity.notFound().build();
+
+        if (versaoService.naoModificado(versaoService.postagensDoTema(id), request))
+            return null;
+
+        int limite = paginacaoService.tamanho(tamanho);
+
+        List<Postagem> postagens = (cursor == null)
+                ? postagemRepository.findPaginaByTema(id, paginacaoService.limite(limite))
+                : postagemRepository.findPaginaByTemaApos(id, paginacaoService.dataDoCursor(cursor),
+                        paginacaoService.idDoCursor(cursor), paginacaoService.limite(limite));
+
+        return ResponseEntity.ok().cacheControl(VersaoService.revalidar()).body(paginacaoService.montarPagina(postagens, limite,
+                postagem -> paginacaoService.codificarCursor(postagem.getData(), postagem.getId())));
+    }
+
     @GetMapping("/descricao/{descricao}")
     public ResponseEntity<List<Tema>> getByTitle(@PathVariable
-                                                 String descricao){
-        return ResponseEntity.ok(temaRepository
+                                                 String descricao, WebRequest request){
+
+        if (versaoService.naoModificado(versaoService.temas(), request))
+            return null;
+
+        return ResponseEntity.ok().cacheControl(VersaoService.revalidar()).body(temaRepository
                 .findAllByDescricaoContainingIgnoreCase(descricao));
     }
 
     @PostMapping
     public ResponseEntity<Tema> post(@Valid @RequestBody Tema tema){
         return ResponseEntity.status(HttpStatus.CREATED)
-                .body(temaRepository.save(tema));
+                .body(temaService.salvar(tema));
     }
 
+    /* A atualização só é gravada se a versão do Tema (cabeçalho If-Match ou Atributo versao) ainda for a atual: caso contrário,
+    a resposta é 412 (If-Match) ou 409 (versao), ao invés de apagar a alteração gravada por outra pessoa. */
     @PutMapping
-    public ResponseEntity<Tema> put(@Valid @RequestBody Tema tema){
-        return temaRepository.findById(tema.getId())
-                .map(resposta -> ResponseEntity.status(HttpStatus.CREATED)
-                        .body(temaRepository.save(tema)))
-                .orElse(ResponseEntity.status(HttpStatus.NOT_FOUND).build());
+    @OrcamentoSql(2)
+    public ResponseEntity<Tema> put(@Valid @RequestBody Tema tema,
+                                    @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch){
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .body(temaService.atualizar(tema, VersaoService.condicao(ifMatch, tema.getVersao())));
     }
 
-    @ResponseStatus(HttpStatus.NO_CONTENT)
+    /* O Tema e as suas Postagens são apagados pela Classe ExclusaoService com uma instrução delete por tabela (204). Um Tema com
+    muitas Postagens é apagado em lotes, em segundo plano: a resposta é 202 (Accepted) com o andamento e o endereço para
+    acompanhá-lo (cabeçalho Location). */
     @DeleteMapping("/{id}")
-    public void delete(@PathVariable Long id) {
-        Optional<Tema> tema = temaRepository.findById(id);
+    @OrcamentoSql(4)
+    public ResponseEntity<Map<String, Object>> delete(@PathVariable Long id) {
 
-        if(tema.isEmpty())
-            throw new ResponseStatusException(HttpStatus.NOT_FOUND);
+        return switch (exclusaoService.excluirTema(id)) {
+            case NAO_ENCONTRADO -> ResponseEntity.notFound().build();
+            case EXCLUIDO -> ResponseEntity.noContent().build();
+            case AGENDADO -> ResponseEntity.accepted()
+                    .location(URI.create("/temas/" + id + "/exclusao"))
+                    .body(exclusaoService.andamentoTema(id).orElse(null));
+        };
+    }
 
-        temaRepository.deleteById(id);
+    @GetMapping("/{id}/exclusao")
+    public ResponseEntity<Map<String, Object>> getExclusao(@PathVariable Long id) {
+        return exclusaoService.andamentoTema(id)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
     }
 
 }
\ No newline at end of file
@@ -4,26 +4,47 @@ atualizar usuário e autenticar da Classe UsuarioService. */
 
 package com.generation.blogpessoal.controller;
 
+import java.net.URI;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
+import com.generation.blogpessoal.configuration.OrcamentoSql;
+import com.generation.blogpessoal.model.Pagina;
+import com.generation.blogpessoal.model.Postagem;
 import com.generation.blogpessoal.model.Usuario;
 import com.generation.blogpessoal.model.UsuarioLogin;
+import com.generation.blogpessoal.repository.PostagemRepository;
 import com.generation.blogpessoal.repository.UsuarioRepository;
+import com.generation.blogpessoal.security.CredenciaisCache;
+import com.generation.blogpessoal.security.ExecutorSenhas;
+import com.generation.blogpessoal.security.LimiteTentativas;
+import com.generation.blogpessoal.service.EstatisticasService;
+import com.generation.blogpessoal.service.ExclusaoService;
+import com.generation.blogpessoal.service.PaginacaoService;
 import com.generation.blogpessoal.service.UsuarioService;
+import com.generation.blogpessoal.service.VersaoService;
 
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 @RestController
 @RequestMapping("/usuarios")
@@ -36,9 +57,48 @@ public class UsuarioController {
     @Autowired
     private UsuarioRepository usuarioRepository;
 
+    @Autowired
+    private CredenciaisCache credenciaisCache;
+
+    @Autowired
+    private LimiteTentativas limiteTentativas;
+
+    @Autowired
+    private ExecutorSenhas executorSenhas;
+
+    @Autowired
+    private PaginacaoService paginacaoService;
+
+    @Autowired
+    private PostagemRepository postagemRepository;
+
+    @Autowired
+    private VersaoService versaoService;
+
+    @Autowired
+    private ExclusaoService exclusaoService;
+
+    @Autowired
+    private EstatisticasService estatisticasService;
+
+    /* Por padrão a listagem devolve apenas o resumo de cada Usuario (sem a senha e sem a Collection de Postagens).
+    O Usuario com todas as suas Postagens só é devolvido quando o cliente envia o parâmetro completo=true. */
     @GetMapping("/all")
-    public ResponseEntity <List<Usuario>> getAll(){
-        return ResponseEntity.ok(usuarioRepository.findAll());
+    public ResponseEntity<Pagina<?>> getAll(@RequestParam(required = false) String cursor,
+                                            @RequestParam(required = false) Integer tamanho,
+                                            @RequestParam(defaultValue = "false") boolean completo){
+
+        int limite = paginacaoService.tamanho(tamanho);
+        Long ultimoId = (cursor == null) ? 0L : paginacaoService.idDoCursor(cursor);
+
+        if (completo)
+            return ResponseEntity.ok(paginacaoService.montarPagina(
+                    usuarioRepository.findAllByIdGreaterThanOrderByIdAsc(ultimoId, paginacaoService.limite(limite)),
+                    limite, usuario -> paginacaoService.codificarCursor(usuario.getId())));
+
+        return ResponseEntity.ok(paginacaoService.montarPagina(
+                usuarioRepository.findResumos(ultimoId, paginacaoService.limite(limite)),
+                limite, usuario -> paginacaoService.codificarCursor(usuario.getId())));
     }
 
     @GetMapping("/{id}")
@@ -48,11 +108,82 @@ public class UsuarioController {
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    /* Postagens do Usuario, das mais recentes para as mais antigas, com a mesma paginação por cursor de /postagens.
+    A consulta percorre apenas o índice (usuario_id, data, id) daquele Usuario. */
+    @GetMapping("/{id}/postagens")
+    @OrcamentoSql(3)
+    public ResponseEntity<Pagina<Postagem>> getPostagens(@PathVariable Long id,
+                                                         @RequestParam(required = false) String cursor,
+                                                         @RequestParam(required = false) Integer tamanho,
+                                                         WebRequest request) {
+
+        if (!usuarioRepository.existsById(id))
+            return ResponseEntity.notFound().build();
+
+        if (versaoService.naoModificado(versaoService.postagensDoUsuario(id), request))
+            return null;
+
+        int limite = paginacaoService.tamanho(tamanho);
+
+        List<Postagem> postagens = (cursor == null)
+                ? postagemRepository.findPaginaByUsuario(id, paginacaoService.limite(limite))
+                : postagemRepository.findPaginaByUsuarioApos(id, paginacaoService.dataDoCursor(cursor),
+                        paginacaoService.idDoCursor(cursor), paginacaoService.limite(limite));
+
+        return ResponseEntity.ok().cacheControl(VersaoService.revalidar()).body(paginacaoService.montarPagina(postagens, limite,
+                postagem -> paginacaoService.codificarCursor(postagem.getData(), postagem.getId())));
+    }
+
+    /* Quantidade de Postagens e data da Postagem mais recente de cada Usuario (Classe EstatisticasService), sem consultar o
+    Banco de dados. */
+    @GetMapping("/estatisticas")
+    @OrcamentoSql(0)
+    public ResponseEntity<Map<Long, Map<String, Object>>> getEstatisticas() {
+        return ResponseEntity.ok(estatisticasService.usuarios());
+    }
+
+    @GetMapping("/credenciais/estatisticas")
+    public ResponseEntity<Map<String, Long>> getEstatisticasCredenciais() {
+
+        CacheStats estatisticas = credenciaisCache.estatisticas();
+
+        Map<String, Long> resposta = new LinkedHashMap<>();
+        resposta.put("acertos", estatisticas.hitCount());
+        resposta.put("falhas", estatisticas.missCount());
+        resposta.put("remocoes", estatisticas.evictionCount());
+        resposta.put("tamanho", credenciaisCache.tamanho());
+
+        return ResponseEntity.ok(resposta);
+    }
+
+    /* Tamanho da fila, tarefas recusadas e tempo de espera do executor do BCrypt (Classe ExecutorSenhas). */
+    @GetMapping("/senhas/estatisticas")
+    public ResponseEntity<Map<String, Number>> getEstatisticasSenhas() {
+        return ResponseEntity.ok(executorSenhas.estatisticas());
+    }
+
+    /* Antes de executar o BCrypt, a tentativa consome uma ficha do IP e uma do usuário (Classe LimiteTentativas). Acima do limite,
+    a resposta é 429 (Too Many Requests) com o cabeçalho Retry-After. A ficha de um login bem sucedido é devolvida. */
     @PostMapping("/logar")
-    public ResponseEntity<UsuarioLogin> login(@RequestBody Optional<UsuarioLogin> usuarioLogin) {
-        return usuarioService.autenticarUsuario(usuarioLogin)
-                .map(resposta -> ResponseEntity.ok(resposta))
-                .orElse(ResponseEntity.status(HttpStatus.UNAUTHORIZED).build());
+    public ResponseEntity<UsuarioLogin> login(@RequestBody Optional<UsuarioLogin> usuarioLogin, HttpServletRequest request) {
+
+        String ip = request.getRemoteAddr();
+        String usuario = usuarioLogin.map(UsuarioLogin::getUsuario).orElse(null);
+
+        long espera = limiteTentativas.reservar(ip, usuario);
+
+        if (espera > 0)
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(espera))
+                    .build();
+
+        Optional<UsuarioLogin> resposta = usuarioService.autenticarUsuario(usuarioLogin);
+
+        if (resposta.isEmpty())
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+
+        limiteTentativas.devolver(ip, usuario);
+        return ResponseEntity.ok(resposta.get());
     }
 
     @PostMapping("/cadastrar")
@@ -64,6 +195,37 @@ public class UsuarioController {
 
     }
 
+    /* O Usuario e as suas Postagens são apagados como os Temas (Classe ExclusaoService): 204, ou 202 com o andamento quando o
+    Usuario tem muitas Postagens. As credenciais do Usuario apagado saem do Cache de autenticação.
+    Somente o próprio Usuario pode apagar a sua conta: qualquer outro usuário autenticado recebe 403 (Forbidden). */
+    @DeleteMapping("/{id}")
+    @OrcamentoSql(6)
+    public ResponseEntity<Map<String, Object>> deleteUsuario(@PathVariable Long id, Authentication autenticacao) {
+
+        Optional<String> email = usuarioRepository.findUsuarioById(id);
+
+        if (email.isEmpty())
+            return ResponseEntity.notFound().build();
+
+        if (!email.get().equals(autenticacao.getName()))
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+
+        return switch (exclusaoService.excluirUsuario(id)) {
+            case NAO_ENCONTRADO -> ResponseEntity.notFound().build();
+            case EXCLUIDO -> ResponseEntity.noContent().build();
+            case AGENDADO -> ResponseEntity.accepted()
+                    .location(URI.create("/usuarios/" + id + "/exclusao"))
+                    .body(exclusaoService.andamentoUsuario(id).orElse(null));
+        };
+    }
+
+    @GetMapping("/{id}/exclusao")
+    public ResponseEntity<Map<String, Object>> getExclusao(@PathVariable Long id) {
+        return exclusaoService.andamentoUsuario(id)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
     @PutMapping("/atualizar")
     public ResponseEntity<Usuario> putUsuario(@Valid @RequestBody Usuario usuario) {
         return usuarioService.atualizarUsuario(usuario)
@@ -0,0 +1,34 @@
+/* A Classe ErroIngestao é uma DTO que descreve uma linha rejeitada pela ingestão em lote de Postagens (POST /postagens/lote):
+o número da linha no corpo da requisição (começando em 1) e o motivo da rejeição. */
+
+package com.generation.blogpessoal.model;
+
+public class ErroIngestao {
+
+    private long linha;
+    private String mensagem;
+
+    public ErroIngestao(long linha, String mensagem) {
+        this.linha = linha;
+        this.mensagem = mensagem;
+    }
+
+    public ErroIngestao() { }
+
+    public long getLinha() {
+        return this.linha;
+    }
+
+    public void setLinha(long linha) {
+        this.linha = linha;
+    }
+
+    public String getMensagem() {
+        return this.mensagem;
+    }
+
+    public void setMensagem(String mensagem) {
+        this.mensagem = mensagem;
+    }
+
+}
@@ -0,0 +1,38 @@
+/* A Classe Pagina é uma DTO (Data transfer object) utilizada pelos endpoints de listagem.
+Ao invés de devolver a tabela inteira, cada listagem devolve no máximo blogpessoal.paginacao.tamanho-maximo Objetos no Atributo
+conteudo e, se ainda existirem registros, um cursor opaco no Atributo proximoCursor. Para obter a próxima página, basta enviar
+o valor de proximoCursor no parâmetro cursor da mesma requisição. Quando proximoCursor for nulo, a listagem chegou ao fim. */
+
+package com.generation.blogpessoal.model;
+
+import java.util.List;
+
+public class Pagina<T> {
+
+    private List<T> conteudo;
+    private String proximoCursor;
+
+    public Pagina(List<T> conteudo, String proximoCursor) {
+        this.conteudo = conteudo;
+        this.proximoCursor = proximoCursor;
+    }
+
+    public Pagina() { }
+
+    public List<T> getConteudo() {
+        return this.conteudo;
+    }
+
+    public void setConteudo(List<T> conteudo) {
+        this.conteudo = conteudo;
+    }
+
+    public String getProximoCursor() {
+        return this.proximoCursor;
+    }
+
+    public void setProximoCursor(String proximoCursor) {
+        this.proximoCursor = proximoCursor;
+    }
+
+}
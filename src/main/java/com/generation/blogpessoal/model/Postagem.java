@@ -12,7 +12,13 @@ import java.time.LocalDateTime;
 /*Criar a entidade da tabela
 
 /*Setando o nome da tabela*/
-@Table(name = "tb_postagem")
+@Table(name = "tb_postagem", indexes = {
+        @Index(name = "idx_postagem_data", columnList = "data desc, id desc"),
+        @Index(name = "idx_postagem_usuario_data", columnList = "usuario_id, data, id"),
+        @Index(name = "idx_postagem_tema_data", columnList = "tema_id, data, id")})
+/* Índices das listagens de Postagens (todas, por Usuario e por Tema, ver a Interface PostagemRepository), criados pela migração V2
+do Flyway (db/migration). O id entra no final do índice porque é o desempate da ordenação (data, id) e do cursor: assim a ordem da
+página vem pronta do índice. */
 public class Postagem {
     @Id
 
@@ -34,10 +40,17 @@ public class Postagem {
     //Seta a hora exata de acordo com o computador e coloca na postagem - tipo Facebook
     private LocalDateTime data;
 
+    @Version
+    /* Versão da Postagem, incrementada a cada atualização. O cliente devolve a versão que leu (no Atributo versao ou no cabeçalho
+    If-Match) e a atualização é recusada se outra pessoa gravou a Postagem antes (controle de concorrência otimista). */
+    private Long versao;
+
     @ManyToOne
      /* A anotação @ManyToOne indica que a Classe Postagem será o lado N:1 e terá um Objeto da Classe Tema, que no modelo Relacional será a
     Chave Estrangeira na Tabela tb_postagens (tema_id). */
-    @JsonIgnoreProperties("postagem")
+    @JsonIgnoreProperties({"postagem", "hibernateLazyInitializer", "handler"})
+    /* Os Atributos hibernateLazyInitializer e handler existem apenas no proxy do Hibernate, utilizado quando a Postagem é criada com
+    uma referência ao Tema (TemaService.referencia()). */
     /* indica que uma parte do JSON será ignorado, ou seja, como a Relação entre as Classes será do tipo Bidirecional, ao listar o
     Objeto Postagem numa consulta, por exemplo, o Objeto Tema, que será criado na linha 39, será exibido como um "Sub Objeto" do Objeto
     Postagem, como mostra a figura abaixo, devido ao Relacionamento que foi criado. */
@@ -94,6 +107,14 @@ public class Postagem {
         this.data = data;
     }
 
+    public Long getVersao() {
+        return this.versao;
+    }
+
+    public void setVersao(Long versao) {
+        this.versao = versao;
+    }
+
     public Tema getTema() {
         return tema;
     }
@@ -0,0 +1,99 @@
+/* A Classe PostagemExportacao é uma DTO utilizada pela exportação de Postagens (GET /postagens/export).
+Ela é preenchida diretamente pela consulta (select new ...), com uma linha "achatada" por Postagem: os dados da Postagem,
+o id e a descrição do Tema e o id e o nome do Usuario. Como não é uma Entidade, o Hibernate não a guarda no contexto de
+persistência, e a memória utilizada pela exportação não cresce com o número de Postagens exportadas. */
+
+package com.generation.blogpessoal.model;
+
+import java.time.LocalDateTime;
+
+public class PostagemExportacao {
+
+    private Long id;
+    private String titulo;
+    private String texto;
+    private LocalDateTime data;
+    private Long temaId;
+    private String temaDescricao;
+    private Long usuarioId;
+    private String usuarioNome;
+
+    public PostagemExportacao(Long id, String titulo, String texto, LocalDateTime data, Long temaId, String temaDescricao,
+                              Long usuarioId, String usuarioNome) {
+        this.id = id;
+        this.titulo = titulo;
+        this.texto = texto;
+        this.data = data;
+        this.temaId = temaId;
+        this.temaDescricao = temaDescricao;
+        this.usuarioId = usuarioId;
+        this.usuarioNome = usuarioNome;
+    }
+
+    public PostagemExportacao() { }
+
+    public Long getId() {
+        return this.id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getTitulo() {
+        return this.titulo;
+    }
+
+    public void setTitulo(String titulo) {
+        this.titulo = titulo;
+    }
+
+    public String getTexto() {
+        return this.texto;
+    }
+
+    public void setTexto(String texto) {
+        this.texto = texto;
+    }
+
+    public LocalDateTime getData() {
+        return this.data;
+    }
+
+    public void setData(LocalDateTime data) {
+        this.data = data;
+    }
+
+    public Long getTemaId() {
+        return this.temaId;
+    }
+
+    public void setTemaId(Long temaId) {
+        this.temaId = temaId;
+    }
+
+    public String getTemaDescricao() {
+        return this.temaDescricao;
+    }
+
+    public void setTemaDescricao(String temaDescricao) {
+        this.temaDescricao = temaDescricao;
+    }
+
+    public Long getUsuarioId() {
+        return this.usuarioId;
+    }
+
+    public void setUsuarioId(Long usuarioId) {
+        this.usuarioId = usuarioId;
+    }
+
+    public String getUsuarioNome() {
+        return this.usuarioNome;
+    }
+
+    public void setUsuarioNome(String usuarioNome) {
+        this.usuarioNome = usuarioNome;
+    }
+
+}
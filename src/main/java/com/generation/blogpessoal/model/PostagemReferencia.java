@@ -0,0 +1,18 @@
+/* A Interface PostagemReferencia é uma Projeção (Projection) do Spring Data com as Chaves Estrangeiras e a data de cada Postagem,
+sem o título e o texto. É o que a Classe EstatisticasService lê para reconstruir as estatísticas de Temas e Usuários. */
+
+package com.generation.blogpessoal.model;
+
+import java.time.LocalDateTime;
+
+public interface PostagemReferencia {
+
+    Long getId();
+
+    Long getTemaId();
+
+    Long getUsuarioId();
+
+    LocalDateTime getData();
+
+}
@@ -0,0 +1,49 @@
+/* A Classe ResultadoIngestao é uma DTO com o resumo da ingestão em lote de Postagens (POST /postagens/lote).
+Uma linha inválida não interrompe a carga: ela é contada em rejeitadas e descrita no Atributo erros, que guarda no máximo
+blogpessoal.ingestao.maximo-erros linhas (as demais são contadas, mas não descritas). */
+
+package com.generation.blogpessoal.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class ResultadoIngestao {
+
+    private long linhas;
+    private long inseridas;
+    private long rejeitadas;
+    private List<ErroIngestao> erros = new ArrayList<>();
+
+    public long getLinhas() {
+        return this.linhas;
+    }
+
+    public void setLinhas(long linhas) {
+        this.linhas = linhas;
+    }
+
+    public long getInseridas() {
+        return this.inseridas;
+    }
+
+    public void setInseridas(long inseridas) {
+        this.inseridas = inseridas;
+    }
+
+    public long getRejeitadas() {
+        return this.rejeitadas;
+    }
+
+    public void setRejeitadas(long rejeitadas) {
+        this.rejeitadas = rejeitadas;
+    }
+
+    public List<ErroIngestao> getErros() {
+        return this.erros;
+    }
+
+    public void setErros(List<ErroIngestao> erros) {
+        this.erros = erros;
+    }
+
+}
@@ -2,12 +2,16 @@ package com.generation.blogpessoal.model;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.UpdateTimestamp;
 import jakarta.validation.constraints.NotNull;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Entity
-@Table(name = "tb_temas")
+@Table(name = "tb_temas", indexes = @Index(name = "idx_temas_data", columnList = "data"))
+/* O índice da data (migração V5 do Flyway) atende ao max(data) do ETag das listagens (Classe VersaoService). */
 public class Tema {
 
     @Id
@@ -17,7 +21,18 @@ public class Tema {
     @NotNull(message = "O Atributo Descrição é obrigatório")
     private String descricao;
 
-    @OneToMany(mappedBy = "tema", cascade = CascadeType.REMOVE)
+    @UpdateTimestamp
+    /* Data da última alteração do Tema, utilizada (junto com a data das Postagens) para gerar o ETag das respostas de Temas. */
+    private LocalDateTime data;
+
+    @Version
+    /* Versão do Tema, incrementada a cada atualização (controle de concorrência otimista, como na Classe Postagem). */
+    private Long versao;
+
+    @OneToMany(mappedBy = "tema")
+    /* Sem cascade = CascadeType.REMOVE: o Hibernate carregaria todas as Postagens para apagá-las uma a uma. As Postagens são apagadas
+    com uma instrução delete pela Classe ExclusaoService, antes do Tema. */
+    @BatchSize(size = 50)
     @JsonIgnoreProperties("tema")
     private List<Postagem> postagem;
 
@@ -40,6 +55,22 @@ public class Tema {
         this.descricao = descricao;
     }
 
+    public LocalDateTime getData() {
+        return this.data;
+    }
+
+    public void setData(LocalDateTime data) {
+        this.data = data;
+    }
+
+    public Long getVersao() {
+        return this.versao;
+    }
+
+    public void setVersao(Long versao) {
+        this.versao = versao;
+    }
+
     public List<Postagem> getPostagem() {
         return this.postagem;
     }
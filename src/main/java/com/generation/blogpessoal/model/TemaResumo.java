@@ -0,0 +1,14 @@
+/* A Interface TemaResumo é uma Projeção (Projection) do Spring Data: ao invés de carregar o Objeto Tema com a Collection de
+Postagens, a consulta devolve apenas o id, a descrição e a quantidade de Postagens do Tema. É a resposta padrão da listagem de Temas. */
+
+package com.generation.blogpessoal.model;
+
+public interface TemaResumo {
+
+    Long getId();
+
+    String getDescricao();
+
+    Long getQuantidadePostagens();
+
+}
@@ -3,15 +3,23 @@ package com.generation.blogpessoal.model;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.persistence.*;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.UpdateTimestamp;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Entity
-@Table(name = "tb_usuarios")
+@Table(name = "tb_usuarios", indexes = {
+        @Index(name = "uk_usuarios_usuario", columnList = "usuario", unique = true),
+        @Index(name = "idx_usuarios_data", columnList = "data")})
+/* O índice único do usuario (e-mail) é criado pela migração V2 do Flyway (db/migration) e atende à consulta findByUsuario,
+executada a cada login e a cada requisição autenticada com Http Basic. O índice da data (migração V5) atende ao max(data) do ETag das
+listagens (Classe VersaoService). */
 public class Usuario {
 
     @Id
@@ -33,7 +41,13 @@ public class Usuario {
     @Size(max = 5000, message = "O link da foto não pode ser maior do que 5000 caracteres")
     private String foto;
 
-    @OneToMany(mappedBy = "usuario", cascade = CascadeType.REMOVE)
+    @UpdateTimestamp
+    /* Data da última alteração do Usuario. Como o Usuario aparece dentro das Postagens, ela também faz parte do ETag das Postagens. */
+    private LocalDateTime data;
+
+    @OneToMany(mappedBy = "usuario")
+    /* Sem cascade, como no Tema: as Postagens do Usuario são apagadas pela Classe ExclusaoService. */
+    @BatchSize(size = 50)
     @JsonIgnoreProperties("usuario")
     private List<Postagem> postagem;
 
@@ -90,6 +104,14 @@ public class Usuario {
         this.foto = foto;
     }
 
+    public LocalDateTime getData() {
+        return this.data;
+    }
+
+    public void setData(LocalDateTime data) {
+        this.data = data;
+    }
+
     public List<Postagem> getPostagem() {
         return this.postagem;
     }
@@ -0,0 +1,18 @@
+/* A Interface UsuarioResumo é uma Projeção (Projection) do Spring Data: a consulta devolve apenas os dados públicos do Usuario
+e a quantidade de Postagens, sem carregar a Collection de Postagens e sem expor a senha. É a resposta padrão da listagem de Usuários. */
+
+package com.generation.blogpessoal.model;
+
+public interface UsuarioResumo {
+
+    Long getId();
+
+    String getNome();
+
+    String getUsuario();
+
+    String getFoto();
+
+    Long getQuantidadePostagens();
+
+}
@@ -0,0 +1,138 @@
+/* A Classe PostagemReativaRepository faz as consultas de leitura de Postagens com o R2DBC (driver reativo), ao invés do JPA.
+O JPA utiliza o JDBC, que bloqueia a thread enquanto espera a resposta do Banco de dados. Com o R2DBC, a consulta é enviada e a thread é
+liberada: o resultado chega depois, como um Mono (0 ou 1 registro) ou um Flux (vários registros).
+As consultas são as mesmas da Interface PostagemRepository (paginação por cursor, ordenadas por data e id) e trazem o Tema e o Usuario
+de cada Postagem na mesma instrução SQL (JOIN). A senha do Usuario não é lida. */
+
+package com.generation.blogpessoal.repository;
+
+import java.time.LocalDateTime;
+import java.util.Locale;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+
+import com.generation.blogpessoal.model.Postagem;
+import com.generation.blogpessoal.model.Tema;
+import com.generation.blogpessoal.model.Usuario;
+
+import io.r2dbc.spi.Readable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@Repository
+public class PostagemReativaRepository {
+
+    private static final String SELECT = """
+            select p.id, p.titulo, p.texto, p.data, p.versao,
+                   t.id as tema_id, t.descricao as tema_descricao, t.data as tema_data, t.versao as tema_versao,
+                   u.id as usuario_id, u.nome as usuario_nome, u.usuario as usuario_usuario,
+                   u.foto as usuario_foto, u.data as usuario_data
+            from tb_postagem p
+            left join tb_temas t on t.id = p.tema_id
+            left join tb_usuarios u on u.id = p.usuario_id
+            """;
+
+    private static final String ORDEM = " order by p.data desc, p.id desc limit :limite";
+
+    private static final String APOS = "(p.data < :data or (p.data = :data and p.id < :id))";
+
+    /* O caractere de escape é um parâmetro, e não o literal '\': no MySQL, a barra invertida dentro de um literal inicia uma
+    sequência de escape. */
+    private static final String TITULO = "lower(p.titulo) like :titulo escape :escape";
+
+    private static final String ESCAPE = "\\";
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    public Mono<Postagem> findById(Long id) {
+        return databaseClient.sql(SELECT + "where p.id = :id")
+                .bind("id", id)
+                .map(PostagemReativaRepository::postagem)
+                .one();
+    }
+
+    public Flux<Postagem> findPagina(int limite) {
+        return databaseClient.sql(SELECT + ORDEM)
+                .bind("limite", limite)
+                .map(PostagemReativaRepository::postagem)
+                .all();
+    }
+
+    public Flux<Postagem> findPaginaApos(LocalDateTime data, Long id, int limite) {
+        return databaseClient.sql(SELECT + "where " + APOS + ORDEM)
+                .bind("data", data)
+                .bind("id", id)
+                .bind("limite", limite)
+                .map(PostagemReativaRepository::postagem)
+                .all();
+    }
+
+    public Flux<Postagem> findPaginaByTitulo(String titulo, int limite) {
+        return databaseClient.sql(SELECT + "where " + TITULO + ORDEM)
+                .bind("titulo", contendo(titulo))
+                .bind("escape", ESCAPE)
+                .bind("limite", limite)
+                .map(PostagemReativaRepository::postagem)
+                .all();
+    }
+
+    public Flux<Postagem> findPaginaByTituloApos(String titulo, LocalDateTime data, Long id, int limite) {
+        return databaseClient.sql(SELECT + "where " + TITULO + " and " + APOS + ORDEM)
+                .bind("titulo", contendo(titulo))
+                .bind("escape", ESCAPE)
+                .bind("data", data)
+                .bind("id", id)
+                .bind("limite", limite)
+                .map(PostagemReativaRepository::postagem)
+                .all();
+    }
+
+    /* Padrão do like para os títulos que contêm o texto procurado. O texto é procurado literalmente: o %, o _ e o próprio caractere de
+    escape enviados pelo cliente são escapados, e não funcionam como curingas. */
+    static String contendo(String titulo) {
+
+        String texto = titulo.toLowerCase(Locale.ROOT)
+                .replace(ESCAPE, ESCAPE + ESCAPE)
+                .replace("%", ESCAPE + "%")
+                .replace("_", ESCAPE + "_");
+
+        return "%" + texto + "%";
+    }
+
+    /* Monta a Postagem (com o Tema e o Usuario) a partir de uma linha do resultado. */
+    private static Postagem postagem(Readable linha) {
+
+        Postagem postagem = new Postagem();
+        postagem.setId(linha.get("id", Long.class));
+        postagem.setTitulo(linha.get("titulo", String.class));
+        postagem.setTexto(linha.get("texto", String.class));
+        postagem.setData(linha.get("data", LocalDateTime.class));
+        postagem.setVersao(linha.get("versao", Long.class));
+
+        Long temaId = linha.get("tema_id", Long.class);
+
+        if (temaId != null) {
+            Tema tema = new Tema();
+            tema.setId(temaId);
+            tema.setDescricao(linha.get("tema_descricao", String.class));
+            tema.setData(linha.get("tema_data", LocalDateTime.class));
+            tema.setVersao(linha.get("tema_versao", Long.class));
+            postagem.setTema(tema);
+        }
+
+        Long usuarioId = linha.get("usuario_id", Long.class);
+
+        if (usuarioId != null) {
+            Usuario usuario = new Usuario(usuarioId, linha.get("usuario_nome", String.class),
+                    linha.get("usuario_usuario", String.class), null, linha.get("usuario_foto", String.class));
+            usuario.setData(linha.get("usuario_data", LocalDateTime.class));
+            postagem.setUsuario(usuario);
+        }
+
+        return postagem;
+    }
+
+}
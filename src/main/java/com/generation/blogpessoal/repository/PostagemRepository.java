@@ -5,21 +5,211 @@ package com.generation.blogpessoal.repository;
 
 
 import com.generation.blogpessoal.model.Postagem;
+import com.generation.blogpessoal.model.PostagemReferencia;
+import com.generation.blogpessoal.model.PostagemExportacao;
+import com.generation.blogpessoal.model.Tema;
+import com.generation.blogpessoal.model.Usuario;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 /*A Anotação (Annotation) @Repository indica que a Interface é do tipo repositório,
 ou seja, ela é responsável pela interação com o Banco de dados através dos Métodos padrão (Herdados da Interface JPA Repository)
 e das Query Methods, que são Métodos personalizados que geram consultas (Instruções SQL do tipo Select),
-através da combinação de palavras chave, que representam os comandos da linguagem SQL. */
-
+através da combinação de palavras chave, que representam os comandos da linguagem SQL.
+A anotação @Transactional(readOnly = true) executa as Query Methods em transações somente leitura, como os Métodos de consulta
+herdados da Interface JpaRepository, para que possam ser atendidas pela réplica de leitura (Classe DataSourceRoteado). */
+@Transactional(readOnly = true)
 public interface PostagemRepository extends JpaRepository<Postagem, Long> {
+
+    /* A anotação @EntityGraph define o plano de busca (fetch plan) da consulta: o Tema e o Usuario de cada Postagem são
+    carregados na mesma instrução SQL (JOIN), ao invés de uma consulta extra para cada Tema e cada Usuario diferente (N+1).
+    Assim, todas as listagens de Postagens executam um número constante de instruções SQL, independente do tamanho da página. */
+    @EntityGraph(attributePaths = {"tema", "usuario"})
     public List <Postagem> findAllByTituloContainingIgnoreCase(@Param("titulo") String titulo);
 
+    @Override
+    @EntityGraph(attributePaths = {"tema", "usuario"})
+    public List<Postagem> findAll();
+
+    @Override
+    @EntityGraph(attributePaths = {"tema", "usuario"})
+    public List<Postagem> findAllById(Iterable<Long> ids);
+
+    @EntityGraph(attributePaths = {"tema", "usuario"})
+    public List<Postagem> findAllByIdGreaterThanOrderByIdAsc(Long id, Pageable limite);
+
+    /* Consultas da paginação por cursor: as Postagens são ordenadas da mais recente para a mais antiga (data, id) e a
+    próxima página começa logo depois da última Postagem devolvida. O Pageable é utilizado apenas para limitar o número de linhas. */
+    @EntityGraph(attributePaths = {"tema", "usuario"})
+    @Query("select p from Postagem p order by p.data desc, p.id desc")
+    public List<Postagem> findPagina(Pageable limite);
+
+    @EntityGraph(attributePaths = {"tema", "usuario"})
+    @Query("""
+            select p from Postagem p
+            where p.data < :data or (p.data = :data and p.id < :id)
+            order by p.data desc, p.id desc""")
+    public List<Postagem> findPaginaApos(@Param("data") LocalDateTime data, @Param("id") Long id, Pageable limite);
+
+    /* O título procurado é escapado pelo Spring Data (escape() e escapeCharacter()), como nas consultas derivadas do nome do Método:
+    o % e o _ enviados pelo cliente são procurados no título, e não funcionam como curingas. */
+    @EntityGraph(attributePaths = {"tema", "usuario"})
+    @Query("""
+            select p from Postagem p
+            where lower(p.titulo) like lower(concat('%', :#{escape(#titulo)}, '%')) escape :#{escapeCharacter()}
+            order by p.data desc, p.id desc""")
+    public List<Postagem> findPaginaByTitulo(@Param("titulo") String titulo, Pageable limite);
+
+    @EntityGraph(attributePaths = {"tema", "usuario"})
+    @Query("""
+            select p from Postagem p
+            where lower(p.titulo) like lower(concat('%', :#{escape(#titulo)}, '%')) escape :#{escapeCharacter()}
+            and (p.data < :data or (p.data = :data and p.id < :id))
+            order by p.data desc, p.id desc""")
+    public List<Postagem> findPaginaByTituloApos(@Param("titulo") String titulo, @Param("data") LocalDateTime data,
+                                                 @Param("id") Long id, Pageable limite);
+
+    /* Consultas das Postagens de um Usuario (/usuarios/{id}/postagens) e de um Tema (/temas/{id}/postagens), com a mesma
+    paginação por cursor. Os índices idx_postagem_usuario_data e idx_postagem_tema_data (ver a Classe Postagem) começam pela
+    Chave Estrangeira e seguem a ordem (data, id): o Banco de dados lê apenas o trecho do índice daquele Usuario ou Tema, já na
+    ordem da página, e para depois de "tamanho + 1" linhas, sem percorrer nem ordenar a tabela inteira. */
+    @EntityGraph(attributePaths = {"tema", "usuario"})
+    @Query("""
+            select p from Postagem p
+            where p.usuario.id = :usuarioId
+            order by p.data desc, p.id desc""")
+    public List<Postagem> findPaginaByUsuario(@Param("usuarioId") Long usuarioId, Pageable limite);
+
+    @EntityGraph(attributePaths = {"tema", "usuario"})
+    @Query("""
+            select p from Postagem p
+            where p.usuario.id = :usuarioId
+            and (p.data < :data or (p.data = :data and p.id < :id))
+            order by p.data desc, p.id desc""")
+    public List<Postagem> findPaginaByUsuarioApos(@Param("usuarioId") Long usuarioId, @Param("data") LocalDateTime data,
+                                                  @Param("id") Long id, Pageable limite);
+
+    @EntityGraph(attributePaths = {"tema", "usuario"})
+    @Query("""
+            select p from Postagem p
+            where p.tema.id = :temaId
+            order by p.data desc, p.id desc""")
+    public List<Postagem> findPaginaByTema(@Param("temaId") Long temaId, Pageable limite);
+
+    @EntityGraph(attributePaths = {"tema", "usuario"})
+    @Query("""
+            select p from Postagem p
+            where p.tema.id = :temaId
+            and (p.data < :data or (p.data = :data and p.id < :id))
+            order by p.data desc, p.id desc""")
+    public List<Postagem> findPaginaByTemaApos(@Param("temaId") Long temaId, @Param("data") LocalDateTime data,
+                                               @Param("id") Long id, Pageable limite);
+
+    /* Consulta da exportação: devolve um Stream (e não uma List), lido do Banco de dados aos poucos, de 500 em 500 linhas
+    (fetch size), enquanto as linhas já lidas são escritas na resposta. Precisa ser executada dentro de uma transação e o
+    Stream deve ser fechado ao final (try-with-resources). */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")})
+    @Query("""
+            select new com.generation.blogpessoal.model.PostagemExportacao(
+                   p.id, p.titulo, p.texto, p.data, t.id, t.descricao, u.id, u.nome)
+            from Postagem p left join p.tema t left join p.usuario u
+            order by p.id""")
+    public Stream<PostagemExportacao> streamExportacao();
+
+    /* Tema, Usuario e data de cada Postagem, sem o título e o texto, em lotes (por id). Utilizado na reconstrução das estatísticas
+    (Classe EstatisticasService). */
+    @Query("""
+            select p.id as id, p.tema.id as temaId, p.usuario.id as usuarioId, p.data as data
+            from Postagem p
+            where p.id > :ultimoId
+            order by p.id""")
+    public List<PostagemReferencia> findReferencias(@Param("ultimoId") Long ultimoId, Pageable limite);
+
+    /* Tema, Usuario e data de uma Postagem, lidos antes de atualizá-la ou apagá-la, para descontá-la das estatísticas (Classe
+    EstatisticasService) sem guardar o Tema e o Usuario de cada Postagem na memória. A linha fica bloqueada (select ... for update)
+    até o fim da transação: duas alterações simultâneas da mesma Postagem não descontam o mesmo Tema duas vezes. */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("""
+            select p.id as id, p.tema.id as temaId, p.usuario.id as usuarioId, p.data as data
+            from Postagem p
+            where p.id = :id""")
+    public Optional<PostagemReferencia> findReferencia(@Param("id") Long id);
+
+    /* Postagens de um Tema e de um Usuario (id, Tema, Usuario e data), lidas em lotes (limite) pela Classe ExclusaoService antes de
+    apagá-las. */
+    @Query("""
+            select p.id as id, p.tema.id as temaId, p.usuario.id as usuarioId, p.data as data
+            from Postagem p
+            where p.tema.id = :temaId""")
+    public List<PostagemReferencia> findReferenciasByTema(@Param("temaId") Long temaId, Pageable limite);
+
+    @Query("""
+            select p.id as id, p.tema.id as temaId, p.usuario.id as usuarioId, p.data as data
+            from Postagem p
+            where p.usuario.id = :usuarioId""")
+    public List<PostagemReferencia> findReferenciasByUsuario(@Param("usuarioId") Long usuarioId, Pageable limite);
+
+    /* Exclusões com uma única instrução delete, sem carregar as Postagens (o deleteById() consulta a Postagem antes de apagá-la).
+    Retornam a quantidade de Postagens apagadas. */
+    @Modifying
+    @Transactional
+    @Query("delete from Postagem p where p.id = :id")
+    public int apagar(@Param("id") Long id);
+
+    @Modifying
+    @Transactional
+    @Query("delete from Postagem p where p.id in :ids")
+    public int apagarPorIds(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Transactional
+    @Query("delete from Postagem p where p.tema.id = :temaId")
+    public int apagarPorTema(@Param("temaId") Long temaId);
+
+    @Modifying
+    @Transactional
+    @Query("delete from Postagem p where p.usuario.id = :usuarioId")
+    public int apagarPorUsuario(@Param("usuarioId") Long usuarioId);
+
+    @Query("select p.versao from Postagem p where p.id = :id")
+    public Optional<Long> findVersao(@Param("id") Long id);
+
+    /* Atualização da Postagem em uma única instrução SQL (sem carregar a Postagem antes, como faz o save()). A instrução update
+    só altera a linha se a versão informada ainda for a atual (versao nula: qualquer versão) e incrementa a versão. Retorna a
+    quantidade de linhas alteradas: 0 significa que a Postagem não existe ou que a versão mudou. A data é informada porque a
+    instrução update não passa pelo @UpdateTimestamp. */
+    @Modifying
+    @Transactional
+    @Query("""
+            update Postagem p
+            set p.titulo = :titulo, p.texto = :texto, p.tema = :tema, p.usuario = :usuario, p.data = :data,
+                p.versao = p.versao + 1
+            where p.id = :id
+            and (:versao is null or p.versao = :versao)""")
+    public int atualizar(@Param("id") Long id, @Param("versao") Long versao, @Param("titulo") String titulo,
+                         @Param("texto") String texto, @Param("tema") Tema tema, @Param("usuario") Usuario usuario,
+                         @Param("data") LocalDateTime data);
+
 }
 /* Observe que na declaração da Interface foi adicionada a Herança através da palavra reservada extends com a Interface JpaRepository, que recebe 2 parâmetros:
 A Classe Postagem, que é a Entidade que será mapeada em nosso Banco de dados (Lembre-se que a Classe Postagem foi quem gerou a nossa tabela
@@ -1,15 +1,61 @@
 package com.generation.blogpessoal.repository;
 
 import com.generation.blogpessoal.model.Tema;
+import com.generation.blogpessoal.model.TemaResumo;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
+/* As Query Methods são executadas em transações somente leitura, que podem ser atendidas pela réplica de leitura. */
+@Transactional(readOnly = true)
 public interface TemaRepository extends JpaRepository<Tema, Long> {
 
     public List<Tema> findAllByDescricaoContainingIgnoreCase(@Param("descricao") String descricao);
 
+    public List<Tema> findAllByIdGreaterThanOrderByIdAsc(Long id, Pageable limite);
+
+    @Query("""
+            select t.id as id, t.descricao as descricao,
+                   (select count(p.id) from Postagem p where p.tema = t) as quantidadePostagens
+            from Tema t
+            where t.id > :id
+            order by t.id""")
+    public List<TemaResumo> findResumos(@Param("id") Long id, Pageable limite);
+
+    /* Retorna, em uma única consulta, quais dos ids informados existem. Utilizado pela ingestão em lote de Postagens. */
+    @Query("select t.id from Tema t where t.id in :ids")
+    public List<Long> findIdsExistentes(@Param("ids") Collection<Long> ids);
+
+    /* Apaga o Tema com uma única instrução delete, sem carregar o Tema e as suas Postagens. As Postagens precisam ser apagadas antes
+    (Classe ExclusaoService). Retorna 0 se o Tema não existe. */
+    @Modifying
+    @Transactional
+    @Query("delete from Tema t where t.id = :id")
+    public int apagar(@Param("id") Long id);
+
+    @Query("select t.versao from Tema t where t.id = :id")
+    public Optional<Long> findVersao(@Param("id") Long id);
+
+    /* Atualização do Tema em uma única instrução SQL, condicionada à versão (versao nula: qualquer versão), como o Método
+    atualizar() da Interface PostagemRepository. Retorna 0 se o Tema não existe ou se a versão mudou. */
+    @Modifying
+    @Transactional
+    @Query("""
+            update Tema t
+            set t.descricao = :descricao, t.data = :data, t.versao = t.versao + 1
+            where t.id = :id
+            and (:versao is null or t.versao = :versao)""")
+    public int atualizar(@Param("id") Long id, @Param("versao") Long versao, @Param("descricao") String descricao,
+                         @Param("data") LocalDateTime data);
+
 }
\ No newline at end of file
@@ -1,20 +1,65 @@
 package com.generation.blogpessoal.repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.generation.blogpessoal.model.Usuario;
+import com.generation.blogpessoal.model.UsuarioResumo;
 
 @Repository
+/* As Query Methods são executadas em transações somente leitura, que podem ser atendidas pela réplica de leitura. */
+@Transactional(readOnly = true)
 public interface UsuarioRepository extends JpaRepository<Usuario, Long>{
 
     public Optional<Usuario> findByUsuario(String usuario);
 
+    /* Mesma consulta do Método findByUsuario(), em uma transação de leitura e escrita, que é sempre atendida pelo primário. Utilizada
+    na autenticação (login e Http Basic): na réplica atrasada, um usuário recém cadastrado receberia 401, e a senha antiga (ou um
+    usuário apagado) continuaria sendo aceita até a réplica alcançar o primário. */
+    @Transactional
+    @Query("select u from Usuario u where u.usuario = :usuario")
+    public Optional<Usuario> findParaAutenticacao(@Param("usuario") String usuario);
+
     public List<Usuario> findAllByNomeContainingIgnoreCase(@Param("nome") String nome);
+
+    public List<Usuario> findAllByIdGreaterThanOrderByIdAsc(Long id, Pageable limite);
+
+    @Query("""
+            select u.id as id, u.nome as nome, u.usuario as usuario, u.foto as foto,
+                   (select count(p.id) from Postagem p where p.usuario = u) as quantidadePostagens
+            from Usuario u
+            where u.id > :id
+            order by u.id""")
+    public List<UsuarioResumo> findResumos(@Param("id") Long id, Pageable limite);
+
+    @Query("select u.id from Usuario u where u.id in :ids")
+    public List<Long> findIdsExistentes(@Param("ids") Collection<Long> ids);
+
+    /* E-mail do Usuario, sem carregar a Entidade. Utilizado para remover as credenciais do Cache quando o Usuario é apagado. */
+    @Query("select u.usuario from Usuario u where u.id = :id")
+    public Optional<String> findUsuarioById(@Param("id") Long id);
+
+    /* Apaga o Usuario com uma única instrução delete. As Postagens precisam ser apagadas antes (Classe ExclusaoService). */
+    @Modifying
+    @Transactional
+    @Query("delete from Usuario u where u.id = :id")
+    public int apagar(@Param("id") Long id);
+
+    /* Grava o novo hash da senha (mesma senha, criptografada com a força atual do BCrypt). A instrução update não passa pelo
+    @UpdateTimestamp: a data do Usuario não muda, porque nada visível para os clientes mudou. */
+    @Modifying
+    @Transactional
+    @Query("update Usuario u set u.senha = :senha where u.id = :id")
+    public int atualizarSenha(@Param("id") Long id, @Param("senha") String senha);
 }
 /* Instrução SQL equivalente: SELECT * FROM tb_usuario WHERE usuario = "usuario"; */
 
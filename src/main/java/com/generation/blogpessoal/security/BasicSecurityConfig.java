@@ -9,6 +9,8 @@ Classe, diferente da Injeção de Dependência criada pela anotação @Autowired
 
 package com.generation.blogpessoal.security;
 
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
@@ -17,17 +19,47 @@ import org.springframework.security.config.annotation.authentication.configurati
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.www.BasicAuthenticationFilter;
 
 @Configuration
 @EnableWebSecurity
 public class BasicSecurityConfig {
 
+    @Autowired
+    private CredenciaisCache credenciaisCache;
+
+    @Autowired
+    private TokenService tokenService;
+
+    @Autowired
+    private LimiteTentativas limiteTentativas;
+
+    @Autowired
+    private ExecutorSenhas executorSenhas;
+
+    /* Força do BCrypt: um valor entre 4 e 31 fixa a força; 0 calibra a força na inicialização (Classe SenhaEncoder). Em produção,
+    a força é sempre fixa (application-prod.properties). */
+    @Value("${blogpessoal.seguranca.bcrypt.forca:0}")
+    private int forcaBcrypt;
+
+    @Value("${blogpessoal.seguranca.bcrypt.tempo-alvo-ms:250}")
+    private long tempoAlvoBcrypt;
+
+    @Value("${blogpessoal.seguranca.bcrypt.forca-minima:10}")
+    private int forcaMinimaBcrypt;
+
+    @Value("${blogpessoal.seguranca.bcrypt.forca-maxima:16}")
+    private int forcaMaximaBcrypt;
+
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public SenhaEncoder passwordEncoder() {
+
+        if (forcaBcrypt > 0)
+            return new SenhaEncoder(forcaBcrypt, true, executorSenhas);
+
+        return new SenhaEncoder(SenhaEncoder.calibrar(tempoAlvoBcrypt, forcaMinimaBcrypt, forcaMaximaBcrypt), false,
+                executorSenhas);
     }
 
     @Bean
@@ -49,16 +81,26 @@ public class BasicSecurityConfig {
                         .requestMatchers("/usuarios/logar").permitAll()
                         .requestMatchers("/usuarios/cadastrar").permitAll()
                         .requestMatchers(HttpMethod.OPTIONS).permitAll()
+                        .requestMatchers("/error").permitAll()
+                        .requestMatchers("/actuator/health").permitAll()
+                        .requestMatchers("/actuator/**", "/usuarios/credenciais/estatisticas", "/usuarios/senhas/estatisticas",
+                                "/temas/cache/estatisticas").hasRole(UserDetailsServiceImpl.MONITORAMENTO)
                         .anyRequest().authenticated())
+                .addFilterBefore(new CredenciaisCacheFilter(credenciaisCache), BasicAuthenticationFilter.class)
+                .addFilterBefore(new LimiteTentativasFilter(limiteTentativas), BasicAuthenticationFilter.class)
                 .httpBasic();
 
+        if (tokenService.isModoToken())
+            http.addFilterBefore(new TokenAutenticacaoFilter(tokenService), BasicAuthenticationFilter.class);
+
         return http.build();
 
     }
 
 }
 /* O Método passwordEncoder() , indica ao Spring Security que a aplicação está baseada em um modelo de criptografia.
-Para esta aplicação estamos utilizando o modelo BCryptPasswordEncoder(), que se trata de um algoritmo de criptografia do tipo hash.
+Para esta aplicação estamos utilizando o modelo BCryptPasswordEncoder() (através da Classe SenhaEncoder, que define a força do
+BCrypt na inicialização), que se trata de um algoritmo de criptografia do tipo hash.
 Vale ressaltar que esta criptografia está sendo esperada para analisar a senha que estamos guardando no Banco de dados.
 Hash é um algoritmo que transforma dados de comprimento variável em dados de comprimento fixo codificados.
 
@@ -69,4 +111,21 @@ Classe UserDetailsServiceImpl, que valida o usuário no Banco de dados.
 
 O Método SecurityFilterChain filterChain(HttpSecurity http), estamos informando ao Spring que a configuração padrão da Spring Security
 será substituída por uma nova configuração. Nesta configuração iremos customizar a autenticação da aplicação desabilitando o
-formulário de login e habilitando a autenticação via http. */
\ No newline at end of file
+formulário de login e habilitando a autenticação via http.
+
+O endereço /error é liberado porque o Spring despacha para ele as respostas de erro (por exemplo, o 503 da Classe
+SenhasIndisponiveisException): sem a liberação, um erro em um endpoint público (login ou cadastro) viraria 401.
+
+O endereço /actuator/health (verificação de saúde do balanceador de carga) é público. As métricas e o relatório de instruções SQL
+(/actuator/prometheus e /actuator/sql) e os diagnósticos dos Caches e do executor do BCrypt exigem o direito MONITORAMENTO,
+concedido apenas aos usuários de blogpessoal.seguranca.monitoramento.usuarios: como qualquer pessoa pode se cadastrar em
+/usuarios/cadastrar, estar autenticado não basta. Os Tokens assinados (modo token) não carregam esse direito.
+
+O Filtro CredenciaisCacheFilter é adicionado antes do BasicAuthenticationFilter para que as credenciais já verificadas
+sejam aceitas sem uma nova consulta ao Banco de dados e sem executar o BCrypt a cada requisição.
+Logo depois vem o Filtro LimiteTentativasFilter: as credenciais que não estão no Cache (e que vão executar o BCrypt) são limitadas
+por IP e por usuário e, acima do limite, a resposta é 429 (Too Many Requests). Os Filtros adicionados antes do mesmo Filtro são
+executados na ordem em que foram adicionados.
+
+No modo blogpessoal.seguranca.autenticacao=token, o Filtro TokenAutenticacaoFilter também é adicionado: ele aceita os Tokens
+assinados emitidos pelo endpoint /usuarios/logar, enquanto os clientes antigos continuam utilizando a autenticação Http Basic. */
\ No newline at end of file
@@ -0,0 +1,125 @@
+/* A Classe CredenciaisCache guarda, por um tempo limitado, as credenciais Http Basic que já foram verificadas com sucesso.
+Sem ela, toda requisição autenticada executa o Método findByUsuario() no Banco de dados e o BCrypt (que é lento de propósito).
+A chave do Cache não é o cabeçalho Authorization em si, e sim um HMAC-SHA256 do cabeçalho, calculado com uma chave aleatória
+gerada na inicialização da aplicação. Desta forma, a senha do usuário nunca fica guardada em memória em texto puro. */
+
+package com.generation.blogpessoal.security;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+@Component
+public class CredenciaisCache implements MeterBinder {
+
+    private static final String ALGORITMO = "HmacSHA256";
+
+    private final boolean habilitado;
+
+    private final SecretKeySpec chave;
+
+    private final Cache<String, UserDetails> cache;
+
+    /* Incrementada a cada invalidação. Veja o Método guardar(). */
+    private final AtomicLong geracao = new AtomicLong();
+
+    public CredenciaisCache(@Value("${blogpessoal.seguranca.cache.habilitado:true}") boolean habilitado,
+                            @Value("${blogpessoal.seguranca.cache.tamanho-maximo:10000}") long tamanhoMaximo,
+                            @Value("${blogpessoal.seguranca.cache.expiracao-segundos:300}") long expiracaoSegundos) {
+
+        byte[] segredo = new byte[32];
+        new SecureRandom().nextBytes(segredo);
+
+        this.habilitado = habilitado;
+        this.chave = new SecretKeySpec(segredo, ALGORITMO);
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(tamanhoMaximo)
+                .expireAfterWrite(Duration.ofSeconds(expiracaoSegundos))
+                .recordStats()
+                .build();
+    }
+
+    public Optional<UserDetails> buscar(String cabecalho) {
+
+        if (!habilitado)
+            return Optional.empty();
+
+        return Optional.ofNullable(cache.getIfPresent(gerarChave(cabecalho)));
+    }
+
+    /* Geração atual do Cache, lida antes de verificar as credenciais que serão guardadas. */
+    public long geracao() {
+        return geracao.get();
+    }
+
+    /* Guarda as credenciais verificadas quando o Cache estava na geração informada. Se houve uma invalidação desde então (troca
+    de senha ou exclusão do Usuario durante a requisição), as credenciais podem ser as antigas e não são guardadas: sem isso,
+    elas voltariam para o Cache depois da invalidação e continuariam valendo até expirar.
+    A geração é conferida depois do put: se a invalidação acontecer entre a conferência e o put, o removeIf do Método invalidar()
+    (executado depois do incremento) também remove a credencial guardada. */
+    public void guardar(String cabecalho, UserDetails usuario, long geracaoLida) {
+
+        if (!habilitado)
+            return;
+
+        String chaveCache = gerarChave(cabecalho);
+        cache.put(chaveCache, usuario);
+
+        if (geracao.get() != geracaoLida)
+            cache.invalidate(chaveCache);
+    }
+
+    /* Remove todas as credenciais do usuário. Como a chave é um HMAC, não é possível chegar ao usuário a partir dela,
+    por isso percorremos os valores. A operação é rara (troca de senha) e o Cache é limitado, então o custo é aceitável. */
+    public void invalidar(String usuario) {
+
+        geracao.incrementAndGet();
+        cache.asMap().values().removeIf(detalhes -> detalhes.getUsername().equals(usuario));
+    }
+
+    public CacheStats estatisticas() {
+        return cache.stats();
+    }
+
+    public long tamanho() {
+        return cache.estimatedSize();
+    }
+
+    /* Acertos, falhas, remoções e tamanho do Cache no endpoint /actuator/prometheus (cache="credenciais"). O Prometheus exige
+    as mesmas tags em todas as métricas com o mesmo nome, por isso são utilizadas as mesmas tags dos Caches do Spring (temaExiste). */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, "credenciais", "cache_manager", "credenciaisCache", "name", "credenciais");
+    }
+
+    private String gerarChave(String cabecalho) {
+
+        try {
+            Mac mac = Mac.getInstance(ALGORITMO);
+            mac.init(chave);
+            return HexFormat.of().formatHex(mac.doFinal(cabecalho.getBytes(StandardCharsets.UTF_8)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Não foi possível calcular o HMAC das credenciais", e);
+        }
+    }
+
+}
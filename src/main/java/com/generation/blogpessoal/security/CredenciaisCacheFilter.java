@@ -0,0 +1,75 @@
+/* O Filtro CredenciaisCacheFilter é executado antes do BasicAuthenticationFilter da Spring Security.
+Se o cabeçalho Authorization já foi verificado recentemente, o usuário é autenticado direto a partir do CredenciaisCache e o
+BasicAuthenticationFilter não precisa consultar o Banco de dados nem executar o BCrypt novamente.
+Caso contrário, a requisição segue normalmente e, se a autenticação Http Basic for bem sucedida, o resultado é guardado no Cache. */
+
+package com.generation.blogpessoal.security;
+
+import java.io.IOException;
+import java.util.Optional;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.web.context.RequestAttributeSecurityContextRepository;
+import org.springframework.security.web.context.SecurityContextRepository;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+public class CredenciaisCacheFilter extends OncePerRequestFilter {
+
+    private final CredenciaisCache credenciaisCache;
+
+    /* Como a aplicação é STATELESS, o contexto de segurança é guardado apenas nos atributos da requisição, para que ele continue
+    disponível quando a requisição for despachada novamente pelo Servlet Container (páginas de erro ou respostas assíncronas). */
+    private final SecurityContextRepository securityContextRepository = new RequestAttributeSecurityContextRepository();
+
+    public CredenciaisCacheFilter(CredenciaisCache credenciaisCache) {
+        this.credenciaisCache = credenciaisCache;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+
+        String cabecalho = request.getHeader(HttpHeaders.AUTHORIZATION);
+
+        if (cabecalho == null || !cabecalho.regionMatches(true, 0, "Basic ", 0, 6)) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        Optional<UserDetails> usuario = credenciaisCache.buscar(cabecalho);
+
+        if (usuario.isPresent()) {
+
+            SecurityContext contexto = SecurityContextHolder.createEmptyContext();
+            contexto.setAuthentication(UsernamePasswordAuthenticationToken.authenticated(
+                    usuario.get(), null, usuario.get().getAuthorities()));
+            SecurityContextHolder.setContext(contexto);
+            securityContextRepository.saveContext(contexto, request, response);
+
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        /* A geração é lida antes da autenticação: uma troca de senha durante a requisição impede que a senha antiga seja guardada. */
+        long geracao = credenciaisCache.geracao();
+
+        filterChain.doFilter(request, response);
+
+        Authentication autenticacao = SecurityContextHolder.getContext().getAuthentication();
+
+        if (autenticacao != null && autenticacao.isAuthenticated()
+                && autenticacao.getPrincipal() instanceof UserDetails detalhes)
+            credenciaisCache.guardar(cabecalho, detalhes, geracao);
+    }
+
+}
@@ -0,0 +1,162 @@
+/* A Classe ExecutorSenhas executa o BCrypt (criptografar e comparar senhas) em um grupo próprio de threads, com o tamanho
+configurado em blogpessoal.seguranca.senhas.threads (por padrão, o número de processadores) e uma fila limitada.
+Sem ela, cada login, cadastro ou autenticação Http Basic fora do Cache executa o BCrypt na própria thread do Tomcat: em um pico de
+logins, todas as threads do Tomcat ficam ocupadas com o BCrypt e os demais endpoints param de responder.
+
+Com o executor, no máximo "threads" BCrypts rodam ao mesmo tempo e no máximo "fila" aguardam. Quando a fila está cheia, ou quando a
+espera passa de blogpessoal.seguranca.senhas.espera-maxima-ms, a requisição é recusada na hora com o Status 503 (Service Unavailable)
+e o cabeçalho Retry-After, ao invés de esperar indefinidamente. O tamanho da fila, o número de tarefas recusadas e o tempo de espera na
+fila podem ser consultados no endpoint /usuarios/senhas/estatisticas e no endpoint /actuator/prometheus (MeterBinder). */
+
+package com.generation.blogpessoal.security;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+
+@Component
+public class ExecutorSenhas implements MeterBinder {
+
+    private final ThreadPoolExecutor executor;
+
+    private final long esperaMaximaMs;
+
+    private final LongAdder recusadas = new LongAdder();
+
+    private final LongAdder esperas = new LongAdder();
+
+    private final LongAdder esperaTotalNanos = new LongAdder();
+
+    private final AtomicLong esperaMaximaNanos = new AtomicLong();
+
+    public ExecutorSenhas(@Value("${blogpessoal.seguranca.senhas.threads:0}") int threads,
+                          @Value("${blogpessoal.seguranca.senhas.fila:100}") int fila,
+                          @Value("${blogpessoal.seguranca.senhas.espera-maxima-ms:2000}") long esperaMaximaMs) {
+
+        int tamanho = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger contador = new AtomicInteger();
+
+        this.esperaMaximaMs = esperaMaximaMs;
+        this.executor = new ThreadPoolExecutor(tamanho, tamanho, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, fila)),
+                tarefa -> {
+                    Thread thread = new Thread(tarefa, "bcrypt-" + contador.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /* Executa a tarefa no executor e espera o resultado na thread da requisição. Lança SenhasIndisponiveisException (503)
+    se a fila estiver cheia ou se o resultado não ficar pronto dentro da espera máxima. */
+    public <T> T executar(Supplier<T> tarefa) {
+
+        long enviadaEm = System.nanoTime();
+        Future<T> resultado;
+
+        try {
+            resultado = executor.submit(() -> {
+                registrarEspera(System.nanoTime() - enviadaEm);
+                return tarefa.get();
+            });
+        } catch (RejectedExecutionException e) {
+            recusadas.increment();
+            throw new SenhasIndisponiveisException();
+        }
+
+        try {
+            return resultado.get(esperaMaximaMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            resultado.cancel(true);
+            recusadas.increment();
+            throw new SenhasIndisponiveisException();
+        } catch (InterruptedException e) {
+            resultado.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new SenhasIndisponiveisException();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException erro)
+                throw erro;
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    public int tamanhoFila() {
+        return executor.getQueue().size();
+    }
+
+    public Map<String, Number> estatisticas() {
+
+        long quantidadeEsperas = esperas.sum();
+
+        Map<String, Number> estatisticas = new LinkedHashMap<>();
+        estatisticas.put("threads", executor.getMaximumPoolSize());
+        estatisticas.put("ativas", executor.getActiveCount());
+        estatisticas.put("fila", tamanhoFila());
+        estatisticas.put("capacidadeFila", tamanhoFila() + executor.getQueue().remainingCapacity());
+        estatisticas.put("concluidas", executor.getCompletedTaskCount());
+        estatisticas.put("recusadas", recusadas.sum());
+        estatisticas.put("esperaMediaMs", quantidadeEsperas == 0 ? 0.0
+                : esperaTotalNanos.sum() / (double) quantidadeEsperas / 1_000_000);
+        estatisticas.put("esperaMaximaMs", esperaMaximaNanos.get() / 1_000_000.0);
+
+        return estatisticas;
+    }
+
+    /* Métricas do executor no endpoint /actuator/prometheus: tamanho da fila, threads ocupadas, tarefas recusadas (503)
+    e tempo de espera na fila (quantidade e tempo total, para calcular a espera média em um intervalo). */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+
+        Gauge.builder("blogpessoal.senhas.fila", this, ExecutorSenhas::tamanhoFila)
+                .description("Senhas aguardando uma thread do BCrypt")
+                .register(registry);
+
+        Gauge.builder("blogpessoal.senhas.ativas", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Threads executando o BCrypt")
+                .register(registry);
+
+        FunctionCounter.builder("blogpessoal.senhas.recusadas", recusadas, LongAdder::sum)
+                .description("Senhas recusadas com 503 (fila cheia ou espera máxima)")
+                .register(registry);
+
+        FunctionTimer.builder("blogpessoal.senhas.espera", this,
+                        executorSenhas -> executorSenhas.esperas.sum(),
+                        executorSenhas -> executorSenhas.esperaTotalNanos.sum(), TimeUnit.NANOSECONDS)
+                .description("Tempo de espera na fila do BCrypt")
+                .register(registry);
+    }
+
+    @PreDestroy
+    public void encerrar() {
+        executor.shutdownNow();
+    }
+
+    private void registrarEspera(long nanos) {
+
+        esperas.increment();
+        esperaTotalNanos.add(nanos);
+        esperaMaximaNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+}
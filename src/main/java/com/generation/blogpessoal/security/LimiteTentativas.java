@@ -0,0 +1,145 @@
+/* A Classe LimiteTentativas limita as tentativas de autenticação (login e Http Basic) por endereço IP e por usuário (e-mail).
+Cada tentativa que chega ao BCrypt custa dezenas de milissegundos de CPU: sem limite, uma rajada de senhas erradas ocupa todos os
+núcleos do servidor e derruba as requisições legítimas.
+
+Cada IP e cada usuário tem um "balde de fichas" (token bucket): o balde começa cheio (capacidade), cada tentativa consome uma ficha
+e as fichas voltam no ritmo configurado (por minuto). Com o balde vazio, a tentativa é recusada com o Status 429 (Too Many Requests)
+e o cabeçalho Retry-After informa em quantos segundos a próxima ficha estará disponível. A ficha de uma tentativa bem sucedida é
+devolvida, então apenas as senhas erradas (e os usuários inexistentes) esgotam o balde.
+
+O balde é implementado com o algoritmo GCRA: ao invés de contar fichas, cada balde guarda um único número (o instante teórico em que
+ele estará cheio novamente) em um AtomicLong, atualizado com compareAndSet, sem locks. Os baldes ficam em Caches do Caffeine, que
+dividem o mapa em segmentos (striping) e têm tamanho máximo. Um balde sem uso há mais tempo do que o necessário para encher é
+removido do Cache: como ele já estaria cheio, a remoção não altera o limite e a memória fica limitada. */
+
+package com.generation.blogpessoal.security;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+@Component
+public class LimiteTentativas {
+
+    private final boolean habilitado;
+
+    private final Baldes porIp;
+
+    private final Baldes porUsuario;
+
+    public LimiteTentativas(@Value("${blogpessoal.seguranca.limite.habilitado:true}") boolean habilitado,
+                            @Value("${blogpessoal.seguranca.limite.ip.capacidade:20}") long capacidadeIp,
+                            @Value("${blogpessoal.seguranca.limite.ip.por-minuto:30}") long porMinutoIp,
+                            @Value("${blogpessoal.seguranca.limite.usuario.capacidade:5}") long capacidadeUsuario,
+                            @Value("${blogpessoal.seguranca.limite.usuario.por-minuto:5}") long porMinutoUsuario,
+                            @Value("${blogpessoal.seguranca.limite.tamanho-maximo:100000}") long tamanhoMaximo) {
+
+        this.habilitado = habilitado;
+        this.porIp = new Baldes(capacidadeIp, porMinutoIp, tamanhoMaximo);
+        this.porUsuario = new Baldes(capacidadeUsuario, porMinutoUsuario, tamanhoMaximo);
+    }
+
+    /* Consome uma ficha do IP e uma do usuário. Retorna 0 se a tentativa pode seguir ou, se algum dos baldes estiver vazio,
+    quantos segundos o cliente deve esperar (nenhuma ficha é consumida neste caso). O usuário pode ser nulo (não informado). */
+    public long reservar(String ip, String usuario) {
+
+        if (!habilitado)
+            return 0;
+
+        long agora = System.nanoTime();
+
+        long esperaIp = porIp.consumir(ip, agora);
+
+        if (esperaIp > 0)
+            return segundos(esperaIp);
+
+        if (usuario == null)
+            return 0;
+
+        long esperaUsuario = porUsuario.consumir(chaveUsuario(usuario), agora);
+
+        if (esperaUsuario > 0) {
+            porIp.devolver(ip);
+            return segundos(esperaUsuario);
+        }
+
+        return 0;
+    }
+
+    /* Devolve as fichas de uma tentativa bem sucedida. */
+    public void devolver(String ip, String usuario) {
+
+        if (!habilitado)
+            return;
+
+        porIp.devolver(ip);
+
+        if (usuario != null)
+            porUsuario.devolver(chaveUsuario(usuario));
+    }
+
+    private static String chaveUsuario(String usuario) {
+        return usuario.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static long segundos(long nanos) {
+        return Math.max(1, (nanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+    }
+
+    /* Baldes com a mesma capacidade e o mesmo ritmo, um por chave (IP ou usuário). */
+    private static final class Baldes {
+
+        /* Tempo (em nanossegundos) para uma ficha voltar ao balde. */
+        private final long intervalo;
+
+        /* Tempo para o balde vazio encher completamente. */
+        private final long capacidadeNanos;
+
+        private final Cache<String, AtomicLong> baldes;
+
+        Baldes(long capacidade, long porMinuto, long tamanhoMaximo) {
+
+            this.intervalo = TimeUnit.MINUTES.toNanos(1) / Math.max(1, porMinuto);
+            this.capacidadeNanos = intervalo * Math.max(1, capacidade);
+            this.baldes = Caffeine.newBuilder()
+                    .maximumSize(tamanhoMaximo)
+                    .expireAfterAccess(Duration.ofNanos(capacidadeNanos))
+                    .build();
+        }
+
+        /* Retorna 0 se a ficha foi consumida ou, com o balde vazio, o tempo de espera em nanossegundos. */
+        long consumir(String chave, long agora) {
+
+            AtomicLong cheioEm = baldes.get(chave, ignorada -> new AtomicLong(agora));
+
+            while (true) {
+                long atual = cheioEm.get();
+                long proximo = Math.max(atual, agora) + intervalo;
+                long excesso = proximo - agora - capacidadeNanos;
+
+                if (excesso > 0)
+                    return excesso;
+
+                if (cheioEm.compareAndSet(atual, proximo))
+                    return 0;
+            }
+        }
+
+        void devolver(String chave) {
+
+            AtomicLong cheioEm = baldes.getIfPresent(chave);
+
+            if (cheioEm != null)
+                cheioEm.addAndGet(-intervalo);
+        }
+
+    }
+
+}
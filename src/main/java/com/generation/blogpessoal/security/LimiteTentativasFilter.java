@@ -0,0 +1,108 @@
+/* O Filtro LimiteTentativasFilter é executado depois do CredenciaisCacheFilter e antes do BasicAuthenticationFilter.
+As requisições que já foram autenticadas pelo Cache (ou pelo Token) seguem direto. As demais requisições com o cabeçalho
+"Authorization: Basic" vão executar o BCrypt no BasicAuthenticationFilter, então antes disso consomem uma ficha do IP e do usuário
+na Classe LimiteTentativas. Se algum dos limites foi atingido, a resposta é 429 (Too Many Requests), sem consultar o Banco de dados
+e sem executar o BCrypt. Se o executor do BCrypt (Classe ExecutorSenhas) estiver saturado, a resposta é 503 (Service Unavailable). */
+
+package com.generation.blogpessoal.security;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+public class LimiteTentativasFilter extends OncePerRequestFilter {
+
+    private static final String PREFIXO = "Basic ";
+
+    private final LimiteTentativas limiteTentativas;
+
+    public LimiteTentativasFilter(LimiteTentativas limiteTentativas) {
+        this.limiteTentativas = limiteTentativas;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+
+        String cabecalho = request.getHeader(HttpHeaders.AUTHORIZATION);
+
+        if (cabecalho == null || !cabecalho.regionMatches(true, 0, PREFIXO, 0, PREFIXO.length()) || autenticado()) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        String ip = request.getRemoteAddr();
+        String usuario = usuarioDoCabecalho(cabecalho.substring(PREFIXO.length()).trim());
+
+        long espera = limiteTentativas.reservar(ip, usuario);
+
+        if (espera > 0) {
+            recusar(response, espera);
+            return;
+        }
+
+        try {
+            filterChain.doFilter(request, response);
+        } catch (SenhasIndisponiveisException e) {
+            /* O executor do BCrypt está saturado: a tentativa não foi avaliada, então a ficha é devolvida. */
+            limiteTentativas.devolver(ip, usuario);
+            indisponivel(response);
+            return;
+        }
+
+        if (autenticado())
+            limiteTentativas.devolver(ip, usuario);
+    }
+
+    /* Resposta 429 escrita direto pelo Filtro: o sendError() despacharia a requisição para /error, que exige autenticação. */
+    private static void recusar(HttpServletResponse response, long espera) throws IOException {
+
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(espera));
+        response.setContentType("text/plain;charset=UTF-8");
+        response.getWriter().write("Muitas tentativas de autenticação. Tente novamente em " + espera + " segundos.");
+    }
+
+    private static void indisponivel(HttpServletResponse response) throws IOException {
+
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(SenhasIndisponiveisException.ESPERA_SEGUNDOS));
+        response.setContentType("text/plain;charset=UTF-8");
+        response.getWriter().write("Servidor ocupado verificando senhas. Tente novamente em instantes.");
+    }
+
+    private static boolean autenticado() {
+
+        Authentication autenticacao = SecurityContextHolder.getContext().getAuthentication();
+
+        return autenticacao != null && autenticacao.isAuthenticated()
+                && !(autenticacao instanceof AnonymousAuthenticationToken);
+    }
+
+    /* O usuário é a parte antes do ":" no cabeçalho decodificado. Um cabeçalho inválido é limitado apenas pelo IP
+    (o BasicAuthenticationFilter o recusa sem executar o BCrypt). */
+    private static String usuarioDoCabecalho(String token) {
+
+        try {
+            String credenciais = new String(Base64.getDecoder().decode(token), StandardCharsets.UTF_8);
+            int separador = credenciais.indexOf(':');
+
+            return separador < 0 ? null : credenciais.substring(0, separador);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+}
@@ -0,0 +1,128 @@
+/* A Classe SenhaEncoder é o BCryptPasswordEncoder da aplicação, com a força (work factor) definida na inicialização.
+Cada ponto a mais na força dobra o tempo do BCrypt. A força pode ser fixa (blogpessoal.seguranca.bcrypt.forca) ou calibrada no
+próprio servidor: o Método calibrar() mede o BCrypt em forças crescentes e escolhe a maior força cuja verificação de uma senha
+leva no máximo blogpessoal.seguranca.bcrypt.tempo-alvo-ms (mediana de algumas medições), respeitando a força mínima e a máxima
+configuradas. A calibração é para uma única instância (desenvolvimento): instâncias atrás de um balanceador de carga podem medir
+forças diferentes, por isso em produção a força é fixa (application-prod.properties).
+
+A força fica gravada em cada hash ("$2a$10$..."), por isso hashes com qualquer força continuam sendo aceitos pelo Método matches().
+O Método upgradeEncoding() indica quais hashes devem ser trocados: depois de um login bem sucedido, a senha é criptografada
+novamente com a força atual (ver UsuarioService.autenticarUsuario e UserDetailsServiceImpl). Com a força fixa, que é a mesma em todas
+as instâncias, qualquer hash com outra força é trocado, inclusive os de força maior: assim, reduzir a força configurada (por exemplo,
+depois de um aumento que deixou o login lento demais) também alcança as senhas já gravadas. Com a força calibrada, apenas os hashes
+com força menor são trocados: duas instâncias que mediram forças diferentes trocariam os hashes uma da outra a cada login.
+
+Os Métodos encode() e matches() são executados no grupo de threads limitado da Classe ExecutorSenhas. */
+
+package com.generation.blogpessoal.security;
+
+import java.util.Arrays;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+public class SenhaEncoder extends BCryptPasswordEncoder {
+
+    private static final Logger log = LoggerFactory.getLogger(SenhaEncoder.class);
+
+    private static final Pattern FORCA_DO_HASH = Pattern.compile("^\\$2[abxy]?\\$(\\d{2})\\$");
+
+    private static final String SENHA_CALIBRACAO = "calibracao-do-bcrypt";
+
+    /* Número de verificações medidas em cada força na calibração (ímpar, para que a mediana seja uma das medições). */
+    private static final int MEDICOES = 5;
+
+    private final int forca;
+
+    /* Força definida em blogpessoal.seguranca.bcrypt.forca (true) ou medida pelo Método calibrar() (false). */
+    private final boolean forcaFixa;
+
+    private final ExecutorSenhas executorSenhas;
+
+    public SenhaEncoder(int forca, boolean forcaFixa, ExecutorSenhas executorSenhas) {
+        super(forca);
+        this.forca = forca;
+        this.forcaFixa = forcaFixa;
+        this.executorSenhas = executorSenhas;
+    }
+
+    /* O BCrypt é executado no ExecutorSenhas, com número limitado de threads, e não na thread da requisição. */
+    @Override
+    public String encode(CharSequence senha) {
+        return executorSenhas.executar(() -> super.encode(senha));
+    }
+
+    @Override
+    public boolean matches(CharSequence senha, String senhaCodificada) {
+        return executorSenhas.executar(() -> super.matches(senha, senhaCodificada));
+    }
+
+    public int getForca() {
+        return this.forca;
+    }
+
+    @Override
+    public boolean upgradeEncoding(String senhaCodificada) {
+
+        if (senhaCodificada == null)
+            return false;
+
+        Matcher forcaDoHash = FORCA_DO_HASH.matcher(senhaCodificada);
+
+        if (!forcaDoHash.find())
+            return false;
+
+        int forcaAtual = Integer.parseInt(forcaDoHash.group(1));
+
+        return forcaFixa ? forcaAtual != forca : forcaAtual < forca;
+    }
+
+    /* Mede o tempo de uma verificação em cada força, a partir da mínima, pela mediana de MEDICOES verificações: uma medição isolada
+    varia com a carga da máquina (e com o coletor de lixo) na inicialização. Como cada força custa o dobro da anterior, a medição para
+    na primeira força acima do tempo alvo e o custo total da calibração fica em torno de MEDICOES * 2 vezes o tempo alvo. */
+    public static int calibrar(long tempoAlvoMs, int forcaMinima, int forcaMaxima) {
+
+        /* Aquecimento: as primeiras execuções são interpretadas pela JVM e seriam mais lentas do que no restante da execução. */
+        BCryptPasswordEncoder aquecimento = new BCryptPasswordEncoder(4);
+        String hashAquecimento = aquecimento.encode(SENHA_CALIBRACAO);
+        for (int i = 0; i < 20; i++)
+            aquecimento.matches(SENHA_CALIBRACAO, hashAquecimento);
+
+        int escolhida = forcaMinima;
+        long tempoEscolhida = 0;
+
+        for (int forca = forcaMinima; forca <= forcaMaxima; forca++) {
+
+            BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(forca);
+            String hash = encoder.encode(SENHA_CALIBRACAO);
+
+            long[] tempos = new long[MEDICOES];
+
+            for (int i = 0; i < MEDICOES; i++) {
+                long inicio = System.nanoTime();
+                encoder.matches(SENHA_CALIBRACAO, hash);
+                tempos[i] = (System.nanoTime() - inicio) / 1_000_000;
+            }
+
+            Arrays.sort(tempos);
+            long tempoMs = tempos[MEDICOES / 2];
+
+            if (tempoMs > tempoAlvoMs && forca > forcaMinima)
+                break;
+
+            escolhida = forca;
+            tempoEscolhida = tempoMs;
+
+            if (tempoMs > tempoAlvoMs)
+                break;
+        }
+
+        log.info("BCrypt calibrado: força {} ({} ms por verificação, tempo alvo {} ms)", escolhida, tempoEscolhida, tempoAlvoMs);
+
+        return escolhida;
+    }
+
+}
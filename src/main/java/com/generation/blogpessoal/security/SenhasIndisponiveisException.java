@@ -0,0 +1,30 @@
+/* Exceção lançada pela Classe ExecutorSenhas quando o executor do BCrypt está saturado (fila cheia ou espera máxima atingida).
+Nos Controladores, o Spring a transforma na resposta 503 (Service Unavailable) com o cabeçalho Retry-After. Na autenticação
+Http Basic (fora dos Controladores), a resposta é escrita pelo Filtro LimiteTentativasFilter. */
+
+package com.generation.blogpessoal.security;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+public class SenhasIndisponiveisException extends ResponseStatusException {
+
+    private static final long serialVersionUID = 1L;
+
+    /* Segundos sugeridos ao cliente antes de uma nova tentativa. */
+    public static final long ESPERA_SEGUNDOS = 1;
+
+    public SenhasIndisponiveisException() {
+        super(HttpStatus.SERVICE_UNAVAILABLE, "Servidor ocupado verificando senhas. Tente novamente em instantes.");
+    }
+
+    @Override
+    public HttpHeaders getHeaders() {
+
+        HttpHeaders cabecalhos = new HttpHeaders();
+        cabecalhos.set(HttpHeaders.RETRY_AFTER, String.valueOf(ESPERA_SEGUNDOS));
+        return cabecalhos;
+    }
+
+}
@@ -0,0 +1,60 @@
+/* O Filtro TokenAutenticacaoFilter autentica as requisições que enviam o cabeçalho "Authorization: Bearer <token>".
+Ele só é registrado quando a propriedade blogpessoal.seguranca.autenticacao=token está ativa e convive com a autenticação
+Http Basic: requisições com o cabeçalho "Basic" continuam sendo tratadas pelo BasicAuthenticationFilter.
+Um Token com a assinatura válida também precisa ter a geração atual do Usuario (Classe TokenService): depois de uma troca de senha
+ou da exclusão do Usuario, os Tokens emitidos antes são recusados, sem esperar a expiração. */
+
+package com.generation.blogpessoal.security;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.context.RequestAttributeSecurityContextRepository;
+import org.springframework.security.web.context.SecurityContextRepository;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+public class TokenAutenticacaoFilter extends OncePerRequestFilter {
+
+    private static final String PREFIXO = "Bearer ";
+
+    private final TokenService tokenService;
+
+    private final SecurityContextRepository securityContextRepository = new RequestAttributeSecurityContextRepository();
+
+    public TokenAutenticacaoFilter(TokenService tokenService) {
+        this.tokenService = tokenService;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+
+        String cabecalho = request.getHeader(HttpHeaders.AUTHORIZATION);
+
+        if (cabecalho != null && cabecalho.regionMatches(true, 0, PREFIXO, 0, PREFIXO.length())) {
+
+            Optional<TokenService.Token> token = tokenService.validarToken(cabecalho.substring(PREFIXO.length()).trim())
+                    .filter(valido -> valido.geracao() == tokenService.geracaoAtual(valido.usuario()));
+
+            if (token.isPresent()) {
+                SecurityContext contexto = SecurityContextHolder.createEmptyContext();
+                contexto.setAuthentication(UsernamePasswordAuthenticationToken.authenticated(token.get().usuario(), null, List.of()));
+                SecurityContextHolder.setContext(contexto);
+                securityContextRepository.saveContext(contexto, request, response);
+            }
+        }
+
+        filterChain.doFilter(request, response);
+    }
+
+}
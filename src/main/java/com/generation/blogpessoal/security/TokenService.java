@@ -0,0 +1,182 @@
+/* A Classe TokenService gera e valida os Tokens assinados utilizados no modo de autenticação "token"
+(blogpessoal.seguranca.autenticacao=token). O Token tem o formato <dados>.<assinatura>, onde:
+<dados> é o usuário (e-mail), a geração do Usuario e o instante de expiração, codificados em Base64 (URL safe);
+<assinatura> é o HMAC-SHA256 dos dados, calculado com o segredo configurado em blogpessoal.seguranca.token.segredo.
+Para validar um Token basta recalcular o HMAC e conferir a data de expiração, sem BCrypt.
+
+A geração é a data da última alteração do Usuario (Atributo data). A troca de senha (UsuarioService.atualizarUsuario) muda a data e
+a exclusão apaga o Usuario: o Filtro TokenAutenticacaoFilter compara a geração do Token com a atual e recusa os Tokens emitidos antes.
+A troca do hash no login (mesma senha, outra força do BCrypt) não muda a data e mantém os Tokens. A geração atual fica em um Cache
+com a mesma expiração do Cache de credenciais (blogpessoal.seguranca.cache.expiracao-segundos), removida na troca de senha e na
+exclusão: na instância que atendeu a alteração, o Token deixa de valer na hora; nas demais, até o Cache expirar. */
+
+package com.generation.blogpessoal.security;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.ZoneOffset;
+import java.util.Base64;
+import java.util.Optional;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.generation.blogpessoal.model.Usuario;
+import com.generation.blogpessoal.repository.UsuarioRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+@Service
+public class TokenService {
+
+    private static final Logger log = LoggerFactory.getLogger(TokenService.class);
+
+    private static final String ALGORITMO = "HmacSHA256";
+
+    private static final String MODO_TOKEN = "token";
+
+    /* Geração de um usuário que não existe (apagado): nenhum Token tem esta geração. */
+    private static final long SEM_USUARIO = -1L;
+
+    private final boolean modoToken;
+
+    private final Duration expiracao;
+
+    private final SecretKeySpec chave;
+
+    private final Clock relogio = Clock.systemUTC();
+
+    private final UsuarioRepository usuarioRepository;
+
+    /* usuário (e-mail) -> geração atual */
+    private final Cache<String, Long> geracoes;
+
+    /* Usuário e geração de um Token com a assinatura conferida e ainda não expirado. */
+    public record Token(String usuario, long geracao) {
+    }
+
+    public TokenService(@Value("${blogpessoal.seguranca.autenticacao:basic}") String modoAutenticacao,
+                        @Value("${blogpessoal.seguranca.token.segredo:}") String segredo,
+                        @Value("${blogpessoal.seguranca.token.expiracao-minutos:60}") long expiracaoMinutos,
+                        @Value("${blogpessoal.seguranca.cache.tamanho-maximo:10000}") long tamanhoMaximo,
+                        @Value("${blogpessoal.seguranca.cache.expiracao-segundos:300}") long expiracaoSegundos,
+                        UsuarioRepository usuarioRepository) {
+
+        this.modoToken = MODO_TOKEN.equalsIgnoreCase(modoAutenticacao.trim());
+        this.expiracao = Duration.ofMinutes(expiracaoMinutos);
+        this.usuarioRepository = usuarioRepository;
+        this.geracoes = Caffeine.newBuilder()
+                .maximumSize(tamanhoMaximo)
+                .expireAfterWrite(Duration.ofSeconds(expiracaoSegundos))
+                .build();
+
+        byte[] bytesSegredo;
+
+        if (segredo.isBlank()) {
+            bytesSegredo = new byte[32];
+            new SecureRandom().nextBytes(bytesSegredo);
+
+            if (modoToken)
+                log.warn("blogpessoal.seguranca.token.segredo não foi definido: os Tokens emitidos deixarão de valer quando a aplicação reiniciar");
+        } else {
+            bytesSegredo = segredo.getBytes(StandardCharsets.UTF_8);
+        }
+
+        this.chave = new SecretKeySpec(bytesSegredo, ALGORITMO);
+    }
+
+    public boolean isModoToken() {
+        return modoToken;
+    }
+
+    /* O Usuario deve ter sido lido do Banco de dados (login): a geração é a data gravada, com a mesma precisão da consulta do
+    Método geracaoAtual(). */
+    public String gerarToken(Usuario usuario) {
+
+        long expiraEm = relogio.instant().plus(expiracao).getEpochSecond();
+        String dados = codificar((usuario.getUsuario() + ":" + geracao(usuario) + ":" + expiraEm).getBytes(StandardCharsets.UTF_8));
+
+        return dados + "." + codificar(assinar(dados));
+    }
+
+    /* Retorna o usuário (e-mail) e a geração do Token, caso a assinatura confira e o Token não esteja expirado. A geração ainda
+    precisa ser comparada com a atual (Método geracaoAtual()). */
+    public Optional<Token> validarToken(String token) {
+
+        int separador = token.indexOf('.');
+
+        if (separador <= 0 || separador != token.lastIndexOf('.'))
+            return Optional.empty();
+
+        String dados = token.substring(0, separador);
+
+        try {
+            byte[] assinatura = Base64.getUrlDecoder().decode(token.substring(separador + 1));
+
+            if (!MessageDigest.isEqual(assinar(dados), assinatura))
+                return Optional.empty();
+
+            String conteudo = new String(Base64.getUrlDecoder().decode(dados), StandardCharsets.UTF_8);
+            int divisor = conteudo.lastIndexOf(':');
+            int divisorGeracao = divisor <= 0 ? -1 : conteudo.lastIndexOf(':', divisor - 1);
+
+            if (divisorGeracao <= 0)
+                return Optional.empty();
+
+            long expiraEm = Long.parseLong(conteudo.substring(divisor + 1));
+
+            if (relogio.instant().getEpochSecond() >= expiraEm)
+                return Optional.empty();
+
+            return Optional.of(new Token(conteudo.substring(0, divisorGeracao),
+                    Long.parseLong(conteudo.substring(divisorGeracao + 1, divisor))));
+
+        } catch (IllegalArgumentException e) {
+            return Optional.empty();
+        }
+    }
+
+    /* Geração atual do usuário, lida do primário (findParaAutenticacao) quando não está no Cache. Se a geração for removida
+    (Método invalidar()) durante a leitura, o Cache aguarda a leitura terminar e a remove em seguida: o valor antigo não fica
+    guardado. */
+    public long geracaoAtual(String usuario) {
+        return geracoes.get(usuario, chave -> usuarioRepository.findParaAutenticacao(chave)
+                .map(TokenService::geracao)
+                .orElse(SEM_USUARIO));
+    }
+
+    /* Chamado depois do commit da troca de senha ou da exclusão do Usuario, junto com CredenciaisCache.invalidar(). */
+    public void invalidar(String usuario) {
+        geracoes.invalidate(usuario);
+    }
+
+    /* Data da última alteração em milissegundos, ou 0 para os Usuários sem data (gravados antes da migração V3). */
+    private static long geracao(Usuario usuario) {
+        return usuario.getData() == null ? 0L : usuario.getData().toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    private byte[] assinar(String dados) {
+
+        try {
+            Mac mac = Mac.getInstance(ALGORITMO);
+            mac.init(chave);
+            return mac.doFinal(dados.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Não foi possível assinar o Token", e);
+        }
+    }
+
+    private static String codificar(byte[] bytes) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+}
@@ -28,8 +28,13 @@ public class UserDetailsImpl implements UserDetails {
     private List<GrantedAuthority> authorities;
 
     public UserDetailsImpl(Usuario user) {
+        this(user, List.of());
+    }
+
+    public UserDetailsImpl(Usuario user, List<GrantedAuthority> authorities) {
         this.userName = user.getUsuario();
         this.password = user.getSenha();
+        this.authorities = authorities;
     }
 
     public UserDetailsImpl() {
@@ -82,6 +87,7 @@ public class UserDetailsImpl implements UserDetails {
 /* isEnabled(): Indica se o usuário está ativo. Um usuário ativo não pode ser autenticado (return false). */
 }
 
-/* Observe que o Método getAuthorities(), que retorna a lista com os direitos de acesso do usuário, sempre retornará uma List vazia,
-porquê este Atributo não pode ser Nulo. Com o objetivo de simplificar a nossa implementação,
-todo o Usuário autenticado terá todos os direitos de acesso sobre a aplicação. */
\ No newline at end of file
+/* Observe que o Método getAuthorities(), que retorna a lista com os direitos de acesso do usuário, retornará uma List vazia para
+quase todos os usuários, porquê este Atributo não pode ser Nulo. Com o objetivo de simplificar a nossa implementação,
+todo o Usuário autenticado terá todos os direitos de acesso sobre a aplicação, exceto as métricas e os diagnósticos, que exigem o
+direito ROLE_MONITORAMENTO (ver a Classe UserDetailsServiceImpl). */
\ No newline at end of file
@@ -1,10 +1,16 @@
 package com.generation.blogpessoal.security;
 
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
@@ -14,19 +20,50 @@ import com.generation.blogpessoal.model.Usuario;
 import com.generation.blogpessoal.repository.UsuarioRepository;
 
 @Service
-public class UserDetailsServiceImpl implements UserDetailsService {
+public class UserDetailsServiceImpl implements UserDetailsService, UserDetailsPasswordService {
+
+    /* Direito de acesso às métricas (/actuator) e aos endpoints de diagnóstico (Classe BasicSecurityConfig). */
+    public static final String MONITORAMENTO = "MONITORAMENTO";
 
     @Autowired
     private UsuarioRepository usuarioRepository;
 
+    /* E-mails dos usuários que recebem o direito MONITORAMENTO (por exemplo, o usuário do Prometheus). */
+    @Value("${blogpessoal.seguranca.monitoramento.usuarios:}")
+    private Set<String> usuariosMonitoramento;
+
     @Override
     public UserDetails loadUserByUsername(String userName) throws UsernameNotFoundException {
 
-        Optional<Usuario> usuario = usuarioRepository.findByUsuario(userName);
+        Optional<Usuario> usuario = usuarioRepository.findParaAutenticacao(userName);
 
         if (usuario.isPresent())
-            return new UserDetailsImpl(usuario.get());
+            return new UserDetailsImpl(usuario.get(), direitos(usuario.get()));
         else
             throw new ResponseStatusException(HttpStatus.FORBIDDEN);
     }
+
+    /* Chamado pela Spring Security depois de uma autenticação Http Basic bem sucedida, quando o hash da senha foi gerado com uma
+    força do BCrypt diferente da atual (SenhaEncoder.upgradeEncoding). A senha já chega criptografada com a força atual. */
+    @Override
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+
+        Optional<Usuario> usuario = usuarioRepository.findParaAutenticacao(user.getUsername());
+
+        if (usuario.isEmpty())
+            return user;
+
+        usuarioRepository.atualizarSenha(usuario.get().getId(), newPassword);
+        usuario.get().setSenha(newPassword);
+
+        return new UserDetailsImpl(usuario.get(), direitos(usuario.get()));
+    }
+
+    private List<GrantedAuthority> direitos(Usuario usuario) {
+
+        if (usuariosMonitoramento.contains(usuario.getUsuario()))
+            return List.of(new SimpleGrantedAuthority("ROLE_" + MONITORAMENTO));
+
+        return List.of();
+    }
 }
\ No newline at end of file
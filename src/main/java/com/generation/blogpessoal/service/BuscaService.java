@@ -0,0 +1,242 @@
+/* A Classe BuscaService mantém em memória um índice invertido (termo -> Postagens que contêm o termo) dos Atributos titulo e texto
+das Postagens. A consulta "titulo LIKE '%x%'" obriga o Banco de dados a ler a tabela inteira, enquanto o índice invertido encontra as
+Postagens de cada termo diretamente.
+Os textos são quebrados em termos (tokenizar), convertidos para minúsculas e sem acentos ("Programação" e "programacao" são o mesmo termo).
+O índice é reconstruído a partir do Banco de dados quando a aplicação inicia, antes de o servidor web aceitar requisições (nenhuma
+busca vê o índice incompleto e nenhuma gravação concorre com a reconstrução), e é atualizado pela Classe PostagemController a cada
+post, put e delete. Como ele não depende de recursos do Banco de dados, funciona da mesma forma no MySQL (dev) e no PostgreSQL (prod). */
+
+package com.generation.blogpessoal.service;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+import com.generation.blogpessoal.model.Postagem;
+import com.generation.blogpessoal.repository.PostagemRepository;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+@Service
+public class BuscaService implements SmartInitializingSingleton {
+
+    private static final Logger log = LoggerFactory.getLogger(BuscaService.class);
+
+    private static final Pattern ACENTOS = Pattern.compile("\\p{M}+");
+
+    /* Letras e números de qualquer alfabeto: ø, ß, ł e os caracteres não latinos, que não se decompõem em letra + acento, continuam
+    no termo (o \p{Alnum} só reconhece letras e números ASCII). */
+    private static final Pattern SEPARADORES = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private static final Set<String> PALAVRAS_IGNORADAS = Set.of(
+            "de", "da", "do", "das", "dos", "em", "no", "na", "nos", "nas", "um", "uma", "uns", "umas",
+            "os", "as", "para", "pra", "por", "com", "que", "se", "ao", "aos");
+
+    /* Um termo encontrado no titulo vale mais do que o mesmo termo encontrado no texto. */
+    private static final int PESO_TITULO = 3;
+
+    private static final int TAMANHO_LOTE = 500;
+
+    @Autowired
+    private PostagemRepository postagemRepository;
+
+    @Value("${blogpessoal.busca.reconstruir-ao-iniciar:true}")
+    private boolean reconstruirAoIniciar;
+
+    private final ReentrantReadWriteLock trava = new ReentrantReadWriteLock();
+
+    /* termo -> (id da Postagem -> peso do termo na Postagem) */
+    private final Map<String, Map<Long, Integer>> indice = new HashMap<>();
+
+    /* id da Postagem -> termos indexados, utilizado para remover a Postagem do índice sem percorrer todos os termos. */
+    private final Map<Long, Set<String>> termosPorPostagem = new HashMap<>();
+
+    /* Chamado depois da criação dos Beans e antes da inicialização do servidor web, como na Classe EstatisticasService. */
+    @Override
+    public void afterSingletonsInstantiated() {
+
+        if (reconstruirAoIniciar)
+            reconstruir();
+    }
+
+    /* Com a aplicação recebendo requisições, um lote lido antes de uma gravação poderia ser indexado depois dela e trazer de volta o
+    texto antigo ou uma Postagem apagada: a reconstrução só é chamada na inicialização. */
+    private void reconstruir() {
+
+        long inicio = System.currentTimeMillis();
+        long ultimoId = 0L;
+        int total = 0;
+        List<Postagem> lote;
+
+        /* As Postagens são lidas em lotes (por id) para que a reconstrução não carregue a tabela inteira na memória. */
+        do {
+            lote = postagemRepository.findAllByIdGreaterThanOrderByIdAsc(ultimoId, PageRequest.of(0, TAMANHO_LOTE));
+
+            for (Postagem postagem : lote) {
+                indexar(postagem);
+                ultimoId = postagem.getId();
+            }
+
+            total += lote.size();
+
+        } while (lote.size() == TAMANHO_LOTE);
+
+        log.info("Índice de busca reconstruído com {} Postagens em {} ms", total, System.currentTimeMillis() - inicio);
+    }
+
+    public void indexar(Postagem postagem) {
+
+        Map<String, Integer> pesos = new HashMap<>();
+
+        for (String termo : tokenizar(postagem.getTitulo()))
+            pesos.merge(termo, PESO_TITULO, Integer::sum);
+
+        for (String termo : tokenizar(postagem.getTexto()))
+            pesos.merge(termo, 1, Integer::sum);
+
+        trava.writeLock().lock();
+
+        try {
+            removerSemTrava(postagem.getId());
+
+            pesos.forEach((termo, peso) -> indice.computeIfAbsent(termo, t -> new HashMap<>()).put(postagem.getId(), peso));
+            termosPorPostagem.put(postagem.getId(), new HashSet<>(pesos.keySet()));
+        } finally {
+            trava.writeLock().unlock();
+        }
+    }
+
+    public void remover(Long id) {
+
+        trava.writeLock().lock();
+
+        try {
+            removerSemTrava(id);
+        } finally {
+            trava.writeLock().unlock();
+        }
+    }
+
+    /* Retorna os ids das Postagens que contêm todos os termos da consulta, ordenados por relevância (TF-IDF):
+    termos raros pesam mais do que termos que aparecem em muitas Postagens. */
+    public List<Long> buscar(String consulta) {
+
+        Set<String> termos = new HashSet<>(tokenizar(consulta));
+
+        if (termos.isEmpty())
+            return List.of();
+
+        trava.readLock().lock();
+
+        try {
+            List<Map<Long, Integer>> postagensPorTermo = new ArrayList<>();
+
+            for (String termo : termos) {
+                Map<Long, Integer> postagens = indice.get(termo);
+
+                if (postagens == null)
+                    return List.of();
+
+                postagensPorTermo.add(postagens);
+            }
+
+            /* Começa pelo termo mais raro, assim a interseção percorre o menor número possível de Postagens. */
+            postagensPorTermo.sort(Comparator.comparingInt(Map::size));
+
+            double totalPostagens = termosPorPostagem.size();
+            Map<Long, Double> relevancia = new LinkedHashMap<>();
+
+            postagensPorTermo.get(0).keySet().forEach(id -> relevancia.put(id, 0.0));
+
+            for (Map<Long, Integer> postagens : postagensPorTermo) {
+
+                double idf = Math.log(1.0 + totalPostagens / postagens.size());
+
+                relevancia.keySet().retainAll(postagens.keySet());
+                relevancia.replaceAll((id, pontos) -> pontos + idf * (1.0 + Math.log(postagens.get(id))));
+            }
+
+            List<Long> resultado = new ArrayList<>(relevancia.keySet());
+            resultado.sort(Comparator.comparingDouble((Long id) -> relevancia.get(id)).reversed()
+                    .thenComparing(Comparator.reverseOrder()));
+
+            return resultado;
+
+        } finally {
+            trava.readLock().unlock();
+        }
+    }
+
+    public int quantidadeTermos() {
+
+        trava.readLock().lock();
+
+        try {
+            return indice.size();
+        } finally {
+            trava.readLock().unlock();
+        }
+    }
+
+    public int quantidadePostagens() {
+
+        trava.readLock().lock();
+
+        try {
+            return termosPorPostagem.size();
+        } finally {
+            trava.readLock().unlock();
+        }
+    }
+
+    static List<String> tokenizar(String texto) {
+
+        List<String> termos = new ArrayList<>();
+
+        if (texto == null)
+            return termos;
+
+        String normalizado = ACENTOS.matcher(Normalizer.normalize(texto, Normalizer.Form.NFD))
+                .replaceAll("")
+                .toLowerCase(Locale.ROOT);
+
+        for (String termo : SEPARADORES.split(normalizado)) {
+            if (termo.length() > 1 && !PALAVRAS_IGNORADAS.contains(termo))
+                termos.add(termo);
+        }
+
+        return termos;
+    }
+
+    private void removerSemTrava(Long id) {
+
+        Set<String> termos = termosPorPostagem.remove(id);
+
+        if (termos == null)
+            return;
+
+        for (String termo : termos) {
+            Map<Long, Integer> postagens = indice.get(termo);
+            postagens.remove(id);
+
+            if (postagens.isEmpty())
+                indice.remove(termo);
+        }
+    }
+
+}
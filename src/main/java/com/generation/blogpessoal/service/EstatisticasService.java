@@ -0,0 +1,256 @@
+/* A Classe EstatisticasService mantém em memória, para cada Tema, a quantidade de Postagens, a data da Postagem mais recente e uma
+estimativa de quantos autores diferentes escreveram no Tema (Classe HyperLogLog), e, para cada Usuario, a quantidade de Postagens e a
+data da mais recente. Os painéis liam a listagem completa de Temas (/temas?completo=true), que carrega e serializa todas as Postagens
+só para contá-las; as estatísticas são lidas da memória, sem nenhuma instrução SQL, com custo proporcional ao número de Temas.
+
+As estatísticas são reconstruídas a partir do Banco de dados quando a aplicação inicia, antes de o servidor web aceitar requisições
+(lendo apenas as Chaves Estrangeiras e a data de cada Postagem, em lotes), e atualizadas a cada Postagem criada, atualizada ou apagada
+(Classes PostagemController, PostagemIngestaoService e ExclusaoService). Para descontar uma Postagem apagada ou que mudou de Tema, o
+Tema e o Usuario anteriores são lidos do Banco de dados na mesma transação da alteração (PostagemRepository.findReferencia): a memória
+ocupada é proporcional ao número de Temas e de Usuários, e não ao de Postagens.
+
+As quantidades são exatas. A estimativa de autores e a data da Postagem mais recente só crescem: ao apagar Postagens, elas continuam
+contando os autores e a data das Postagens apagadas até a próxima reconstrução (o Tema sem nenhuma Postagem é removido das
+estatísticas). Cada instância da aplicação mantém as suas estatísticas com as gravações que ela mesma recebeu. */
+
+package com.generation.blogpessoal.service;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import com.generation.blogpessoal.model.Postagem;
+import com.generation.blogpessoal.model.PostagemReferencia;
+import com.generation.blogpessoal.repository.PostagemRepository;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+@Service
+public class EstatisticasService implements SmartInitializingSingleton {
+
+    private static final Logger log = LoggerFactory.getLogger(EstatisticasService.class);
+
+    private static final int TAMANHO_LOTE = 1000;
+
+    @Autowired
+    private PostagemRepository postagemRepository;
+
+    @Value("${blogpessoal.estatisticas.reconstruir-ao-iniciar:true}")
+    private boolean reconstruirAoIniciar;
+
+    private final ReentrantReadWriteLock trava = new ReentrantReadWriteLock();
+
+    private Estatisticas estatisticas = new Estatisticas();
+
+    /* Chamado depois da criação dos Beans e antes da inicialização do servidor web: nenhuma Postagem é gravada durante a
+    reconstrução. */
+    @Override
+    public void afterSingletonsInstantiated() {
+
+        if (reconstruirAoIniciar)
+            reconstruir();
+    }
+
+    /* As estatísticas novas são montadas fora da trava e substituem as atuais de uma vez: as leituras continuam sendo atendidas
+    durante a reconstrução. As gravações feitas durante a reconstrução podem ser perdidas: com a aplicação recebendo requisições, a
+    reconstrução só deve ser chamada em manutenção (ou nos testes). */
+    public void reconstruir() {
+
+        long inicio = System.currentTimeMillis();
+        Estatisticas novas = new Estatisticas();
+        long ultimoId = 0L;
+        long total = 0L;
+        List<PostagemReferencia> lote;
+
+        do {
+            lote = postagemRepository.findReferencias(ultimoId, PageRequest.of(0, TAMANHO_LOTE));
+
+            for (PostagemReferencia postagem : lote) {
+                novas.contar(postagem.getTemaId(), postagem.getUsuarioId(), postagem.getData());
+                ultimoId = postagem.getId();
+            }
+
+            total += lote.size();
+
+        } while (lote.size() == TAMANHO_LOTE);
+
+        trava.writeLock().lock();
+
+        try {
+            estatisticas = novas;
+        } finally {
+            trava.writeLock().unlock();
+        }
+
+        log.info("Estatísticas reconstruídas com {} Postagens em {} ms", total,
+                System.currentTimeMillis() - inicio);
+    }
+
+    /* Registra uma Postagem criada. */
+    public void registrar(Postagem postagem) {
+
+        trava.writeLock().lock();
+
+        try {
+            estatisticas.contar(temaId(postagem), usuarioId(postagem), postagem.getData());
+        } finally {
+            trava.writeLock().unlock();
+        }
+    }
+
+    /* Registra uma Postagem atualizada: a Postagem é contada no Tema e no Usuario atuais e descontada dos anteriores (lidos do Banco
+    de dados antes da atualização). Ela é descontada depois de contada: se continua no mesmo Tema, o Tema não chega a zero e não perde
+    a estimativa de autores. */
+    public void atualizar(PostagemReferencia anterior, Postagem postagem) {
+
+        trava.writeLock().lock();
+
+        try {
+            estatisticas.contar(temaId(postagem), usuarioId(postagem), postagem.getData());
+            estatisticas.descontar(anterior.getTemaId(), anterior.getUsuarioId());
+        } finally {
+            trava.writeLock().unlock();
+        }
+    }
+
+    /* Desconta uma Postagem apagada do Tema e do Usuario lidos do Banco de dados antes da exclusão. */
+    public void remover(PostagemReferencia anterior) {
+
+        trava.writeLock().lock();
+
+        try {
+            estatisticas.descontar(anterior.getTemaId(), anterior.getUsuarioId());
+        } finally {
+            trava.writeLock().unlock();
+        }
+    }
+
+    /* Estatísticas de cada Tema com Postagens, ordenadas pelo id do Tema. */
+    public Map<Long, Map<String, Object>> temas() {
+
+        trava.readLock().lock();
+
+        try {
+            Map<Long, Map<String, Object>> resposta = new TreeMap<>();
+
+            estatisticas.temas.forEach((id, tema) -> {
+                Map<String, Object> valores = new LinkedHashMap<>();
+                valores.put("postagens", tema.postagens);
+                valores.put("ultimaPostagem", tema.ultimaPostagem);
+                valores.put("autoresDistintos", tema.autores.estimar());
+                resposta.put(id, valores);
+            });
+
+            return resposta;
+        } finally {
+            trava.readLock().unlock();
+        }
+    }
+
+    /* Estatísticas de cada Usuario com Postagens, ordenadas pelo id do Usuario. */
+    public Map<Long, Map<String, Object>> usuarios() {
+
+        trava.readLock().lock();
+
+        try {
+            Map<Long, Map<String, Object>> resposta = new TreeMap<>();
+
+            estatisticas.usuarios.forEach((id, usuario) -> {
+                Map<String, Object> valores = new LinkedHashMap<>();
+                valores.put("postagens", usuario.postagens);
+                valores.put("ultimaPostagem", usuario.ultimaPostagem);
+                resposta.put(id, valores);
+            });
+
+            return resposta;
+        } finally {
+            trava.readLock().unlock();
+        }
+    }
+
+    private static Long temaId(Postagem postagem) {
+        return postagem.getTema() == null ? null : postagem.getTema().getId();
+    }
+
+    private static Long usuarioId(Postagem postagem) {
+        return postagem.getUsuario() == null ? null : postagem.getUsuario().getId();
+    }
+
+    private static final class EstatisticaTema {
+
+        private long postagens;
+
+        private LocalDateTime ultimaPostagem;
+
+        private final HyperLogLog autores = new HyperLogLog();
+
+    }
+
+    private static final class EstatisticaUsuario {
+
+        private long postagens;
+
+        private LocalDateTime ultimaPostagem;
+
+    }
+
+    /* Estado das estatísticas, acessado com a trava (ou, durante a reconstrução, apenas pela thread que reconstrói). */
+    private static final class Estatisticas {
+
+        private final Map<Long, EstatisticaTema> temas = new HashMap<>();
+
+        private final Map<Long, EstatisticaUsuario> usuarios = new HashMap<>();
+
+        /* Tema e Usuario podem ser nulos. */
+        void contar(Long temaId, Long usuarioId, LocalDateTime data) {
+
+            if (temaId != null) {
+                EstatisticaTema tema = temas.computeIfAbsent(temaId, chave -> new EstatisticaTema());
+                tema.postagens++;
+                tema.ultimaPostagem = maisRecente(tema.ultimaPostagem, data);
+
+                if (usuarioId != null)
+                    tema.autores.adicionar(usuarioId);
+            }
+
+            if (usuarioId != null) {
+                EstatisticaUsuario usuario = usuarios.computeIfAbsent(usuarioId, chave -> new EstatisticaUsuario());
+                usuario.postagens++;
+                usuario.ultimaPostagem = maisRecente(usuario.ultimaPostagem, data);
+            }
+        }
+
+        void descontar(Long temaId, Long usuarioId) {
+
+            if (temaId != null) {
+                EstatisticaTema tema = temas.get(temaId);
+
+                if (tema != null && --tema.postagens <= 0)
+                    temas.remove(temaId);
+            }
+
+            if (usuarioId != null) {
+                EstatisticaUsuario usuario = usuarios.get(usuarioId);
+
+                if (usuario != null && --usuario.postagens <= 0)
+                    usuarios.remove(usuarioId);
+            }
+        }
+
+        private static LocalDateTime maisRecente(LocalDateTime atual, LocalDateTime data) {
+            return atual == null || data != null && data.isAfter(atual) ? data : atual;
+        }
+
+    }
+
+}
@@ -0,0 +1,377 @@
+/* A Classe ExclusaoService apaga um Tema ou um Usuario junto com as suas Postagens. Antes, o cascade = CascadeType.REMOVE fazia o
+Hibernate carregar todas as Postagens na memória e executar um delete por Postagem (e um select de cada Postagem antes): um Tema
+com 100.000 Postagens significava 100.000 Entidades no contexto de persistência e centenas de milhares de instruções SQL.
+
+Agora a exclusão executa uma instrução por tabela, sem carregar nenhuma Entidade:
+1) select dos ids, Temas e Usuários das Postagens (para removê-las do índice de busca da Classe BuscaService e descontá-las das
+   estatísticas da Classe EstatisticasService), limitado a blogpessoal.exclusao.limite-sincrono + 1;
+2) delete from tb_postagem where tema_id = ? (ou usuario_id = ?);
+3) delete from tb_temas where id = ? (ou tb_usuarios), que retorna 0 se o registro não existe;
+4) update tb_exclusoes, o contador de exclusões que muda o ETag das listagens (Classe VersaoService).
+Tudo na mesma transação, no primário (TransactionTemplate de leitura e escrita). Se o passo 2 apagar mais Postagens do que os ids
+lidos no passo 1 (Postagens gravadas entre os dois), a transação é desfeita e repetida, para que nenhuma Postagem apagada continue
+no índice de busca. Depois de TENTATIVAS transações desfeitas (Postagens gravadas sem parar no Tema ou pelo Usuario), a exclusão é
+agendada, como a de um Tema com muitas Postagens, e a requisição não fica presa repetindo a transação. A exclusão de uma única Postagem (excluirPostagem) segue o mesmo caminho: select da Postagem e delete.
+
+Se o Tema ou o Usuario tiver mais Postagens do que blogpessoal.exclusao.limite-sincrono, a exclusão é agendada em uma thread
+própria e a requisição responde 202 (Accepted) na hora: um único delete de milhões de linhas manteria os bloqueios e o log de
+transações do Banco de dados ocupados por muito tempo. A thread apaga as Postagens em lotes de blogpessoal.exclusao.tamanho-lote,
+uma transação por lote, e o último lote também apaga o Tema ou o Usuario (com as Postagens criadas durante a exclusão). O andamento
+fica disponível em /temas/{id}/exclusao e /usuarios/{id}/exclusao. */
+
+package com.generation.blogpessoal.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+import com.generation.blogpessoal.model.PostagemReferencia;
+import com.generation.blogpessoal.repository.PostagemRepository;
+import com.generation.blogpessoal.repository.TemaRepository;
+import com.generation.blogpessoal.repository.UsuarioRepository;
+import com.generation.blogpessoal.security.CredenciaisCache;
+import com.generation.blogpessoal.security.TokenService;
+
+import jakarta.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@Service
+public class ExclusaoService {
+
+    private static final Logger log = LoggerFactory.getLogger(ExclusaoService.class);
+
+    /* Por quanto tempo o andamento de uma exclusão concluída continua disponível para consulta. */
+    private static final Duration RETENCAO = Duration.ofHours(1);
+
+    /* Transações da exclusão síncrona desfeitas por Postagens gravadas durante a exclusão antes de ela ser agendada. */
+    private static final int TENTATIVAS = 3;
+
+    public enum Resultado { NAO_ENCONTRADO, EXCLUIDO, AGENDADO }
+
+    public enum Situacao { EM_ANDAMENTO, CONCLUIDA, FALHA }
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private PostagemRepository postagemRepository;
+
+    @Autowired
+    private TemaRepository temaRepository;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @Autowired
+    private BuscaService buscaService;
+
+    @Autowired
+    private TemaService temaService;
+
+    @Autowired
+    private EstatisticasService estatisticasService;
+
+    @Autowired
+    private VersaoService versaoService;
+
+    @Autowired
+    private CredenciaisCache credenciaisCache;
+
+    @Autowired
+    private TokenService tokenService;
+
+    @Value("${blogpessoal.exclusao.limite-sincrono:10000}")
+    private int limiteSincrono;
+
+    @Value("${blogpessoal.exclusao.tamanho-lote:1000}")
+    private int tamanhoLote;
+
+    /* Uma única thread: as exclusões agendadas são executadas uma de cada vez, para não disputar o Banco de dados entre si. */
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(tarefa -> {
+        Thread thread = new Thread(tarefa, "exclusao");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Map<String, Progresso> exclusoes = new ConcurrentHashMap<>();
+
+    /* Apaga uma Postagem: o Tema e o Usuario são lidos (e a linha bloqueada) antes do delete, para que a Postagem seja descontada
+    das estatísticas depois do commit. Retorna false se a Postagem não existe. */
+    public boolean excluirPostagem(Long id) {
+
+        Optional<PostagemReferencia> apagada = transactionTemplate.execute(status -> {
+
+            Optional<PostagemReferencia> referencia = postagemRepository.findReferencia(id);
+            referencia.ifPresent(postagem -> {
+                postagemRepository.apagar(id);
+                versaoService.registrarExclusao(List.of(VersaoService.POSTAGENS));
+            });
+
+            return referencia;
+        });
+
+        apagada.ifPresent(postagem -> {
+            buscaService.remover(postagem.getId());
+            estatisticasService.remover(postagem);
+            temaService.invalidarResumos();
+        });
+
+        return apagada.isPresent();
+    }
+
+    /* O Tema apagado sai dos dois Caches da Classe TemaService (existência e listagem). */
+    public Resultado excluirTema(Long id) {
+        return excluir(new Alvo("tema", VersaoService.TEMAS, id, postagemRepository::findReferenciasByTema, postagemRepository::apagarPorTema,
+                temaRepository::apagar, temaId -> Optional.empty(), temaService::invalidarTemas));
+    }
+
+    /* As Postagens do Usuario apagado mudam a quantidade de Postagens na listagem de Temas guardada em Cache. */
+    public Resultado excluirUsuario(Long id) {
+        return excluir(new Alvo("usuario", VersaoService.USUARIOS, id, postagemRepository::findReferenciasByUsuario,
+                postagemRepository::apagarPorUsuario, usuarioRepository::apagar, usuarioRepository::findUsuarioById,
+                temaService::invalidarResumos));
+    }
+
+    /* Andamento da última exclusão agendada do Tema, ou vazio se nenhuma exclusão foi agendada (ou se ela terminou há mais de
+    uma hora). */
+    public Optional<Map<String, Object>> andamentoTema(Long id) {
+        return andamento("tema", id);
+    }
+
+    public Optional<Map<String, Object>> andamentoUsuario(Long id) {
+        return andamento("usuario", id);
+    }
+
+    @PreDestroy
+    public void encerrar() {
+        executor.shutdownNow();
+    }
+
+    private Resultado excluir(Alvo alvo) {
+
+        Progresso emAndamento = exclusoes.get(alvo.chave());
+
+        if (emAndamento != null && emAndamento.situacao == Situacao.EM_ANDAMENTO)
+            return Resultado.AGENDADO;
+
+        Exclusao exclusao = null;
+
+        for (int tentativa = 0; tentativa < TENTATIVAS && exclusao == null; tentativa++) {
+            exclusao = transactionTemplate.execute(status -> {
+
+                List<PostagemReferencia> postagens = alvo.postagens().apply(alvo.id(), PageRequest.of(0, limiteSincrono + 1));
+
+                if (postagens.size() > limiteSincrono)
+                    return new Exclusao(Resultado.AGENDADO, List.of(), Optional.empty());
+
+                Optional<String> email = alvo.email().apply(alvo.id());
+
+                if (alvo.apagarPostagens().apply(alvo.id()) != postagens.size()) {
+                    status.setRollbackOnly();
+                    return null;
+                }
+
+                if (alvo.apagar().apply(alvo.id()) == 0)
+                    return new Exclusao(Resultado.NAO_ENCONTRADO, List.of(), Optional.empty());
+
+                versaoService.registrarExclusao(alvo.tabelas(postagens, true));
+
+                return new Exclusao(Resultado.EXCLUIDO, postagens, email);
+            });
+        }
+
+        if (exclusao == null) {
+            log.info("Exclusão de {} desfeita {} vezes por Postagens gravadas durante a exclusão", alvo.chave(), TENTATIVAS);
+            exclusao = new Exclusao(Resultado.AGENDADO, List.of(), Optional.empty());
+        }
+
+        /* O índice de busca, o Cache de credenciais e as estatísticas só mudam depois do commit: se a transação falhar (por exemplo,
+        com uma Postagem gravada no Tema durante a exclusão), as Postagens continuam no Banco de dados e também na memória. */
+        if (exclusao.resultado() == Resultado.EXCLUIDO) {
+            remover(exclusao.postagens());
+            exclusao.email().ifPresent(this::invalidarCredenciais);
+            alvo.invalidarCaches().run();
+        }
+
+        if (exclusao.resultado() == Resultado.AGENDADO)
+            agendar(alvo);
+
+        return exclusao.resultado();
+    }
+
+    private void agendar(Alvo alvo) {
+
+        Instant limite = Instant.now().minus(RETENCAO);
+        exclusoes.values().removeIf(progresso -> progresso.fim != null && progresso.fim.isBefore(limite));
+
+        Progresso progresso = new Progresso();
+
+        /* Duas requisições DELETE ao mesmo tempo agendam uma única exclusão. */
+        if (exclusoes.merge(alvo.chave(), progresso,
+                (anterior, novo) -> anterior.situacao == Situacao.EM_ANDAMENTO ? anterior : novo) != progresso)
+            return;
+
+        log.info("Exclusão de {} agendada: mais de {} Postagens", alvo.chave(), limiteSincrono);
+
+        executor.execute(() -> {
+            try {
+                apagarEmLotes(alvo, progresso);
+                progresso.fim = Instant.now();
+                progresso.situacao = Situacao.CONCLUIDA;
+                log.info("Exclusão de {} concluída: {} Postagens apagadas", alvo.chave(), progresso.postagensApagadas.sum());
+            } catch (RuntimeException e) {
+                progresso.erro = e.getMessage();
+                progresso.fim = Instant.now();
+                progresso.situacao = Situacao.FALHA;
+                log.error("Falha na exclusão de {} depois de {} Postagens apagadas", alvo.chave(),
+                        progresso.postagensApagadas.sum(), e);
+            }
+        });
+    }
+
+    /* Cada lote é uma transação curta: os ids (com o Tema e o Usuario) de até tamanho-lote Postagens e um delete ... where id in (...). Se a thread falhar
+    no meio, as Postagens dos lotes anteriores continuam apagadas e uma nova exclusão continua de onde parou.
+    O último lote (com menos de tamanho-lote Postagens) também apaga o Tema ou o Usuario, com um delete pela Chave Estrangeira que
+    alcança as Postagens gravadas depois do select. Se esse delete apagar mais Postagens do que as lidas, a transação é desfeita e o
+    lote é repetido: assim, toda Postagem apagada também sai do índice de busca. */
+    private void apagarEmLotes(Alvo alvo, Progresso progresso) {
+
+        Pageable lote = PageRequest.of(0, tamanhoLote);
+        Optional<String> email = alvo.email().apply(alvo.id());
+
+        while (true) {
+
+            Lote apagado = transactionTemplate.execute(status -> {
+                List<PostagemReferencia> selecionados = alvo.postagens().apply(alvo.id(), lote);
+
+                if (selecionados.size() == tamanhoLote) {
+                    postagemRepository.apagarPorIds(selecionados.stream().map(PostagemReferencia::getId).toList());
+                    versaoService.registrarExclusao(alvo.tabelas(selecionados, false));
+                    return new Lote(selecionados, false);
+                }
+
+                if (alvo.apagarPostagens().apply(alvo.id()) != selecionados.size()) {
+                    status.setRollbackOnly();
+                    return new Lote(List.of(), false);
+                }
+
+                alvo.apagar().apply(alvo.id());
+                versaoService.registrarExclusao(alvo.tabelas(selecionados, true));
+                return new Lote(selecionados, true);
+            });
+
+            remover(apagado.postagens());
+            progresso.postagensApagadas.add(apagado.postagens().size());
+            temaService.invalidarResumos();
+
+            if (apagado.ultimo())
+                break;
+        }
+
+        email.ifPresent(this::invalidarCredenciais);
+        alvo.invalidarCaches().run();
+    }
+
+    /* O Usuario apagado deixa de ser aceito pelo Cache de credenciais (Http Basic) e pelos Tokens assinados já emitidos. */
+    private void invalidarCredenciais(String email) {
+        credenciaisCache.invalidar(email);
+        tokenService.invalidar(email);
+    }
+
+    /* Remove as Postagens apagadas do índice de busca e das estatísticas, depois do commit. */
+    private void remover(List<PostagemReferencia> postagens) {
+
+        postagens.forEach(postagem -> {
+            buscaService.remover(postagem.getId());
+            estatisticasService.remover(postagem);
+        });
+    }
+
+    private Optional<Map<String, Object>> andamento(String tipo, Long id) {
+        return Optional.ofNullable(exclusoes.get(tipo + "-" + id)).map(Progresso::resumo);
+    }
+
+    /* O que muda entre a exclusão de um Tema e a de um Usuario: as consultas e instruções de cada um, o e-mail, que precisa ser
+    removido do Cache de credenciais (Classe CredenciaisCache) depois que o Usuario é apagado, os Caches de Temas descartados e a
+    tabela do contador de exclusões (Classe VersaoService). */
+    private record Alvo(String tipo, String tabela, Long id,
+                        BiFunction<Long, Pageable, List<PostagemReferencia>> postagens,
+                        Function<Long, Integer> apagarPostagens,
+                        Function<Long, Integer> apagar,
+                        Function<Long, Optional<String>> email,
+                        Runnable invalidarCaches) {
+
+        String chave() {
+            return tipo + "-" + id;
+        }
+
+        /* Tabelas com registros apagados: as Postagens, se houver, e o próprio Tema ou Usuario. */
+        List<String> tabelas(List<PostagemReferencia> postagens, boolean apagado) {
+
+            List<String> tabelas = new ArrayList<>();
+
+            if (!postagens.isEmpty())
+                tabelas.add(VersaoService.POSTAGENS);
+
+            if (apagado)
+                tabelas.add(tabela);
+
+            return tabelas;
+        }
+
+    }
+
+    /* Resultado da transação da exclusão síncrona, com o que precisa ser removido da memória depois do commit. */
+    private record Exclusao(Resultado resultado, List<PostagemReferencia> postagens, Optional<String> email) {
+    }
+
+    /* Postagens apagadas em um lote e se o lote também apagou o Tema ou o Usuario. */
+    private record Lote(List<PostagemReferencia> postagens, boolean ultimo) {
+    }
+
+    /* Andamento de uma exclusão agendada, atualizado pela thread de exclusão e lido pelas requisições. */
+    private static final class Progresso {
+
+        private final Instant inicio = Instant.now();
+
+        private final LongAdder postagensApagadas = new LongAdder();
+
+        private volatile Situacao situacao = Situacao.EM_ANDAMENTO;
+
+        private volatile Instant fim;
+
+        private volatile String erro;
+
+        Map<String, Object> resumo() {
+
+            Map<String, Object> resumo = new LinkedHashMap<>();
+            resumo.put("situacao", situacao);
+            resumo.put("postagensApagadas", postagensApagadas.sum());
+            resumo.put("inicio", inicio.toString());
+            resumo.put("fim", fim == null ? null : fim.toString());
+            resumo.put("erro", erro);
+
+            return resumo;
+        }
+
+    }
+
+}
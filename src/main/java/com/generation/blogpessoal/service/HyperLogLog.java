@@ -0,0 +1,66 @@
+/* A Classe HyperLogLog estima quantos valores distintos foram adicionados (aqui, quantos autores diferentes escreveram em um Tema)
+com memória fixa: 2^PRECISAO registradores de um byte (1 KB), seja qual for a quantidade de valores. O erro padrão da estimativa é
+de 1,04 / sqrt(2^PRECISAO), cerca de 3% (abaixo de algumas centenas de valores a correção para poucos valores deixa a estimativa
+praticamente exata).
+
+Cada valor é espalhado por uma função de hash de 64 bits: os primeiros PRECISAO bits escolhem o registrador e o registrador guarda
+a maior posição do primeiro bit 1 encontrada nos bits restantes. Não é possível remover um valor: a estimativa só é corrigida quando
+as estatísticas são reconstruídas (Classe EstatisticasService). Não é thread-safe: o acesso é protegido por quem a utiliza. */
+
+package com.generation.blogpessoal.service;
+
+public final class HyperLogLog {
+
+    private static final int PRECISAO = 10;
+
+    private static final int REGISTRADORES = 1 << PRECISAO;
+
+    /* Constante de correção do viés do estimador para 1024 registradores (alfa = 0,7213 / (1 + 1,079 / m)). */
+    private static final double ALFA = 0.7213 / (1 + 1.079 / REGISTRADORES);
+
+    private final byte[] registradores = new byte[REGISTRADORES];
+
+    public void adicionar(long valor) {
+
+        long hash = espalhar(valor);
+
+        int indice = (int) (hash >>> (Long.SIZE - PRECISAO));
+        /* Posição do primeiro bit 1 nos 54 bits restantes (o bit de parada garante um valor mesmo se todos forem 0). */
+        int posicao = Long.numberOfLeadingZeros((hash << PRECISAO) | (1L << (PRECISAO - 1))) + 1;
+
+        if (posicao > registradores[indice])
+            registradores[indice] = (byte) posicao;
+    }
+
+    public long estimar() {
+
+        double soma = 0;
+        int zerados = 0;
+
+        for (byte registrador : registradores) {
+            soma += 1.0 / (1L << registrador);
+
+            if (registrador == 0)
+                zerados++;
+        }
+
+        double estimativa = ALFA * REGISTRADORES * REGISTRADORES / soma;
+
+        /* Com poucos valores muitos registradores continuam zerados, e a contagem linear (linear counting) é mais precisa. */
+        if (estimativa <= 2.5 * REGISTRADORES && zerados > 0)
+            estimativa = REGISTRADORES * Math.log((double) REGISTRADORES / zerados);
+
+        return Math.round(estimativa);
+    }
+
+    /* Finalizador do SplitMix64: ids sequenciais (1, 2, 3...) viram hashes com os bits bem distribuídos. */
+    private static long espalhar(long valor) {
+
+        long hash = valor + 0x9E3779B97F4A7C15L;
+        hash = (hash ^ (hash >>> 30)) * 0xBF58476D1CE4E5B9L;
+        hash = (hash ^ (hash >>> 27)) * 0x94D049BB133111EBL;
+
+        return hash ^ (hash >>> 31);
+    }
+
+}
@@ -0,0 +1,113 @@
+/* A Classe PaginacaoService concentra as regras da paginação por cursor (keyset pagination) utilizada pelos endpoints de listagem.
+Ao invés de OFFSET (que obriga o Banco de dados a ler e descartar todas as linhas das páginas anteriores), o cursor guarda a chave
+do último registro devolvido e a próxima consulta continua a partir dela (WHERE chave < cursor). Assim, a página 1000 custa o mesmo
+que a primeira página. O cursor é codificado em Base64 para que o cliente o trate como um valor opaco. */
+
+package com.generation.blogpessoal.service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+import com.generation.blogpessoal.model.Pagina;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+@Service
+public class PaginacaoService {
+
+    private static final String SEPARADOR = "|";
+
+    @Value("${blogpessoal.paginacao.tamanho-padrao:20}")
+    private int tamanhoPadrao;
+
+    @Value("${blogpessoal.paginacao.tamanho-maximo:100}")
+    private int tamanhoMaximo;
+
+    /* Retorna o tamanho da página respeitando o limite máximo configurado no servidor. */
+    public int tamanho(Integer tamanhoSolicitado) {
+
+        if (tamanhoSolicitado == null)
+            return Math.min(tamanhoPadrao, tamanhoMaximo);
+
+        if (tamanhoSolicitado < 1)
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "O tamanho da página deve ser maior do que zero!", null);
+
+        return Math.min(tamanhoSolicitado, tamanhoMaximo);
+    }
+
+    /* Busca um registro a mais do que o tamanho da página, apenas para saber se existe uma próxima página. */
+    public Pageable limite(int tamanho) {
+        return PageRequest.of(0, tamanho + 1);
+    }
+
+    public <T> Pagina<T> montarPagina(List<T> registros, int tamanho, Function<T, String> cursorDoRegistro) {
+
+        if (registros.size() <= tamanho)
+            return new Pagina<>(registros, null);
+
+        List<T> conteudo = registros.subList(0, tamanho);
+
+        return new Pagina<>(conteudo, cursorDoRegistro.apply(conteudo.get(tamanho - 1)));
+    }
+
+    public String codificarCursor(Long id) {
+        return codificar(String.valueOf(id));
+    }
+
+    public String codificarCursor(LocalDateTime data, Long id) {
+        return codificar(data + SEPARADOR + id);
+    }
+
+    public Long idDoCursor(String cursor) {
+
+        String conteudo = decodificar(cursor);
+
+        try {
+            return Long.valueOf(conteudo.substring(conteudo.lastIndexOf(SEPARADOR) + 1));
+        } catch (NumberFormatException e) {
+            throw cursorInvalido();
+        }
+    }
+
+    public LocalDateTime dataDoCursor(String cursor) {
+
+        String conteudo = decodificar(cursor);
+        int separador = conteudo.indexOf(SEPARADOR);
+
+        if (separador < 0)
+            throw cursorInvalido();
+
+        try {
+            return LocalDateTime.parse(conteudo.substring(0, separador));
+        } catch (DateTimeParseException e) {
+            throw cursorInvalido();
+        }
+    }
+
+    private String codificar(String conteudo) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(conteudo.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String decodificar(String cursor) {
+
+        try {
+            return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw cursorInvalido();
+        }
+    }
+
+    private ResponseStatusException cursorInvalido() {
+        return new ResponseStatusException(HttpStatus.BAD_REQUEST, "Cursor inválido!", null);
+    }
+
+}
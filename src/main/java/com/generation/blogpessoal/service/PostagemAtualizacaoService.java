@@ -0,0 +1,67 @@
+/* A Classe PostagemAtualizacaoService grava a atualização de uma Postagem (PUT) com uma única instrução update, condicionada à versão
+da Postagem (controle de concorrência otimista). O save() da Interface JpaRepository carrega a Postagem antes de atualizá-la (merge) e
+grava por cima de qualquer alteração feita por outra pessoa depois que o cliente leu a Postagem.
+
+A versão esperada vem do cabeçalho If-Match ou do Atributo versao do corpo (ver VersaoService.condicao()). Se a instrução update não
+alterar nenhuma linha, uma segunda consulta diferencia a Postagem inexistente (404) da versão desatualizada (409 ou 412). Sem nenhuma
+versão informada, a atualização é gravada sem condição e a nova versão é consultada para ser devolvida ao cliente.
+Antes do update, o Tema e o Usuario anteriores da Postagem são lidos (e a linha bloqueada), para que a Classe EstatisticasService
+desconte a Postagem do Tema e do Usuario que ela deixou. Se a Postagem não existir, a resposta é 404 sem executar o update.
+Todas as consultas são executadas na mesma transação, no Banco de dados primário. */
+
+package com.generation.blogpessoal.service;
+
+import java.time.LocalDateTime;
+
+import com.generation.blogpessoal.model.Postagem;
+import com.generation.blogpessoal.model.PostagemReferencia;
+import com.generation.blogpessoal.repository.PostagemRepository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+@Service
+public class PostagemAtualizacaoService {
+
+    @Autowired
+    private PostagemRepository postagemRepository;
+
+    @Autowired
+    private TemaService temaService;
+
+    /* Devolve a Postagem recebida com a nova versão e a data da alteração, sem consultar o Tema e o Usuario (o corpo da resposta
+    traz os mesmos Objetos enviados pelo cliente), junto com o Tema e o Usuario que a Postagem tinha antes. */
+    @Transactional
+    public Atualizacao atualizar(Postagem postagem, VersaoService.Condicao condicao) {
+
+        if (postagem.getId() == null)
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND);
+
+        PostagemReferencia anterior = postagemRepository.findReferencia(postagem.getId())
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
+
+        LocalDateTime data = LocalDateTime.now();
+
+        int alteradas = postagemRepository.atualizar(postagem.getId(), condicao.versao(), postagem.getTitulo(),
+                postagem.getTexto(), temaService.referencia(postagem.getTema().getId()), postagem.getUsuario(), data);
+
+        /* A linha está bloqueada desde o select: se ela não foi alterada, a versão mudou. */
+        if (alteradas == 0)
+            throw new ResponseStatusException(condicao.conflito(),
+                    "A Postagem foi alterada por outra requisição. Consulte a versão atual e tente novamente.", null);
+
+        postagem.setData(data);
+        postagem.setVersao(condicao.versao() != null ? condicao.versao() + 1
+                : postagemRepository.findVersao(postagem.getId()).orElse(null));
+
+        return new Atualizacao(postagem, anterior);
+    }
+
+    /* Postagem gravada e o Tema e o Usuario que ela tinha antes da atualização. */
+    public record Atualizacao(Postagem postagem, PostagemReferencia anterior) {
+    }
+
+}
@@ -0,0 +1,167 @@
+/* A Classe PostagemExportacaoService exporta todas as Postagens nos formatos NDJSON (uma Postagem em JSON por linha) ou CSV.
+Ao invés de montar uma List com todas as Postagens, a consulta devolve um Stream lido do Banco de dados aos poucos (fetch size) e cada
+linha é escrita na resposta assim que é lida. Assim, a memória utilizada é a mesma para mil ou para um milhão de Postagens e o cliente
+começa a receber os dados imediatamente.
+A transação é somente leitura (readOnly): o Hibernate não guarda cópias das linhas para verificar alterações e o PostgreSQL só utiliza
+o fetch size (cursor no servidor) dentro de uma transação. No MySQL, o fetch size depende da opção useCursorFetch=true na URL. */
+
+package com.generation.blogpessoal.service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.stream.Stream;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.generation.blogpessoal.model.PostagemExportacao;
+import com.generation.blogpessoal.repository.PostagemRepository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+@Service
+public class PostagemExportacaoService {
+
+    /* A cada INTERVALO_ENVIO linhas o conteúdo escrito é enviado ao cliente (flush). */
+    private static final int INTERVALO_ENVIO = 500;
+
+    private static final String CABECALHO_CSV = "id,titulo,texto,data,tema_id,tema_descricao,usuario_id,usuario_nome";
+
+    public enum Formato {
+
+        NDJSON("application/x-ndjson", "ndjson"),
+        CSV("text/csv;charset=UTF-8", "csv");
+
+        private final String tipoConteudo;
+        private final String extensao;
+
+        Formato(String tipoConteudo, String extensao) {
+            this.tipoConteudo = tipoConteudo;
+            this.extensao = extensao;
+        }
+
+        public String getTipoConteudo() {
+            return this.tipoConteudo;
+        }
+
+        public String getExtensao() {
+            return this.extensao;
+        }
+
+    }
+
+    @Autowired
+    private PostagemRepository postagemRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    public Formato formato(String formato) {
+
+        try {
+            return Formato.valueOf(formato.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Formato inválido! Utilize ndjson ou csv.", null);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public long exportar(Formato formato, OutputStream saida) throws IOException {
+
+        try (Stream<PostagemExportacao> postagens = postagemRepository.streamExportacao()) {
+
+            return switch (formato) {
+                case NDJSON -> exportarNdjson(postagens.iterator(), saida);
+                case CSV -> exportarCsv(postagens.iterator(), saida);
+            };
+        }
+    }
+
+    private long exportarNdjson(Iterator<PostagemExportacao> postagens, OutputStream saida) throws IOException {
+
+        long total = 0;
+
+        /* O SequenceWriter escreve um Objeto JSON por linha. AUTO_CLOSE_TARGET desabilitado: quem fecha a resposta é o Spring. */
+        try (SequenceWriter escritor = objectMapper.writer()
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .withRootValueSeparator("\n")
+                .writeValues(saida)) {
+
+            while (postagens.hasNext()) {
+                escritor.write(postagens.next());
+
+                if (++total % INTERVALO_ENVIO == 1)
+                    escritor.flush();
+            }
+
+            if (total > 0)
+                saida.write('\n');
+        }
+
+        saida.flush();
+        return total;
+    }
+
+    private long exportarCsv(Iterator<PostagemExportacao> postagens, OutputStream saida) throws IOException {
+
+        long total = 0;
+
+        Writer escritor = new BufferedWriter(new OutputStreamWriter(saida, StandardCharsets.UTF_8));
+        escritor.write(CABECALHO_CSV);
+        escritor.write("\r\n");
+
+        while (postagens.hasNext()) {
+
+            PostagemExportacao postagem = postagens.next();
+
+            escritor.write(campoCsv(postagem.getId()));
+            escritor.write(',');
+            escritor.write(campoCsv(postagem.getTitulo()));
+            escritor.write(',');
+            escritor.write(campoCsv(postagem.getTexto()));
+            escritor.write(',');
+            escritor.write(campoCsv(postagem.getData()));
+            escritor.write(',');
+            escritor.write(campoCsv(postagem.getTemaId()));
+            escritor.write(',');
+            escritor.write(campoCsv(postagem.getTemaDescricao()));
+            escritor.write(',');
+            escritor.write(campoCsv(postagem.getUsuarioId()));
+            escritor.write(',');
+            escritor.write(campoCsv(postagem.getUsuarioNome()));
+            escritor.write("\r\n");
+
+            if (++total % INTERVALO_ENVIO == 1)
+                escritor.flush();
+        }
+
+        escritor.flush();
+        return total;
+    }
+
+    /* Escreve o valor no padrão CSV (RFC 4180): valores com vírgula, aspas ou quebra de linha ficam entre aspas
+    e as aspas do próprio valor são duplicadas. */
+    static String campoCsv(Object valor) {
+
+        if (valor == null)
+            return "";
+
+        String texto = valor.toString();
+
+        if (texto.indexOf(',') < 0 && texto.indexOf('"') < 0 && texto.indexOf('\n') < 0 && texto.indexOf('\r') < 0)
+            return texto;
+
+        return '"' + texto.replace("\"", "\"\"") + '"';
+    }
+
+}
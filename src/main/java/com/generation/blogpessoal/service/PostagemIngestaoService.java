@@ -0,0 +1,307 @@
+/* A Classe PostagemIngestaoService faz a carga em lote de Postagens enviadas no formato NDJSON (uma Postagem em JSON por linha).
+O corpo da requisição é lido linha a linha (sem carregar o arquivo inteiro na memória) e cada linha é validada com as mesmas regras
+do Model Postagem (@NotBlank, @Size). As linhas válidas são agrupadas em lotes de blogpessoal.ingestao.tamanho-lote e, para cada lote:
+1) os Temas e Usuários referenciados são verificados em uma única consulta (e não uma consulta por linha);
+2) as Postagens são gravadas com um único PreparedStatement em modo batch (addBatch/executeBatch), em uma transação por lote.
+
+O id da Postagem é gerado pelo Banco de dados (GenerationType.IDENTITY). Com IDENTITY o Hibernate precisa executar cada INSERT
+separadamente para descobrir o id, por isso a ingestão utiliza o JDBC diretamente e lê os ids gerados com getGeneratedKeys().
+Com rewriteBatchedStatements (MySQL) e reWriteBatchedInserts (PostgreSQL) o driver envia o lote inteiro em poucos INSERTs com vários VALUES.
+
+Uma linha inválida é rejeitada e descrita no resultado, sem interromper a carga. Se o Banco de dados recusar um lote, o lote é dividido
+ao meio e cada metade é gravada de novo, até isolar as linhas recusadas: apenas elas são rejeitadas. */
+
+package com.generation.blogpessoal.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.generation.blogpessoal.model.ErroIngestao;
+import com.generation.blogpessoal.model.Postagem;
+import com.generation.blogpessoal.model.ResultadoIngestao;
+import com.generation.blogpessoal.repository.TemaRepository;
+import com.generation.blogpessoal.repository.UsuarioRepository;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@Service
+public class PostagemIngestaoService {
+
+    private static final Logger log = LoggerFactory.getLogger(PostagemIngestaoService.class);
+
+    private static final String INSERT = "insert into tb_postagem (titulo, texto, data, tema_id, usuario_id) values (?, ?, ?, ?, ?)";
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private Validator validator;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private TemaRepository temaRepository;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @Autowired
+    private BuscaService buscaService;
+
+    @Autowired
+    private EstatisticasService estatisticasService;
+
+    @Autowired
+    private TemaService temaService;
+
+    @Value("${blogpessoal.ingestao.tamanho-lote:500}")
+    private int tamanhoLote;
+
+    @Value("${blogpessoal.ingestao.maximo-erros:100}")
+    private int maximoErros;
+
+    public ResultadoIngestao importar(InputStream corpo) throws IOException {
+
+        ResultadoIngestao resultado = new ResultadoIngestao();
+        List<LinhaIngestao> lote = new ArrayList<>(tamanhoLote);
+
+        BufferedReader leitor = new BufferedReader(new InputStreamReader(corpo, StandardCharsets.UTF_8));
+        String conteudo;
+        long numero = 0;
+
+        while ((conteudo = leitor.readLine()) != null) {
+
+            numero++;
+
+            if (conteudo.isBlank())
+                continue;
+
+            resultado.setLinhas(resultado.getLinhas() + 1);
+
+            Postagem postagem = ler(numero, conteudo, resultado);
+
+            if (postagem == null)
+                continue;
+
+            lote.add(new LinhaIngestao(numero, postagem));
+
+            if (lote.size() == tamanhoLote) {
+                gravar(lote, resultado);
+                lote.clear();
+            }
+        }
+
+        gravar(lote, resultado);
+
+        if (resultado.getInseridas() > 0)
+            temaService.invalidarResumos();
+
+        return resultado;
+    }
+
+    /* Converte e valida uma linha. Retorna nulo (e registra o erro) se a linha for inválida. */
+    private Postagem ler(long numero, String conteudo, ResultadoIngestao resultado) {
+
+        Postagem postagem;
+
+        try {
+            postagem = objectMapper.readValue(conteudo, Postagem.class);
+        } catch (JsonProcessingException e) {
+            rejeitar(resultado, numero, "JSON inválido: " + e.getOriginalMessage());
+            return null;
+        }
+
+        if (postagem == null) {
+            rejeitar(resultado, numero, "A linha não contém uma Postagem!");
+            return null;
+        }
+
+        Set<ConstraintViolation<Postagem>> violacoes = validator.validate(postagem);
+
+        if (!violacoes.isEmpty()) {
+            rejeitar(resultado, numero, violacoes.stream()
+                    .map(violacao -> violacao.getPropertyPath() + ": " + violacao.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining("; ")));
+            return null;
+        }
+
+        if (postagem.getTema() == null || postagem.getTema().getId() == null) {
+            rejeitar(resultado, numero, "tema: O id do Tema é obrigatório!");
+            return null;
+        }
+
+        return postagem;
+    }
+
+    private void gravar(List<LinhaIngestao> lote, ResultadoIngestao resultado) {
+
+        if (lote.isEmpty())
+            return;
+
+        /* Os Temas e Usuários distintos do lote são verificados com uma consulta cada, ao invés de uma consulta por linha. */
+        Set<Long> temas = new HashSet<>(temaRepository.findIdsExistentes(lote.stream()
+                .map(linha -> linha.postagem().getTema().getId())
+                .collect(Collectors.toSet())));
+
+        Set<Long> idsUsuarios = lote.stream()
+                .map(linha -> idDoUsuario(linha.postagem()))
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+
+        Set<Long> usuarios = idsUsuarios.isEmpty()
+                ? Set.of()
+                : new HashSet<>(usuarioRepository.findIdsExistentes(idsUsuarios));
+
+        List<LinhaIngestao> validas = new ArrayList<>(lote.size());
+
+        for (LinhaIngestao linha : lote) {
+
+            Long idUsuario = idDoUsuario(linha.postagem());
+
+            if (!temas.contains(linha.postagem().getTema().getId()))
+                rejeitar(resultado, linha.numero(), "tema: O Tema " + linha.postagem().getTema().getId() + " não existe!");
+            else if (idUsuario != null && !usuarios.contains(idUsuario))
+                rejeitar(resultado, linha.numero(), "usuario: O Usuario " + idUsuario + " não existe!");
+            else
+                validas.add(linha);
+        }
+
+        if (validas.isEmpty())
+            return;
+
+        List<LinhaIngestao> inseridas = inserirOuDividir(validas, resultado);
+
+        resultado.setInseridas(resultado.getInseridas() + inseridas.size());
+
+        /* O índice de busca e as estatísticas só são atualizados depois que a transação do lote foi confirmada. */
+        inseridas.stream()
+                .map(LinhaIngestao::postagem)
+                .filter(postagem -> postagem.getId() != null)
+                .forEach(postagem -> {
+                    buscaService.indexar(postagem);
+                    estatisticasService.registrar(postagem);
+                });
+    }
+
+    /* Grava as linhas em uma transação e retorna as linhas gravadas. Se o Banco de dados recusar a transação, as duas metades são
+    gravadas separadamente (e divididas de novo, se preciso): com k linhas recusadas em um lote de n linhas, são cerca de 2·k·log2(n)
+    transações a mais, ao invés de n transações de uma linha. A linha recusada sozinha é rejeitada com a mensagem do Banco de dados. */
+    private List<LinhaIngestao> inserirOuDividir(List<LinhaIngestao> linhas, ResultadoIngestao resultado) {
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> inserir(linhas));
+            return linhas;
+        } catch (DataAccessException e) {
+
+            /* Os ids lidos antes de a transação falhar foram desfeitos junto com ela. */
+            linhas.forEach(linha -> linha.postagem().setId(null));
+
+            if (linhas.size() == 1) {
+                log.warn("Linha {} recusada pelo Banco de dados: {}", linhas.get(0).numero(),
+                        e.getMostSpecificCause().getMessage());
+                rejeitar(resultado, linhas.get(0).numero(),
+                        "Linha recusada pelo Banco de dados: " + e.getMostSpecificCause().getMessage());
+                return List.of();
+            }
+
+            log.debug("Lote de {} Postagens recusado pelo Banco de dados (linhas {} a {}), gravando em duas partes", linhas.size(),
+                    linhas.get(0).numero(), linhas.get(linhas.size() - 1).numero());
+
+            int meio = linhas.size() / 2;
+            List<LinhaIngestao> inseridas = new ArrayList<>(inserirOuDividir(linhas.subList(0, meio), resultado));
+            inseridas.addAll(inserirOuDividir(linhas.subList(meio, linhas.size()), resultado));
+
+            return inseridas;
+        }
+    }
+
+    private void inserir(List<LinhaIngestao> lote) {
+
+        Timestamp agora = Timestamp.valueOf(LocalDateTime.now());
+
+        jdbcTemplate.execute((ConnectionCallback<Void>) conexao -> {
+
+            try (PreparedStatement instrucao = conexao.prepareStatement(INSERT, new String[] {"id"})) {
+
+                for (LinhaIngestao linha : lote) {
+                    Postagem postagem = linha.postagem();
+                    Long idUsuario = idDoUsuario(postagem);
+
+                    instrucao.setString(1, postagem.getTitulo());
+                    instrucao.setString(2, postagem.getTexto());
+                    instrucao.setTimestamp(3, agora);
+                    instrucao.setLong(4, postagem.getTema().getId());
+
+                    if (idUsuario == null)
+                        instrucao.setNull(5, Types.BIGINT);
+                    else
+                        instrucao.setLong(5, idUsuario);
+
+                    instrucao.addBatch();
+                }
+
+                instrucao.executeBatch();
+
+                /* Os ids gerados voltam na mesma ordem das linhas do lote. */
+                try (ResultSet ids = instrucao.getGeneratedKeys()) {
+                    for (LinhaIngestao linha : lote) {
+                        if (!ids.next())
+                            break;
+
+                        linha.postagem().setId(ids.getLong(1));
+                        linha.postagem().setData(agora.toLocalDateTime());
+                    }
+                }
+            }
+
+            return null;
+        });
+    }
+
+    private void rejeitar(ResultadoIngestao resultado, long numero, String mensagem) {
+
+        resultado.setRejeitadas(resultado.getRejeitadas() + 1);
+
+        if (resultado.getErros().size() < maximoErros)
+            resultado.getErros().add(new ErroIngestao(numero, mensagem));
+    }
+
+    private static Long idDoUsuario(Postagem postagem) {
+        return postagem.getUsuario() == null ? null : postagem.getUsuario().getId();
+    }
+
+    private record LinhaIngestao(long numero, Postagem postagem) { }
+
+}
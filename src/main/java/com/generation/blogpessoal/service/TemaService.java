@@ -0,0 +1,152 @@
+/* A Classe TemaService é a camada de Cache dos Temas. Os Temas quase nunca mudam, mas a Classe PostagemController verifica se o
+Tema existe a cada post e put de Postagem, e a listagem de Temas é consultada o tempo todo. Por isso, estas consultas são guardadas
+em memória (@Cacheable) e o Cache é apagado (@CacheEvict) sempre que um Tema é criado, atualizado ou apagado.
+As leituras marcadas com @Transactional(readOnly = true) podem ser atendidas pela réplica de leitura (Classe DataSourceRoteado).
+A listagem de Temas também mostra a quantidade de Postagens de cada Tema, por isso ela é apagada do Cache quando uma Postagem muda. */
+
+package com.generation.blogpessoal.service;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import com.generation.blogpessoal.model.Tema;
+import com.generation.blogpessoal.model.TemaResumo;
+import com.generation.blogpessoal.repository.TemaRepository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+@Service
+public class TemaService {
+
+    public static final String CACHE_TEMA_EXISTE = "temaExiste";
+
+    public static final String CACHE_TEMA_RESUMOS = "temaResumos";
+
+    @Autowired
+    private TemaRepository temaRepository;
+
+    @Autowired
+    private PaginacaoService paginacaoService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    /* Consulta o primário (transação de leitura e escrita): o resultado decide se uma Postagem pode ser gravada, e um Tema recém
+    criado pode ainda não ter chegado à réplica. */
+    @Cacheable(cacheNames = CACHE_TEMA_EXISTE, key = "#id", condition = "#id != null")
+    @Transactional
+    public boolean existePorId(Long id) {
+        return id != null && temaRepository.existsById(id);
+    }
+
+    /* Confere a existência do Tema no Banco de dados, sem o Cache, e guarda o resultado no Cache. Utilizado quando a gravação de uma
+    Postagem é recusada pela Chave Estrangeira do Tema: o Cache pode ter um Tema apagado por outra instância da aplicação (ou apagado
+    entre o commit e a remoção do Cache). */
+    @CachePut(cacheNames = CACHE_TEMA_EXISTE, key = "#id", condition = "#id != null")
+    @Transactional
+    public boolean confirmarExistencia(Long id) {
+        return id != null && temaRepository.existsById(id);
+    }
+
+    /* Retorna a página de resumos com um registro a mais (PaginacaoService.limite()), que indica se existe uma próxima página. */
+    @Cacheable(cacheNames = CACHE_TEMA_RESUMOS, key = "#ultimoId + ':' + #tamanho")
+    @Transactional(readOnly = true)
+    public List<TemaResumo> listarResumos(Long ultimoId, int tamanho) {
+        return temaRepository.findResumos(ultimoId, paginacaoService.limite(tamanho));
+    }
+
+    /* Referência ao Tema (um proxy do Hibernate, sem consultar o Banco de dados) para gravar a Chave Estrangeira de uma Postagem.
+    O Tema recebido no JSON da Postagem ({"id": 1}) não tem a versão e, por causa da anotação @Version, o Hibernate o considera um
+    Tema novo (transient) e recusa a gravação. */
+    public Tema referencia(Long id) {
+        return temaRepository.getReferenceById(id);
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<Tema> buscarPorId(Long id) {
+        return temaRepository.findById(id);
+    }
+
+    @CacheEvict(cacheNames = {CACHE_TEMA_EXISTE, CACHE_TEMA_RESUMOS}, allEntries = true)
+    @Transactional
+    public Tema salvar(Tema tema) {
+        return temaRepository.save(tema);
+    }
+
+    /* Atualização condicionada à versão do Tema, em uma única instrução update (como na Classe PostagemAtualizacaoService).
+    Apenas a listagem é apagada do Cache: a atualização não muda a existência do Tema. */
+    @CacheEvict(cacheNames = CACHE_TEMA_RESUMOS, allEntries = true)
+    @Transactional
+    public Tema atualizar(Tema tema, VersaoService.Condicao condicao) {
+
+        if (tema.getId() == null)
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND);
+
+        LocalDateTime data = LocalDateTime.now();
+
+        if (temaRepository.atualizar(tema.getId(), condicao.versao(), tema.getDescricao(), data) == 0) {
+
+            if (!temaRepository.existsById(tema.getId()))
+                throw new ResponseStatusException(HttpStatus.NOT_FOUND);
+
+            throw new ResponseStatusException(condicao.conflito(),
+                    "O Tema foi alterado por outra requisição. Consulte a versão atual e tente novamente.", null);
+        }
+
+        tema.setData(data);
+        tema.setVersao(condicao.versao() != null ? condicao.versao() + 1 : temaRepository.findVersao(tema.getId()).orElse(null));
+
+        return tema;
+    }
+
+    @CacheEvict(cacheNames = {CACHE_TEMA_EXISTE, CACHE_TEMA_RESUMOS}, allEntries = true)
+    public void invalidarTemas() {
+        /* Chamado pela Classe ExclusaoService depois de apagar um Tema com as suas Postagens. */
+    }
+
+    @CacheEvict(cacheNames = CACHE_TEMA_RESUMOS, allEntries = true)
+    public void invalidarResumos() {
+        /* Chamado pela Classe PostagemController quando uma Postagem é criada, atualizada ou apagada. */
+    }
+
+    /* Retorna os acertos, as falhas e a taxa de acerto de cada Cache de Temas. Se o Cache estiver desabilitado
+    (spring.cache.type=none), o Map é devolvido vazio. */
+    public Map<String, Map<String, Number>> estatisticas() {
+
+        Map<String, Map<String, Number>> resposta = new LinkedHashMap<>();
+
+        for (String nome : List.of(CACHE_TEMA_EXISTE, CACHE_TEMA_RESUMOS)) {
+
+            if (cacheManager.getCache(nome) instanceof CaffeineCache cache) {
+
+                CacheStats estatisticas = cache.getNativeCache().stats();
+
+                Map<String, Number> valores = new LinkedHashMap<>();
+                valores.put("acertos", estatisticas.hitCount());
+                valores.put("falhas", estatisticas.missCount());
+                valores.put("taxaAcerto", estatisticas.hitRate());
+                valores.put("remocoes", estatisticas.evictionCount());
+                valores.put("tamanho", cache.getNativeCache().estimatedSize());
+
+                resposta.put(nome, valores);
+            }
+        }
+
+        return resposta;
+    }
+
+}
@@ -10,12 +10,15 @@ import java.util.Optional;
 import com.generation.blogpessoal.model.Usuario;
 import com.generation.blogpessoal.model.UsuarioLogin;
 import com.generation.blogpessoal.repository.UsuarioRepository;
+import com.generation.blogpessoal.security.CredenciaisCache;
+import com.generation.blogpessoal.security.TokenService;
 
 import org.apache.commons.codec.binary.Base64;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.server.ResponseStatusException;
 
 @Service
@@ -24,20 +27,44 @@ public class UsuarioService {
     @Autowired
     private UsuarioRepository usuarioRepository;
 
+    @Autowired
+    private CredenciaisCache credenciaisCache;
+
+    @Autowired
+    private TokenService tokenService;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
     public Optional<Usuario> cadastrarUsuario(Usuario usuario) {
 
-        if (usuarioRepository.findByUsuario(usuario.getUsuario()).isPresent())
-            return Optional.empty();
+        String senha = criptografarSenha(usuario.getSenha());
+
+        return transactionTemplate.execute(status -> {
+
+            if (usuarioRepository.findByUsuario(usuario.getUsuario()).isPresent())
+                return Optional.empty();
 
-        usuario.setSenha(criptografarSenha(usuario.getSenha()));
+            usuario.setSenha(senha);
 
-        return Optional.of(usuarioRepository.save(usuario));
+            return Optional.of(usuarioRepository.save(usuario));
+        });
 
     }
 
     public Optional<Usuario> atualizarUsuario(Usuario usuario) {
 
-        if(usuarioRepository.findById(usuario.getId()).isPresent()) {
+        String senha = criptografarSenha(usuario.getSenha());
+
+        Optional<Atualizacao> atualizacao = transactionTemplate.execute(status -> {
+
+            Optional<Usuario> usuarioAtual = usuarioRepository.findById(usuario.getId());
+
+            if (usuarioAtual.isEmpty())
+                return Optional.empty();
 
             Optional<Usuario> buscaUsuario = usuarioRepository.findByUsuario(usuario.getUsuario());
 
@@ -45,28 +72,41 @@ public class UsuarioService {
                 throw new ResponseStatusException(
                         HttpStatus.BAD_REQUEST, "Usuário já existe!", null);
 
-            usuario.setSenha(criptografarSenha(usuario.getSenha()));
+            String usuarioAnterior = usuarioAtual.get().getUsuario();
 
-            return Optional.ofNullable(usuarioRepository.save(usuario));
+            usuario.setSenha(senha);
 
-        }
+            return Optional.of(new Atualizacao(usuarioRepository.save(usuario), usuarioAnterior));
+        });
 
-        return Optional.empty();
+        atualizacao.ifPresent(atualizado -> {
+            credenciaisCache.invalidar(atualizado.usuarioAnterior());
+            credenciaisCache.invalidar(atualizado.usuario().getUsuario());
+            tokenService.invalidar(atualizado.usuarioAnterior());
+            tokenService.invalidar(atualizado.usuario().getUsuario());
+        });
+
+        return atualizacao.map(Atualizacao::usuario);
 
     }
 
     public Optional<UsuarioLogin> autenticarUsuario(Optional<UsuarioLogin> usuarioLogin) {
 
-        Optional<Usuario> usuario = usuarioRepository.findByUsuario(usuarioLogin.get().getUsuario());
+        Optional<Usuario> usuario = usuarioRepository.findParaAutenticacao(usuarioLogin.get().getUsuario());
 
         if (usuario.isPresent()) {
 
             if (compararSenhas(usuarioLogin.get().getSenha(), usuario.get().getSenha())) {
 
+                if (passwordEncoder.upgradeEncoding(usuario.get().getSenha())) {
+                    usuario.get().setSenha(criptografarSenha(usuarioLogin.get().getSenha()));
+                    usuarioRepository.atualizarSenha(usuario.get().getId(), usuario.get().getSenha());
+                }
+
                 usuarioLogin.get().setId(usuario.get().getId());
                 usuarioLogin.get().setNome(usuario.get().getNome());
                 usuarioLogin.get().setFoto(usuario.get().getFoto());
-                usuarioLogin.get().setToken(gerarBasicToken(usuarioLogin.get().getUsuario(),        usuarioLogin.get().getSenha()));
+                usuarioLogin.get().setToken(gerarBasicToken(usuario.get(),        usuarioLogin.get().getSenha()));
                 usuarioLogin.get().setSenha(usuario.get().getSenha());
 
                 return usuarioLogin;
@@ -80,35 +120,46 @@ public class UsuarioService {
 
     private String criptografarSenha(String senha) {
 
-        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder();
-
-        return encoder.encode(senha);
+        return passwordEncoder.encode(senha);
 
     }
 
     private boolean compararSenhas(String senhaDigitada, String senhaBanco) {
 
-        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder();
-
-        return encoder.matches(senhaDigitada, senhaBanco);
+        return passwordEncoder.matches(senhaDigitada, senhaBanco);
 
     }
 
-    private String gerarBasicToken(String usuario, String senha) {
+    private String gerarBasicToken(Usuario usuario, String senha) {
+
+        if (tokenService.isModoToken())
+            return "Bearer " + tokenService.gerarToken(usuario);
 
-        String token = usuario + ":" + senha;
+        String token = usuario.getUsuario() + ":" + senha;
         byte[] tokenBase64 = Base64.encodeBase64(token.getBytes(Charset.forName("US-ASCII")));
         return "Basic " + new String(tokenBase64);
 
     }
 
+    /* Usuario gravado e o e-mail que ele tinha antes da atualização, cujas credenciais saem do Cache depois do commit. */
+    private record Atualizacao(Usuario usuario, String usuarioAnterior) {
+    }
+
 }
 
 /* Observe que foram criados os Métodos cadastrarUsuario() e atualizarUsuario(), que criptografam a senha e impedem a duplicação do
 usuário no Banco de dados. O Método autenticarUsuario(), além de autenticar o usuário no sistema, ele compara a senha digitada pelo
 usuário com a senha persistida no Banco de dados e gera o Token do usuário.
 Foram criados ainda 3 Métodos auxiliares: criptografarSenha(), compararSenhas() e gerarBasicToken(), para realizar funções
-específicas na Classe de Serviço.
+específicas na Classe de Serviço. Os 2 primeiros utilizam o PasswordEncoder da aplicação (Classe SenhaEncoder), com a força do BCrypt
+definida na inicialização.
+
+Quando a senha do login está correta mas o hash gravado foi gerado com uma força do BCrypt menor do que a atual, a senha digitada
+é criptografada novamente com a força atual e o novo hash é gravado. Assim a força pode ser alterada sem invalidar
+as senhas existentes: os hashes antigos continuam sendo aceitos e são trocados aos poucos, a cada login.
+No modo blogpessoal.seguranca.autenticacao=token, o Método gerarBasicToken() devolve um Token assinado ("Bearer ...") emitido
+pela Classe TokenService, ao invés do usuário e da senha codificados em Base64. A atualização do Usuario (que grava a senha) muda a
+data do Usuario e os Tokens emitidos antes deixam de valer.
 
 PONTOS DE ATENÇÃO:
 --> O cadastro de um novo usuário no sistema necessita ser validado no Banco de dados. Caso o usuário já exista,
@@ -117,5 +168,16 @@ a aplicação não deve permitir que ele seja criado novamente, pois um usuário
 --> ao atualizar um usuário é importante que seja validado novamente a criptografia da senha e o usuário (e-mail).
 Caso não seja validado ocasionará um problema ao tentar autenticar pelo front-end da aplicação.
 
+--> ao atualizar um usuário, as credenciais guardadas no CredenciaisCache (com o e-mail antigo e o novo) são removidas depois do
+commit, para que a senha antiga deixe de ser aceita imediatamente.
+
+--> cadastrarUsuario() e atualizarUsuario() executam as consultas em uma transação de leitura e escrita (TransactionTemplate): a
+verificação do usuário duplicado consulta o primário, e não a réplica de leitura (Classe DataSourceRoteado), que pode ainda não ter
+recebido um cadastro recente. A senha é criptografada antes de a transação começar: sem a réplica, a conexão com o Banco de dados é
+obtida no início da transação e ficaria presa durante o BCrypt.
+
+--> autenticarUsuario() consulta o usuário no primário (UsuarioRepository.findParaAutenticacao), como a autenticação Http Basic
+(Classe UserDetailsServiceImpl): a réplica atrasada recusaria um cadastro recente e aceitaria a senha anterior a uma troca.
+
 --> Ao utilizar o Método autenticarUsuario, certifique que todos os Atributos do Objeto usuarioLogin sejam preenchidos com os
 dados recuperados do Banco de dados, pois o mesmo será utilizado pelo front-end da aplicação. */
\ No newline at end of file
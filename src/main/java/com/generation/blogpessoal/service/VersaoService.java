@@ -0,0 +1,351 @@
+/* A Classe VersaoService calcula os validadores das requisições condicionais (ETag e Last-Modified) das Postagens e dos Temas.
+Os validadores são obtidos com consultas de agregação (data da última alteração e quantidade de registros), que leem apenas colunas
+de data e contagens, sem carregar as Entidades. Se o cliente enviar If-None-Match (ETag) ou If-Modified-Since (Last-Modified) e nada
+mudou, o controlador responde 304 (Not Modified) sem consultar nem serializar as Postagens e os Temas.
+
+As datas vêm dos Atributos data (@UpdateTimestamp) de Postagem, Tema e Usuario. Apagar um registro não altera a data de nenhum outro:
+o ETag de uma Postagem ou de um Tema inclui a quantidade de Postagens, e o das listagens inclui o maior id (inclusões) e o contador de
+exclusões da tabela tb_exclusoes (incrementado pela Classe ExclusaoService), que substituem o count() de todas as linhas. Assim, as
+consultas das listagens leem apenas a ponta dos índices das datas e dos ids e uma linha de tb_exclusoes. Pelo mesmo motivo, as listagens e o Tema (que traz as suas Postagens) não enviam
+Last-Modified: depois de uma exclusão, a maior data continua a mesma e o If-Modified-Since responderia 304 com a resposta antiga.
+Apenas a Postagem individual, que só muda quando ela, o seu Tema ou o seu Usuario são gravados, envia Last-Modified. Como o Tema e o Usuario aparecem dentro das Postagens (e vice-versa),
+as datas de todos eles entram no ETag. O ETag de uma Postagem ou de um Tema também traz a versão da Entidade (Atributo versao), para que
+o mesmo valor possa ser enviado no cabeçalho If-Match de uma atualização.
+
+Os mesmos dados em JSON, CBOR ou Smile são respostas diferentes, por isso cada formato binário tem o seu próprio ETag (o ETag do JSON
+não muda) e as respostas enviam Vary: Accept. Nas respostas 200, o sufixo vem do formato escolhido pelo próprio Spring para escrever o
+corpo (Classe FormatoEtagAdvice). Para responder 304 antes de carregar os dados, o formato é previsto com o mesmo ContentNegotiationManager
+e os mesmos conversores do Spring MVC; se a previsão errar, o ETag recebido não confere e a resposta é 200 (nunca um 304 de outro
+formato).
+
+As consultas são executadas em transações somente leitura e, com a réplica de leitura configurada, vão para a réplica, junto com as
+consultas das próprias Postagens e Temas. */
+
+package com.generation.blogpessoal.service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import com.generation.blogpessoal.model.Postagem;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.servlet.http.HttpServletResponse;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.DigestUtils;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.HttpMediaTypeNotAcceptableException;
+import org.springframework.web.accept.ContentNegotiationManager;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter;
+
+@Service
+@Transactional(readOnly = true)
+public class VersaoService {
+
+    private static final Pattern ETAG_COM_VERSAO = Pattern.compile("^(?:W/)?\"v(\\d+)-");
+
+    private static final MediaType CBOR = MediaType.parseMediaType("application/cbor");
+
+    private static final MediaType SMILE = MediaType.parseMediaType("application/x-jackson-smile");
+
+    /* Atributo da requisição com o ETag sem o sufixo do formato, lido pela Classe FormatoEtagAdvice. */
+    public static final String ETAG = VersaoService.class.getName() + ".ETAG";
+
+    /* Linhas da tabela tb_exclusoes: o contador de exclusões de cada tabela. */
+    public static final String POSTAGENS = "tb_postagem";
+
+    public static final String TEMAS = "tb_temas";
+
+    public static final String USUARIOS = "tb_usuarios";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private ContentNegotiationManager contentNegotiationManager;
+
+    @Autowired
+    private RequestMappingHandlerAdapter handlerAdapter;
+
+    /* Formatos em que os conversores do Spring MVC escrevem os Objetos das respostas com ETag (JSON, CBOR e Smile, na ordem dos
+    conversores, ver a Classe FormatoConfig). A Postagem representa os demais Objetos (Tema e Pagina), escritos pelos mesmos
+    conversores. Lidos na primeira requisição condicional. */
+    private volatile List<MediaType> formatos;
+
+    /* ETag e data da última alteração (em milissegundos, -1 quando não existe nenhum registro ou quando a resposta não envia
+    Last-Modified) de uma resposta. */
+    public record Versao(String etag, long ultimaAlteracao) {
+
+        /* Apenas o ETag: a requisição condicional é decidida pelo If-None-Match. */
+        Versao semUltimaAlteracao() {
+            return new Versao(etag, -1L);
+        }
+
+    }
+
+    /* Confere os cabeçalhos If-None-Match e If-Modified-Since da requisição com o ETag do formato que o Spring vai escolher para a
+    resposta. Se a resposta não mudou, o Status 304 já fica definido e o controlador deve apenas retornar nulo. Em ambos os casos, os
+    cabeçalhos ETag, Last-Modified (se houver data) e Vary: Accept são enviados. */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public boolean naoModificado(Versao versao, WebRequest request) {
+
+        NativeWebRequest requisicao = (NativeWebRequest) request;
+        requisicao.setAttribute(ETAG, versao.etag(), WebRequest.SCOPE_REQUEST);
+
+        HttpServletResponse resposta = requisicao.getNativeResponse(HttpServletResponse.class);
+
+        if (resposta != null)
+            resposta.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+
+        return request.checkNotModified(etagDoFormato(versao.etag(), formatoNegociado(requisicao)), versao.ultimaAlteracao());
+    }
+
+    /* ETag de uma resposta no formato indicado: o JSON (ou um formato desconhecido) mantém o ETag, o CBOR e o Smile recebem um
+    sufixo. */
+    public static String etagDoFormato(String etag, MediaType formato) {
+
+        if (formato == null)
+            return etag;
+
+        if (formato.isCompatibleWith(CBOR))
+            return comSufixo(etag, "cbor");
+
+        if (formato.isCompatibleWith(SMILE))
+            return comSufixo(etag, "smile");
+
+        return etag;
+    }
+
+    /* Cache-Control das respostas com ETag: o cliente pode guardar a resposta (apenas no próprio dispositivo, pois ela depende do
+    usuário autenticado), mas deve confirmar com o servidor (requisição condicional) antes de reutilizá-la. Sem este cabeçalho, o
+    Spring Security envia "no-store" e o cliente não guarda a resposta. */
+    public static CacheControl revalidar() {
+        return CacheControl.noCache().cachePrivate();
+    }
+
+    /* Condição de uma atualização (PUT): a versão que a Entidade precisa ter para ser gravada (nula: qualquer versão) e o Status
+    da resposta quando a versão não confere. */
+    public record Condicao(Long versao, HttpStatus conflito) {
+    }
+
+    /* Com o cabeçalho If-Match, a versão vem do ETag (o mesmo devolvido pelo GET da Postagem ou do Tema, que começa com a versão) e
+    uma versão diferente responde 412 (Precondition Failed); If-Match: * aceita qualquer versão. Sem o cabeçalho, vale o Atributo
+    versao enviado no corpo e uma versão diferente responde 409 (Conflict). Sem nenhum dos dois, a atualização não é condicionada. */
+    public static Condicao condicao(String ifMatch, Long versaoDoCorpo) {
+
+        if (ifMatch == null || ifMatch.isBlank())
+            return new Condicao(versaoDoCorpo, HttpStatus.CONFLICT);
+
+        if (ifMatch.trim().equals("*"))
+            return new Condicao(null, HttpStatus.PRECONDITION_FAILED);
+
+        Set<Long> versoes = new HashSet<>();
+
+        for (String etag : ifMatch.split(",")) {
+            Matcher matcher = ETAG_COM_VERSAO.matcher(etag.trim());
+
+            if (matcher.find())
+                versoes.add(Long.valueOf(matcher.group(1)));
+        }
+
+        /* Um ETag sem versão (de uma listagem, por exemplo) ou com versões diferentes nunca corresponde à Entidade atual. */
+        if (versoes.size() != 1)
+            throw new ResponseStatusException(HttpStatus.PRECONDITION_FAILED, "If-Match não corresponde à versão atual!", null);
+
+        return new Condicao(versoes.iterator().next(), HttpStatus.PRECONDITION_FAILED);
+    }
+
+    public Optional<Versao> postagem(Long id) {
+
+        List<Object[]> resultado = entityManager.createQuery("""
+                        select p.versao, p.data, t.data, u.data
+                        from Postagem p left join p.tema t left join p.usuario u
+                        where p.id = :id""", Object[].class)
+                .setParameter("id", id)
+                .getResultList();
+
+        return resultado.stream().findFirst().map(valores -> versao("postagem-" + id, (Long) valores[0],
+                Arrays.copyOfRange(valores, 1, valores.length)));
+    }
+
+    /* Versão das listagens de Postagens (getAll, getByTitulo e busca). A consulta é nativa porque a tabela tb_exclusoes não tem
+    Entidade. */
+    public Versao postagens() {
+
+        Object[] valores = (Object[]) entityManager.createNativeQuery("""
+                        select (select max(data) from tb_postagem),
+                               (select max(id) from tb_postagem),
+                               (select quantidade from tb_exclusoes where tabela = 'tb_postagem'),
+                               (select max(data) from tb_temas),
+                               (select max(data) from tb_usuarios)""")
+                .getSingleResult();
+
+        return versao("postagens", valores).semUltimaAlteracao();
+    }
+
+    /* Versão das Postagens de um Usuario (/usuarios/{id}/postagens): a data e a quantidade vêm apenas das Postagens dele, lidas no
+    índice (usuario_id, data, id), e uma Postagem gravada por outro Usuario não muda o ETag. O Usuario aparece em todas as Postagens
+    e os Temas em algumas delas: entram a data do próprio Usuario e a maior data dos Temas. */
+    public Versao postagensDoUsuario(Long id) {
+
+        Object[] valores = entityManager.createQuery("""
+                        select max(p.data), count(p.id),
+                               (select u.data from Usuario u where u.id = :id),
+                               (select max(t.data) from Tema t)
+                        from Postagem p
+                        where p.usuario.id = :id""", Object[].class)
+                .setParameter("id", id)
+                .getSingleResult();
+
+        return versao("usuario-" + id + "-postagens", valores).semUltimaAlteracao();
+    }
+
+    /* Versão das Postagens de um Tema (/temas/{id}/postagens), como a das Postagens de um Usuario, pelo índice (tema_id, data, id). */
+    public Versao postagensDoTema(Long id) {
+
+        Object[] valores = entityManager.createQuery("""
+                        select max(p.data), count(p.id),
+                               (select t.data from Tema t where t.id = :id),
+                               (select max(u.data) from Usuario u)
+                        from Postagem p
+                        where p.tema.id = :id""", Object[].class)
+                .setParameter("id", id)
+                .getSingleResult();
+
+        return versao("tema-" + id + "-postagens", valores).semUltimaAlteracao();
+    }
+
+    public Optional<Versao> tema(Long id) {
+
+        List<Object[]> resultado = entityManager.createQuery("""
+                        select t.versao, t.data,
+                               (select max(p.data) from Postagem p where p.tema = t),
+                               (select count(p.id) from Postagem p where p.tema = t),
+                               (select max(u.data) from Usuario u)
+                        from Tema t
+                        where t.id = :id""", Object[].class)
+                .setParameter("id", id)
+                .getResultList();
+
+        return resultado.stream().findFirst().map(valores -> versao("tema-" + id, (Long) valores[0],
+                Arrays.copyOfRange(valores, 1, valores.length)).semUltimaAlteracao());
+    }
+
+    /* Versão das listagens de Temas (resumos com a quantidade de Postagens ou Temas completos). */
+    public Versao temas() {
+
+        Object[] valores = (Object[]) entityManager.createNativeQuery("""
+                        select (select max(data) from tb_temas),
+                               (select max(id) from tb_temas),
+                               (select quantidade from tb_exclusoes where tabela = 'tb_temas'),
+                               (select max(data) from tb_postagem),
+                               (select max(id) from tb_postagem),
+                               (select quantidade from tb_exclusoes where tabela = 'tb_postagem'),
+                               (select max(data) from tb_usuarios)""")
+                .getSingleResult();
+
+        return versao("temas", valores).semUltimaAlteracao();
+    }
+
+    /* Incrementa o contador de exclusões das tabelas, na transação que apagou os registros: as listagens mudam de ETag junto com o
+    commit. */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void registrarExclusao(Collection<String> tabelas) {
+
+        entityManager.createNativeQuery("update tb_exclusoes set quantidade = quantidade + 1 where tabela in (:tabelas)")
+                .setParameter("tabelas", tabelas)
+                .executeUpdate();
+    }
+
+    /* Mesma escolha do conversor feita pelo Spring MVC (AbstractMessageConverterMethodProcessor): os tipos aceitos, resolvidos pelo
+    ContentNegotiationManager (cabeçalho Accept ordenado por qualidade e especificidade), são combinados com os formatos dos
+    conversores, ordenados por especificidade, e o primeiro tipo concreto vence. Nulo quando nenhum tipo concreto é escolhido. */
+    private MediaType formatoNegociado(NativeWebRequest request) {
+
+        List<MediaType> aceitos;
+
+        try {
+            aceitos = contentNegotiationManager.resolveMediaTypes(request);
+        } catch (HttpMediaTypeNotAcceptableException e) {
+            return null;
+        }
+
+        List<MediaType> compativeis = new ArrayList<>();
+
+        for (MediaType aceito : aceitos)
+            for (MediaType formato : formatos())
+                if (aceito.isCompatibleWith(formato)) {
+                    MediaType produzido = formato.copyQualityValue(aceito);
+                    compativeis.add(aceito.isLessSpecific(produzido) ? produzido : aceito);
+                }
+
+        MimeTypeUtils.sortBySpecificity(compativeis);
+
+        return compativeis.stream().filter(MediaType::isConcrete).findFirst().orElse(null);
+    }
+
+    private List<MediaType> formatos() {
+
+        if (formatos == null)
+            formatos = handlerAdapter.getMessageConverters().stream()
+                    .filter(conversor -> conversor.canWrite(Postagem.class, null))
+                    .map(HttpMessageConverter::getSupportedMediaTypes)
+                    .flatMap(List::stream)
+                    .distinct()
+                    .toList();
+
+        return formatos;
+    }
+
+    private static String comSufixo(String etag, String sufixo) {
+        return etag.substring(0, etag.length() - 1) + "-" + sufixo + "\"";
+    }
+
+    /* ETag de uma Postagem ou de um Tema: começa com a versão da Entidade ("v3-..."), lida de volta no cabeçalho If-Match. */
+    private static Versao versao(String recurso, Long numero, Object[] valores) {
+
+        Versao versao = versao(recurso, valores);
+
+        return new Versao("\"v" + numero + "-" + versao.etag().substring(1), versao.ultimaAlteracao());
+    }
+
+    private static Versao versao(String recurso, Object[] valores) {
+
+        String conteudo = recurso + "|" + Arrays.stream(valores)
+                .map(String::valueOf)
+                .collect(Collectors.joining("|"));
+
+        long ultimaAlteracao = Arrays.stream(valores)
+                .filter(LocalDateTime.class::isInstance)
+                .map(LocalDateTime.class::cast)
+                .max(LocalDateTime::compareTo)
+                .map(data -> data.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli())
+                .orElse(-1L);
+
+        return new Versao("\"" + DigestUtils.md5DigestAsHex(conteudo.getBytes(StandardCharsets.UTF_8)) + "\"", ultimaAlteracao);
+    }
+
+}
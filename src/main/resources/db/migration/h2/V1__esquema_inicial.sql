@@ -0,0 +1,29 @@
+-- Esquema inicial no H2 (Banco de dados dos testes), equivalente aos scripts do MySQL e do PostgreSQL.
+
+create table tb_temas (
+    id bigint generated by default as identity,
+    descricao varchar(255) not null,
+    primary key (id)
+);
+
+create table tb_usuarios (
+    id bigint generated by default as identity,
+    foto varchar(5000),
+    nome varchar(255) not null,
+    senha varchar(255),
+    usuario varchar(255) not null,
+    primary key (id)
+);
+
+create table tb_postagem (
+    id bigint generated by default as identity,
+    data timestamp(6),
+    texto varchar(1000),
+    titulo varchar(100),
+    tema_id bigint,
+    usuario_id bigint,
+    primary key (id)
+);
+
+alter table tb_postagem add constraint FK22edj0iw07fyykqnron8wfrs2 foreign key (tema_id) references tb_temas;
+alter table tb_postagem add constraint FKo3otl6p55co2o6rv5sorioqhy foreign key (usuario_id) references tb_usuarios;
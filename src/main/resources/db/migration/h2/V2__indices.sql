@@ -0,0 +1,15 @@
+-- Índices das consultas executadas com mais frequência.
+-- O "if not exists" atende aos Bancos de dados registrados na versão 1 pelo baseline-on-migrate, em que o ddl-auto já tinha
+-- criado parte destes índices antes do Flyway.
+
+-- Login e autenticação Http Basic (UsuarioRepository.findByUsuario): busca por igualdade no e-mail, que também não pode se repetir.
+create unique index if not exists uk_usuarios_usuario on tb_usuarios (usuario);
+
+-- Listagem de Postagens (PostagemRepository.findPagina e findPaginaApos): ordenada por (data, id), da mais recente para a mais antiga.
+-- O índice é descendente porque o H2 (testes) só utiliza o índice para ordenar na mesma direção em que ele foi criado.
+create index if not exists idx_postagem_data on tb_postagem (data desc, id desc);
+
+-- Postagens de um Usuario e de um Tema (findPaginaByUsuario e findPaginaByTema). Como começam pelas Chaves Estrangeiras,
+-- os índices também atendem às verificações das Chaves Estrangeiras ao apagar um Usuario ou um Tema.
+create index if not exists idx_postagem_usuario_data on tb_postagem (usuario_id, data, id);
+create index if not exists idx_postagem_tema_data on tb_postagem (tema_id, data, id);
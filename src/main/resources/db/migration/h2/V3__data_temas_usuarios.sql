@@ -0,0 +1,3 @@
+-- Data da última alteração dos Temas e dos Usuários (@UpdateTimestamp), equivalente aos scripts do MySQL e do PostgreSQL.
+alter table tb_temas add column if not exists data timestamp(6);
+alter table tb_usuarios add column if not exists data timestamp(6);
@@ -0,0 +1,4 @@
+-- Versão (@Version) das Postagens e dos Temas, utilizada no controle de concorrência otimista das atualizações (PUT):
+-- a atualização só é gravada se a versão enviada pelo cliente ainda for a atual. Os registros existentes começam na versão 0.
+alter table tb_postagem add column versao bigint not null default 0;
+alter table tb_temas add column versao bigint not null default 0;
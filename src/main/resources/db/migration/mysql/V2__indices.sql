@@ -0,0 +1,37 @@
+-- Índices das consultas executadas com mais frequência.
+-- O MySQL não aceita "create index if not exists": cada índice só é criado se ainda não constar no information_schema, porque
+-- nos Bancos de dados registrados na versão 1 pelo baseline-on-migrate o ddl-auto já tinha criado parte destes índices.
+
+-- Login e autenticação Http Basic (UsuarioRepository.findByUsuario): busca por igualdade no e-mail, que também não pode se repetir.
+set @ddl = if((select count(*) from information_schema.statistics
+               where table_schema = database() and table_name = 'tb_usuarios' and index_name = 'uk_usuarios_usuario') = 0,
+    'create unique index uk_usuarios_usuario on tb_usuarios (usuario)', 'do 0');
+prepare ddl from @ddl;
+execute ddl;
+deallocate prepare ddl;
+
+-- Listagem de Postagens (PostagemRepository.findPagina e findPaginaApos): ordenada por (data, id), da mais recente para a mais antiga.
+-- O índice é descendente, na mesma direção da ordenação: o MySQL 8 lê o índice em ordem, sem a leitura de trás para frente
+-- (Backward index scan), que é mais lenta no InnoDB.
+set @ddl = if((select count(*) from information_schema.statistics
+               where table_schema = database() and table_name = 'tb_postagem' and index_name = 'idx_postagem_data') = 0,
+    'create index idx_postagem_data on tb_postagem (data desc, id desc)', 'do 0');
+prepare ddl from @ddl;
+execute ddl;
+deallocate prepare ddl;
+
+-- Postagens de um Usuario e de um Tema (findPaginaByUsuario e findPaginaByTema). Como começam pelas Chaves Estrangeiras,
+-- os índices também atendem às verificações das Chaves Estrangeiras ao apagar um Usuario ou um Tema.
+set @ddl = if((select count(*) from information_schema.statistics
+               where table_schema = database() and table_name = 'tb_postagem' and index_name = 'idx_postagem_usuario_data') = 0,
+    'create index idx_postagem_usuario_data on tb_postagem (usuario_id, data, id)', 'do 0');
+prepare ddl from @ddl;
+execute ddl;
+deallocate prepare ddl;
+
+set @ddl = if((select count(*) from information_schema.statistics
+               where table_schema = database() and table_name = 'tb_postagem' and index_name = 'idx_postagem_tema_data') = 0,
+    'create index idx_postagem_tema_data on tb_postagem (tema_id, data, id)', 'do 0');
+prepare ddl from @ddl;
+execute ddl;
+deallocate prepare ddl;
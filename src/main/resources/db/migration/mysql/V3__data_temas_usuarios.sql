@@ -0,0 +1,18 @@
+-- Data da última alteração dos Temas e dos Usuários (@UpdateTimestamp), utilizada no ETag e no Last-Modified das respostas.
+-- As colunas não fazem parte do esquema inicial (V1): os Bancos de dados registrados na versão 1 pelo baseline-on-migrate as
+-- recebem aqui. Os registros existentes ficam com a data nula até a próxima alteração.
+-- O MySQL não aceita "add column if not exists": a coluna só é criada se ainda não constar no information_schema, porque o
+-- ddl-auto já a tinha criado nos Bancos de dados anteriores ao Flyway.
+set @ddl = if((select count(*) from information_schema.columns
+               where table_schema = database() and table_name = 'tb_temas' and column_name = 'data') = 0,
+    'alter table tb_temas add column data datetime(6)', 'do 0');
+prepare ddl from @ddl;
+execute ddl;
+deallocate prepare ddl;
+
+set @ddl = if((select count(*) from information_schema.columns
+               where table_schema = database() and table_name = 'tb_usuarios' and column_name = 'data') = 0,
+    'alter table tb_usuarios add column data datetime(6)', 'do 0');
+prepare ddl from @ddl;
+execute ddl;
+deallocate prepare ddl;
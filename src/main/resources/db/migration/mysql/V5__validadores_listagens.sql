@@ -0,0 +1,17 @@
+-- Validadores (ETag) das listagens de Postagens e de Temas (Classe VersaoService), que antes contavam todas as linhas de tb_postagem
+-- e tb_temas a cada requisição condicional.
+
+-- Data da última alteração dos Temas e dos Usuários: o max(data) das listagens lê apenas a ponta do índice, sem percorrer a tabela.
+create index idx_temas_data on tb_temas (data);
+create index idx_usuarios_data on tb_usuarios (data);
+
+-- Contador de exclusões de cada tabela, incrementado pela Classe ExclusaoService na mesma transação do delete. A inclusão de um
+-- registro muda o maior id e a alteração muda a maior data; apenas a exclusão não deixa marca nas linhas restantes, e o count(*)
+-- que a detectava é substituído por este contador (leitura de uma linha pela Chave Primária).
+create table tb_exclusoes (
+    tabela varchar(30) not null,
+    quantidade bigint not null,
+    primary key (tabela)
+) engine=InnoDB;
+
+insert into tb_exclusoes (tabela, quantidade) values ('tb_postagem', 0), ('tb_temas', 0), ('tb_usuarios', 0);
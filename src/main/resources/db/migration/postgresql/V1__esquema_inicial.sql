@@ -0,0 +1,31 @@
+-- Esquema inicial, igual ao que o Hibernate criava com spring.jpa.generate-ddl=true.
+-- Bancos de dados criados antes das migrações já têm estas tabelas: o Flyway registra a versão 1 sem executar este arquivo
+-- (spring.flyway.baseline-on-migrate) e aplica apenas as versões seguintes.
+
+create table tb_temas (
+    id bigserial not null,
+    descricao varchar(255) not null,
+    primary key (id)
+);
+
+create table tb_usuarios (
+    id bigserial not null,
+    foto varchar(5000),
+    nome varchar(255) not null,
+    senha varchar(255),
+    usuario varchar(255) not null,
+    primary key (id)
+);
+
+create table tb_postagem (
+    id bigserial not null,
+    data timestamp(6),
+    texto varchar(1000),
+    titulo varchar(100),
+    tema_id bigint,
+    usuario_id bigint,
+    primary key (id)
+);
+
+alter table tb_postagem add constraint FK22edj0iw07fyykqnron8wfrs2 foreign key (tema_id) references tb_temas;
+alter table tb_postagem add constraint FKo3otl6p55co2o6rv5sorioqhy foreign key (usuario_id) references tb_usuarios;
@@ -0,0 +1,16 @@
+-- Índices das consultas executadas com mais frequência.
+-- O "if not exists" atende aos Bancos de dados registrados na versão 1 pelo baseline-on-migrate, em que o ddl-auto já tinha
+-- criado parte destes índices antes do Flyway.
+
+-- Login e autenticação Http Basic (UsuarioRepository.findByUsuario): busca por igualdade no e-mail, que também não pode se repetir.
+create unique index if not exists uk_usuarios_usuario on tb_usuarios (usuario);
+
+-- Listagem de Postagens (PostagemRepository.findPagina e findPaginaApos): ordenada por (data, id), da mais recente para a mais antiga.
+-- O PostgreSQL também leria um índice ascendente de trás para frente; o índice é descendente para manter o mesmo esquema nos
+-- três Bancos de dados (o índice do H2, utilizado nos testes, precisa ser descendente).
+create index if not exists idx_postagem_data on tb_postagem (data desc, id desc);
+
+-- Postagens de um Usuario e de um Tema (findPaginaByUsuario e findPaginaByTema). Como começam pelas Chaves Estrangeiras,
+-- os índices também atendem às verificações das Chaves Estrangeiras ao apagar um Usuario ou um Tema.
+create index if not exists idx_postagem_usuario_data on tb_postagem (usuario_id, data, id);
+create index if not exists idx_postagem_tema_data on tb_postagem (tema_id, data, id);
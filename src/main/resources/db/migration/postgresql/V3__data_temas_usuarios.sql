@@ -0,0 +1,5 @@
+-- Data da última alteração dos Temas e dos Usuários (@UpdateTimestamp), utilizada no ETag e no Last-Modified das respostas.
+-- As colunas não fazem parte do esquema inicial (V1): os Bancos de dados registrados na versão 1 pelo baseline-on-migrate as
+-- recebem aqui. O "if not exists" atende aos Bancos de dados em que o ddl-auto já tinha criado as colunas antes do Flyway.
+alter table tb_temas add column if not exists data timestamp(6);
+alter table tb_usuarios add column if not exists data timestamp(6);
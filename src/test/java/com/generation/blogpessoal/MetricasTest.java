@@ -0,0 +1,92 @@
+package com.generation.blogpessoal;
+
+import com.generation.blogpessoal.model.Usuario;
+import com.generation.blogpessoal.repository.UsuarioRepository;
+import com.generation.blogpessoal.service.UsuarioService;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureObservability
+/* Confere se o endpoint /actuator/prometheus publica as métricas dos endpoints, dos repositórios, do Hibernate, do pool de
+conexões e dos componentes da aplicação, e se ele exige o direito MONITORAMENTO. Nos testes, o Spring Boot só publica as métricas no
+formato do Prometheus com a anotação @AutoConfigureObservability. */
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class MetricasTest {
+
+    @Autowired
+    private TestRestTemplate testRestTemplate;
+
+    @Autowired
+    private UsuarioService usuarioService;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @BeforeAll
+    void start() {
+
+        if (usuarioRepository.findByUsuario("root@root.com").isEmpty())
+            usuarioService.cadastrarUsuario(new Usuario(0L,
+                    "Root", "root@root.com", "rootroot", " "));
+
+        if (usuarioRepository.findByUsuario("comum@email.com.br").isEmpty())
+            usuarioService.cadastrarUsuario(new Usuario(0L,
+                    "Comum", "comum@email.com.br", "comum123", " "));
+    }
+
+    @Test
+    @DisplayName("Publicar as métricas no formato do Prometheus apenas para o monitoramento")
+    public void devePublicarMetricasDoPrometheus() {
+
+        /* Gera pelo menos uma requisição (e uma chamada de repositório) para cada métrica aparecer. */
+        testRestTemplate.withBasicAuth("root@root.com", "rootroot")
+                .exchange("/temas", HttpMethod.GET, null, String.class);
+
+        ResponseEntity<String> resposta = testRestTemplate.withBasicAuth("root@root.com", "rootroot")
+                .exchange("/actuator/prometheus", HttpMethod.GET, null, String.class);
+
+        assertEquals(HttpStatus.OK, resposta.getStatusCode());
+
+        String metricas = resposta.getBody();
+        assertTrue(metricas.contains("http_server_requests_seconds_bucket{"));
+        assertTrue(metricas.contains("uri=\"/temas\""));
+        assertTrue(metricas.contains("spring_data_repository_invocations_seconds_bucket{"));
+        assertTrue(metricas.contains("hibernate_sessions_open_total"));
+        assertTrue(metricas.contains("hikaricp_connections_active"));
+        assertTrue(metricas.contains("cache=\"credenciais\""));
+        assertTrue(metricas.contains("blogpessoal_senhas_fila"));
+
+        assertEquals(HttpStatus.UNAUTHORIZED, testRestTemplate
+                .exchange("/actuator/prometheus", HttpMethod.GET, null, String.class).getStatusCode());
+        assertEquals(HttpStatus.OK, testRestTemplate
+                .exchange("/actuator/health", HttpMethod.GET, null, String.class).getStatusCode());
+    }
+
+    @Test
+    @DisplayName("Recusar as métricas e os diagnósticos para um usuário cadastrado sem o direito MONITORAMENTO")
+    public void deveRecusarMetricasSemMonitoramento() {
+
+        for (String endereco : new String[] { "/actuator/prometheus", "/actuator/sql", "/usuarios/credenciais/estatisticas",
+                "/usuarios/senhas/estatisticas", "/temas/cache/estatisticas" })
+            assertEquals(HttpStatus.FORBIDDEN, testRestTemplate.withBasicAuth("comum@email.com.br", "comum123")
+                    .exchange(endereco, HttpMethod.GET, null, String.class).getStatusCode(), endereco);
+
+        assertEquals(HttpStatus.OK, testRestTemplate.withBasicAuth("comum@email.com.br", "comum123")
+                .exchange("/temas", HttpMethod.GET, null, String.class).getStatusCode());
+    }
+
+}
@@ -0,0 +1,177 @@
+package com.generation.blogpessoal;
+
+import com.generation.blogpessoal.configuration.DataSourceRoteado;
+import com.generation.blogpessoal.model.Usuario;
+import com.generation.blogpessoal.model.UsuarioLogin;
+import com.generation.blogpessoal.repository.PostagemRepository;
+import com.generation.blogpessoal.repository.TemaRepository;
+import com.generation.blogpessoal.repository.UsuarioRepository;
+import com.generation.blogpessoal.service.UsuarioService;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "blogpessoal.datasource.replica.url=" + ReplicaLeituraTest.URL_REPLICA,
+        "blogpessoal.datasource.replica.consulta-atraso=select atraso from replica_atraso",
+        "blogpessoal.datasource.replica.atraso-maximo-segundos=10",
+        "blogpessoal.datasource.replica.intervalo-verificacao-ms=3600000"})
+/* Testa o roteamento entre o Banco de dados primário e a réplica de leitura com dois Bancos de dados H2 em memória. Não existe
+replicação entre eles: cada teste grava diretamente no Banco de dados que deve (ou não) ser consultado e confere qual deles
+respondeu. A verificação automática da réplica fica desligada (intervalo de 1 hora); o teste chama verificarReplica() depois de
+alterar o atraso simulado (tabela replica_atraso). */
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class ReplicaLeituraTest {
+
+    static final String URL_REPLICA = "jdbc:h2:mem:db_blogpessoal_replica;DB_CLOSE_DELAY=-1";
+
+    private static final String URL_PRIMARIO = "jdbc:h2:mem:db_blogpessoal;DB_CLOSE_DELAY=-1";
+
+    @Autowired
+    private TestRestTemplate testRestTemplate;
+
+    @Autowired
+    private UsuarioService usuarioService;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @Autowired
+    private TemaRepository temaRepository;
+
+    @Autowired
+    private PostagemRepository postagemRepository;
+
+    @Autowired
+    private DataSourceRoteado dataSourceRoteado;
+
+    private final JdbcTemplate primario = new JdbcTemplate(new DriverManagerDataSource(URL_PRIMARIO, "sa", "sa"));
+
+    private final JdbcTemplate replica = new JdbcTemplate(new DriverManagerDataSource(URL_REPLICA, "sa", "sa"));
+
+    @BeforeAll
+    void start() {
+        /* Cria o esquema da réplica com as mesmas migrações do primário. O usuário root só existe no primário: a autenticação
+        sempre consulta o primário. */
+
+        Flyway.configure().dataSource(URL_REPLICA, "sa", "sa").locations("classpath:db/migration/h2").load().migrate();
+        replica.execute("create table replica_atraso (atraso int)");
+        replica.update("insert into replica_atraso values (0)");
+
+        postagemRepository.deleteAll();
+        temaRepository.deleteAll();
+        usuarioRepository.deleteAll();
+
+        usuarioService.cadastrarUsuario(new Usuario(0L, "Root", "root@root.com", "rootroot", " "));
+
+        dataSourceRoteado.verificarReplica();
+    }
+
+    @Test
+    @DisplayName("Consultar na réplica e gravar no primário")
+    public void deveLerNaReplicaEGravarNoPrimario() {
+
+        assertTrue(dataSourceRoteado.isReplicaDisponivel());
+
+        replica.update("insert into tb_temas (descricao) values ('Somente na réplica')");
+
+        ResponseEntity<String> consulta = requisicao("/temas/descricao/réplica", HttpMethod.GET, null);
+
+        assertEquals(HttpStatus.OK, consulta.getStatusCode());
+        assertTrue(consulta.getBody().contains("Somente na réplica"));
+
+        ResponseEntity<String> cadastro = requisicao("/temas", HttpMethod.POST, Map.of("descricao", "Gravado no primário"));
+
+        assertEquals(HttpStatus.CREATED, cadastro.getStatusCode());
+        assertEquals(1, contar(primario, "Gravado no primário"));
+        assertEquals(0, contar(replica, "Gravado no primário"));
+        assertEquals(0, contar(primario, "Somente na réplica"));
+    }
+
+    @Test
+    @DisplayName("Consultar no primário enquanto a réplica estiver atrasada")
+    public void deveLerNoPrimarioComAReplicaAtrasada() {
+
+        primario.update("insert into tb_temas (descricao) values ('Ainda não replicado')");
+
+        try {
+            replica.update("update replica_atraso set atraso = 60");
+            dataSourceRoteado.verificarReplica();
+
+            assertFalse(dataSourceRoteado.isReplicaDisponivel());
+
+            ResponseEntity<String> consulta = requisicao("/temas/descricao/replicado", HttpMethod.GET, null);
+
+            assertEquals(HttpStatus.OK, consulta.getStatusCode());
+            assertTrue(consulta.getBody().contains("Ainda não replicado"));
+
+        } finally {
+            replica.update("update replica_atraso set atraso = 0");
+            dataSourceRoteado.verificarReplica();
+        }
+
+        assertTrue(dataSourceRoteado.isReplicaDisponivel());
+        assertFalse(requisicao("/temas/descricao/replicado", HttpMethod.GET, null).getBody().contains("Ainda não replicado"));
+    }
+
+    @Test
+    @DisplayName("Entrar logo depois do cadastro, antes da réplica receber o usuário")
+    public void deveEntrarLogoDepoisDoCadastro() {
+
+        assertTrue(dataSourceRoteado.isReplicaDisponivel());
+
+        ResponseEntity<String> cadastro = testRestTemplate.exchange("/usuarios/cadastrar", HttpMethod.POST,
+                new HttpEntity<>(new Usuario(0L, "Recente", "recente@email.com.br", "recente123", " ")), String.class);
+
+        assertEquals(HttpStatus.CREATED, cadastro.getStatusCode());
+        assertEquals(0, replica.queryForObject("select count(*) from tb_usuarios where usuario = 'recente@email.com.br'",
+                Integer.class));
+
+        UsuarioLogin login = new UsuarioLogin();
+        login.setUsuario("recente@email.com.br");
+        login.setSenha("recente123");
+
+        assertEquals(HttpStatus.OK, testRestTemplate
+                .exchange("/usuarios/logar", HttpMethod.POST, new HttpEntity<>(login), String.class).getStatusCode());
+
+        assertEquals(HttpStatus.OK, testRestTemplate
+                .withBasicAuth("recente@email.com.br", "recente123")
+                .exchange("/temas/descricao/recente", HttpMethod.GET, null, String.class).getStatusCode());
+    }
+
+    @AfterAll
+    public void end() {
+        postagemRepository.deleteAll();
+        temaRepository.deleteAll();
+    }
+
+    private ResponseEntity<String> requisicao(String endereco, HttpMethod metodo, Object corpo) {
+        return testRestTemplate
+                .withBasicAuth("root@root.com", "rootroot")
+                .exchange(endereco, metodo, corpo == null ? null : new HttpEntity<>(corpo), String.class);
+    }
+
+    private static int contar(JdbcTemplate jdbcTemplate, String descricao) {
+        return jdbcTemplate.queryForObject("select count(*) from tb_temas where descricao = ?", Integer.class, descricao);
+    }
+
+}
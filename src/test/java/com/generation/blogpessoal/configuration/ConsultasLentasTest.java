@@ -0,0 +1,113 @@
+package com.generation.blogpessoal.configuration;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.servlet.HandlerMapping;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+
+import java.sql.PreparedStatement;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/* Testes da Classe ConsultasLentas sem o contexto do Spring: as instruções são simuladas chamando o Método afterQuery(), como faz
+o proxy do DataSource, e os registros do logger "blogpessoal.sql.lentas" são capturados por um ListAppender. */
+public class ConsultasLentasTest {
+
+    private static final String SELECT_POSTAGEM = "select p1_0.id,p1_0.titulo from tb_postagem p1_0 where p1_0.id=? and p1_0.titulo=?";
+
+    private final Logger logger = (Logger) LoggerFactory.getLogger("blogpessoal.sql.lentas");
+
+    private final ListAppender<ILoggingEvent> registros = new ListAppender<>();
+
+    @BeforeEach
+    void start() {
+        registros.start();
+        logger.addAppender(registros);
+    }
+
+    @AfterEach
+    void end() {
+        logger.detachAppender(registros);
+    }
+
+    @Test
+    @DisplayName("Registrar a instrução lenta com o endpoint e o tipo dos parâmetros, sem os valores")
+    public void deveRegistrarConsultaLenta() throws Exception {
+
+        ContadorSql contadorSql = new ContadorSql("log", 10);
+        ConsultasLentas consultasLentas = new ConsultasLentas(contadorSql, true, 200, 0);
+
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/postagens/7");
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/postagens/{id}");
+
+        contadorSql.iniciar(request);
+        try {
+            consultasLentas.afterQuery(execucao(350), List.of(consulta()));
+            consultasLentas.afterQuery(execucao(20), List.of(consulta()));
+        } finally {
+            contadorSql.finalizar();
+        }
+
+        assertEquals(1, registros.list.size());
+
+        String registro = registros.list.get(0).getFormattedMessage();
+
+        assertTrue(registro.startsWith("lenta 350 ms"));
+        assertTrue(registro.contains("endpoint=GET /postagens/{id}"));
+        assertTrue(registro.contains("parametros=[Long, String]"));
+        assertTrue(registro.contains("sql=" + SELECT_POSTAGEM));
+        assertFalse(registro.contains("segredo"));
+    }
+
+    @Test
+    @DisplayName("Registrar as instruções rápidas apenas por amostragem")
+    public void deveRegistrarAmostraDasConsultasRapidas() throws Exception {
+
+        ConsultasLentas todas = new ConsultasLentas(new ContadorSql("log", 10), true, 200, 1);
+        todas.afterQuery(execucao(5), List.of(consulta()));
+
+        assertEquals(1, registros.list.size());
+        assertTrue(registros.list.get(0).getFormattedMessage().startsWith("amostra 5 ms | endpoint=-"));
+
+        ConsultasLentas desabilitado = new ConsultasLentas(new ContadorSql("log", 10), false, 0, 1);
+        desabilitado.afterQuery(execucao(500), List.of(consulta()));
+
+        assertEquals(1, registros.list.size());
+    }
+
+    private static ExecutionInfo execucao(long tempoMs) {
+
+        ExecutionInfo execucao = new ExecutionInfo();
+        execucao.setElapsedTime(tempoMs);
+        execucao.setSuccess(true);
+
+        return execucao;
+    }
+
+    /* O segundo parâmetro é definido antes do primeiro: o formato segue a posição do "?" e não a ordem das chamadas. */
+    private static QueryInfo consulta() throws NoSuchMethodException {
+
+        QueryInfo consulta = new QueryInfo(SELECT_POSTAGEM);
+        consulta.getParametersList().add(List.of(
+                new ParameterSetOperation(PreparedStatement.class.getMethod("setString", int.class, String.class),
+                        new Object[] {2, "segredo"}),
+                new ParameterSetOperation(PreparedStatement.class.getMethod("setLong", int.class, long.class),
+                        new Object[] {1, 7L})));
+
+        return consulta;
+    }
+
+}
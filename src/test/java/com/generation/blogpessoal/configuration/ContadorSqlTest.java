@@ -0,0 +1,93 @@
+package com.generation.blogpessoal.configuration;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/* Testes da Classe ContadorSql sem o contexto do Spring e sem Banco de dados: as instruções são simuladas chamando o Método
+beforeQuery(), como faz o proxy do DataSource, dentro de uma requisição com o padrão e o Método do Controlador já escolhidos. */
+public class ContadorSqlTest {
+
+    private static final String SELECT_TEMA = "select t1_0.id,t1_0.descricao from tb_temas t1_0 where t1_0.id=?";
+
+    @Test
+    @DisplayName("Falhar na instrução que ultrapassa o orçamento e registrar o endpoint no relatório")
+    public void deveFalharAoUltrapassarOOrcamento() throws Exception {
+
+        ContadorSql contadorSql = new ContadorSql("falha", 10);
+
+        contadorSql.iniciar(requisicao("listarComOrcamento"));
+        try {
+            executar(contadorSql, "select count(*) from tb_postagem");
+            executar(contadorSql, SELECT_TEMA);
+
+            OrcamentoSqlExcedidoException erro = assertThrows(OrcamentoSqlExcedidoException.class,
+                    () -> executar(contadorSql, SELECT_TEMA));
+            assertTrue(erro.getMessage().contains("2x " + SELECT_TEMA));
+        } finally {
+            contadorSql.finalizar();
+        }
+
+        Map<String, Object> relatorio = contadorSql.relatorio().get("GET /temas/{id}");
+
+        assertEquals(3, contadorSql.ultima("GET /temas/{id}"));
+        assertEquals(2, relatorio.get("orcamento"));
+        assertEquals(1L, relatorio.get("excedidas"));
+    }
+
+    @Test
+    @DisplayName("Aplicar o orçamento padrão aos Métodos sem a anotação e apenas contar no modo log")
+    public void deveContarSemFalharNoModoLog() throws Exception {
+
+        ContadorSql contadorSql = new ContadorSql("log", 1);
+
+        contadorSql.iniciar(requisicao("listarSemOrcamento"));
+        executar(contadorSql, SELECT_TEMA);
+        executar(contadorSql, SELECT_TEMA);
+        contadorSql.finalizar();
+
+        /* Fora de uma requisição, as instruções não são contadas. */
+        executar(contadorSql, SELECT_TEMA);
+
+        Map<String, Object> relatorio = contadorSql.relatorio().get("GET /temas/{id}");
+
+        assertEquals(2, contadorSql.ultima("GET /temas/{id}"));
+        assertEquals(1, relatorio.get("orcamento"));
+        assertEquals(1L, relatorio.get("excedidas"));
+        assertEquals(List.of("2x " + SELECT_TEMA), relatorio.get("maisRepetidas"));
+    }
+
+    @OrcamentoSql(2)
+    public void listarComOrcamento() {
+    }
+
+    public void listarSemOrcamento() {
+    }
+
+    private MockHttpServletRequest requisicao(String metodo) throws NoSuchMethodException {
+
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/temas/1");
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/temas/{id}");
+        request.setAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE,
+                new HandlerMethod(this, ContadorSqlTest.class.getMethod(metodo)));
+
+        return request;
+    }
+
+    private static void executar(ContadorSql contadorSql, String sql) {
+        contadorSql.beforeQuery(new ExecutionInfo(), List.of(new QueryInfo(sql)));
+    }
+
+}
@@ -0,0 +1,85 @@
+package com.generation.blogpessoal.configuration;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/* Testes da Classe DataSourceRoteado sem o contexto do Spring, com dois Bancos de dados H2 em memória. A transação somente leitura
+é simulada marcando a thread no TransactionSynchronizationManager, como faz o gerenciador de transações do Spring. */
+public class DataSourceRoteadoTest {
+
+    private static final String PRIMARIO = "jdbc:h2:mem:roteado_primario";
+
+    private static final String REPLICA = "jdbc:h2:mem:roteado_replica";
+
+    @AfterEach
+    void limpar() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+    }
+
+    @Test
+    @DisplayName("Enviar apenas as transações somente leitura para a réplica e voltar ao primário quando ela falhar")
+    public void deveRotearLeiturasParaAReplica() throws SQLException {
+
+        HikariDataSource replica = pool(REPLICA);
+
+        try (DataSourceRoteado roteado = new DataSourceRoteado(pool(PRIMARIO), replica, "", 10, 3600000)) {
+
+            assertTrue(roteado.isReplicaDisponivel());
+            assertEquals(PRIMARIO, url(roteado));
+
+            TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+            assertEquals(REPLICA, url(roteado));
+
+            replica.close();
+
+            assertEquals(PRIMARIO, url(roteado));
+            assertFalse(roteado.isReplicaDisponivel());
+        }
+    }
+
+    @Test
+    @DisplayName("Considerar indisponível a réplica que não responde na inicialização")
+    public void deveIniciarComAReplicaIndisponivel() throws SQLException {
+
+        HikariDataSource replica = pool("jdbc:h2:mem:roteado_inexistente;IFEXISTS=TRUE");
+        replica.setInitializationFailTimeout(-1);
+
+        try (DataSourceRoteado roteado = new DataSourceRoteado(pool(PRIMARIO), replica, "", 10, 3600000)) {
+
+            assertFalse(roteado.isReplicaDisponivel());
+
+            TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+            assertEquals(PRIMARIO, url(roteado));
+        }
+    }
+
+    private static HikariDataSource pool(String url) {
+
+        HikariDataSource pool = new HikariDataSource();
+        pool.setJdbcUrl(url + ";DB_CLOSE_DELAY=-1");
+        pool.setUsername("sa");
+        pool.setPassword("sa");
+        pool.setConnectionTimeout(1000);
+
+        return pool;
+    }
+
+    private static String url(DataSourceRoteado roteado) throws SQLException {
+
+        try (Connection conexao = roteado.getConnection()) {
+            return conexao.getMetaData().getURL();
+        }
+    }
+
+}
@@ -0,0 +1,581 @@
+package com.generation.blogpessoal.controller;
+
+import com.generation.blogpessoal.configuration.ContadorSql;
+import com.generation.blogpessoal.model.Postagem;
+import com.generation.blogpessoal.model.Tema;
+import com.generation.blogpessoal.model.Usuario;
+import com.generation.blogpessoal.repository.PostagemRepository;
+import com.generation.blogpessoal.repository.TemaRepository;
+import com.generation.blogpessoal.repository.UsuarioRepository;
+import com.generation.blogpessoal.service.TemaService;
+import com.generation.blogpessoal.service.UsuarioService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.generation.blogpessoal.model.ResultadoIngestao;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+/* A propriedade hibernate.generate_statistics habilita as estatísticas do Hibernate, que contam quantas instruções SQL
+foram preparadas. Elas são utilizadas para garantir que as listagens de Postagens não voltem a executar uma consulta extra
+para cada Tema e cada Usuario (problema N+1). */
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class PostagemControllerTest {
+
+    private static final int QUANTIDADE_POSTAGENS = 300;
+
+    @Autowired
+    private TestRestTemplate testRestTemplate;
+
+    @Autowired
+    private UsuarioService usuarioService;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @Autowired
+    private TemaRepository temaRepository;
+
+    @Autowired
+    private PostagemRepository postagemRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ContadorSql contadorSql;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TemaService temaService;
+
+    @BeforeAll
+    void start() {
+        /* Apaga os dados das tabelas e cria 300 Postagens distribuídas entre 20 Temas e 10 Usuários, para que uma página de
+        Postagens tenha vários Temas e Usuários diferentes. */
+
+        postagemRepository.deleteAll();
+        temaRepository.deleteAll();
+        usuarioRepository.deleteAll();
+
+        usuarioService.cadastrarUsuario(new Usuario(0L,
+                "Root", "root@root.com", "rootroot", " "));
+
+        List<Tema> temas = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            Tema tema = new Tema();
+            tema.setDescricao("Tema " + i);
+            temas.add(temaRepository.save(tema));
+        }
+
+        List<Usuario> usuarios = new ArrayList<>();
+        for (int i = 0; i < 10; i++)
+            usuarios.add(usuarioRepository.save(new Usuario(0L,
+                    "Autor " + i, "autor" + i + "@email.com.br", "13465278", " ")));
+
+        List<Postagem> postagens = new ArrayList<>();
+        for (int i = 0; i < QUANTIDADE_POSTAGENS; i++) {
+            Postagem postagem = new Postagem();
+            postagem.setTitulo("Postagem " + i);
+            postagem.setTexto("Texto da postagem número " + i);
+            postagem.setTema(temas.get(i % temas.size()));
+            postagem.setUsuario(usuarios.get(i % usuarios.size()));
+            postagens.add(postagem);
+        }
+        postagemRepository.saveAll(postagens);
+
+        /* A primeira requisição autentica o usuário root no Banco de dados e guarda as credenciais no Cache,
+        para que as próximas requisições contem apenas as instruções SQL do próprio endpoint. */
+        listar("/postagens");
+    }
+
+    @Test
+    @DisplayName("Listar Postagens com um número constante de instruções SQL")
+    public void deveListarPostagensComUmaConsulta() {
+
+        Statistics estatisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        estatisticas.clear();
+
+        ResponseEntity<String> resposta = listar("/postagens?tamanho=100");
+
+        assertEquals(HttpStatus.OK, resposta.getStatusCode());
+        assertEquals(2, estatisticas.getPrepareStatementCount());
+        assertEquals(2, contadorSql.ultima("GET /postagens"));
+        /* Com o @EntityGraph, a página com 100 Postagens, 20 Temas e 10 Usuários diferentes é carregada em uma única instrução SQL.
+        A outra instrução é a consulta de agregação que calcula o ETag da listagem (VersaoService). */
+    }
+
+    @Test
+    @DisplayName("Listar Postagens por título com um número constante de instruções SQL")
+    public void deveListarPostagensPorTituloComUmaConsulta() throws IOException {
+
+        Statistics estatisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        estatisticas.clear();
+
+        ResponseEntity<String> resposta = listar("/postagens/titulo/postagem?tamanho=100");
+
+        assertEquals(HttpStatus.OK, resposta.getStatusCode());
+        assertEquals(2, estatisticas.getPrepareStatementCount());
+        assertEquals(2, contadorSql.ultima("GET /postagens/titulo/{titulo}"));
+
+        assertEquals(0, objectMapper.readTree(listar("/postagens/titulo/postagem_?tamanho=100").getBody())
+                .get("conteudo").size());
+        /* O _ é procurado no título, e não funciona como curinga do like. */
+    }
+
+    @Test
+    @DisplayName("Listar as Postagens de um Usuario e de um Tema, das mais recentes para as mais antigas")
+    public void deveListarPostagensPorUsuarioETema() throws IOException {
+
+        List<Postagem> todas = postagemRepository.findAll();
+        Usuario usuario = usuarioRepository.findByUsuario("autor3@email.com.br").get();
+        Tema tema = todas.get(0).getTema();
+
+        assertEquals(recentesPrimeiro(todas.stream()
+                        .filter(postagem -> postagem.getUsuario() != null)
+                        .filter(postagem -> Objects.equals(postagem.getUsuario().getId(), usuario.getId()))
+                        .toList()),
+                percorrer("/usuarios/" + usuario.getId() + "/postagens"));
+
+        assertEquals(recentesPrimeiro(todas.stream()
+                        .filter(postagem -> Objects.equals(postagem.getTema().getId(), tema.getId()))
+                        .toList()),
+                percorrer("/temas/" + tema.getId() + "/postagens"));
+
+        assertEquals(HttpStatus.NOT_FOUND, listar("/usuarios/0/postagens").getStatusCode());
+        assertEquals(HttpStatus.NOT_FOUND, listar("/temas/0/postagens").getStatusCode());
+
+        assertTrue(contadorSql.maximo("GET /usuarios/{id}/postagens") <= 3);
+        assertTrue(contadorSql.maximo("GET /temas/{id}/postagens") <= 3);
+        /* Cada página custa no máximo 3 instruções (existência, ETag e página), qualquer que seja o número de páginas percorridas. */
+    }
+
+    @Test
+    @DisplayName("Importar Postagens em lote rejeitando apenas as linhas inválidas")
+    public void deveImportarPostagensEmLote() {
+
+        Long tema = temaRepository.findAll().get(0).getId();
+        long quantidadeAntes = postagemRepository.count();
+
+        String corpo = String.join("\n",
+                "{\"titulo\": \"Lote 1\", \"texto\": \"Texto da primeira postagem do lote\", \"tema\": {\"id\": " + tema + "}}",
+                "{\"titulo\": \"L\", \"texto\": \"Título curto demais\", \"tema\": {\"id\": " + tema + "}}",
+                "{\"titulo\": \"Lote 3\", \"texto\": \"Postagem com um Tema que não existe\", \"tema\": {\"id\": 999999}}",
+                "isto não é JSON",
+                "",
+                "{\"titulo\": \"Lote 6\", \"texto\": \"Texto da última postagem do lote\", \"tema\": {\"id\": " + tema + "}}");
+
+        HttpHeaders cabecalhos = new HttpHeaders();
+        cabecalhos.setContentType(MediaType.parseMediaType("application/x-ndjson"));
+
+        ResponseEntity<ResultadoIngestao> resposta = testRestTemplate
+                .withBasicAuth("root@root.com", "rootroot")
+                .exchange("/postagens/lote", HttpMethod.POST, new HttpEntity<>(corpo, cabecalhos), ResultadoIngestao.class);
+
+        assertEquals(HttpStatus.OK, resposta.getStatusCode());
+        assertEquals(5, resposta.getBody().getLinhas());
+        assertEquals(2, resposta.getBody().getInseridas());
+        assertEquals(3, resposta.getBody().getRejeitadas());
+        assertEquals(List.of(2L, 3L, 4L), resposta.getBody().getErros().stream().map(erro -> erro.getLinha()).sorted().toList());
+        assertEquals(quantidadeAntes + 2, postagemRepository.count());
+    }
+
+    @Test
+    @DisplayName("Responder 400 quando o Tema guardado no Cache já foi apagado")
+    public void deveResponderBadRequestComTemaApagadoNoCache() {
+
+        Tema tema = new Tema();
+        tema.setDescricao("Tema apagado por outra instância");
+        tema = temaRepository.save(tema);
+
+        assertTrue(temaService.existePorId(tema.getId()));
+        temaRepository.deleteById(tema.getId());
+        /* Apagado direto no Banco de dados, como faria outra instância da aplicação: o Cache ainda diz que o Tema existe. */
+
+        Map<String, Object> corpo = Map.of("titulo", "Postagem órfã", "texto", "Texto da postagem sem Tema",
+                "tema", Map.of("id", tema.getId()));
+
+        ResponseEntity<String> resposta = testRestTemplate
+                .withBasicAuth("root@root.com", "rootroot")
+                .exchange("/postagens", HttpMethod.POST, new HttpEntity<>(corpo), String.class);
+
+        assertEquals(HttpStatus.BAD_REQUEST, resposta.getStatusCode());
+        assertFalse(temaService.existePorId(tema.getId()));
+    }
+
+    @Test
+    @DisplayName("Rejeitar apenas a linha recusada pelo Banco de dados, e não o lote inteiro")
+    public void deveRejeitarApenasALinhaRecusadaPeloBanco() {
+
+        Long tema = temaRepository.findAll().get(0).getId();
+        long quantidadeAntes = postagemRepository.count();
+
+        String corpo = String.join("\n",
+                "{\"titulo\": \"Aceita 1\", \"texto\": \"Texto da primeira postagem aceita\", \"tema\": {\"id\": " + tema + "}}",
+                "{\"titulo\": \"Aceita 2\", \"texto\": \"Texto da segunda postagem aceita\", \"tema\": {\"id\": " + tema + "}}",
+                "{\"titulo\": \"Recusada\", \"texto\": \"Válida, mas recusada pelo Banco de dados\", \"tema\": {\"id\": " + tema + "}}",
+                "{\"titulo\": \"Aceita 4\", \"texto\": \"Texto da quarta postagem aceita\", \"tema\": {\"id\": " + tema + "}}");
+
+        HttpHeaders cabecalhos = new HttpHeaders();
+        cabecalhos.setContentType(MediaType.parseMediaType("application/x-ndjson"));
+
+        /* Uma restrição criada só para o teste faz o Banco de dados recusar a terceira linha, que passa pela validação. */
+        jdbcTemplate.execute("alter table tb_postagem add constraint ck_teste_ingestao check (titulo <> 'Recusada')");
+
+        ResponseEntity<ResultadoIngestao> resposta;
+
+        try {
+            resposta = testRestTemplate
+                    .withBasicAuth("root@root.com", "rootroot")
+                    .exchange("/postagens/lote", HttpMethod.POST, new HttpEntity<>(corpo, cabecalhos), ResultadoIngestao.class);
+        } finally {
+            jdbcTemplate.execute("alter table tb_postagem drop constraint ck_teste_ingestao");
+        }
+
+        assertEquals(HttpStatus.OK, resposta.getStatusCode());
+        assertEquals(3, resposta.getBody().getInseridas());
+        assertEquals(1, resposta.getBody().getRejeitadas());
+        assertEquals(3L, resposta.getBody().getErros().get(0).getLinha());
+        assertEquals(quantidadeAntes + 3, postagemRepository.count());
+    }
+
+    @Test
+    @DisplayName("Exportar todas as Postagens em NDJSON e em CSV")
+    public void deveExportarPostagens() {
+
+        long quantidade = postagemRepository.count();
+
+        ResponseEntity<String> ndjson = listar("/postagens/export");
+
+        assertEquals(HttpStatus.OK, ndjson.getStatusCode());
+        assertEquals(quantidade, ndjson.getBody().lines().count());
+
+        ResponseEntity<String> csv = listar("/postagens/export?formato=csv");
+
+        assertEquals(HttpStatus.OK, csv.getStatusCode());
+        assertEquals(quantidade + 1, csv.getBody().lines().count());
+        assertEquals("id,titulo,texto,data,tema_id,tema_descricao,usuario_id,usuario_nome", csv.getBody().lines().findFirst().get());
+
+        assertEquals(HttpStatus.BAD_REQUEST, listar("/postagens/export?formato=xml").getStatusCode());
+    }
+
+    @Test
+    @DisplayName("Responder 304 quando a Postagem não mudou desde a última consulta")
+    public void deveResponderNaoModificadoComEtag() {
+
+        Postagem postagem = postagemRepository.findAll().get(0);
+
+        ResponseEntity<String> primeira = listar("/postagens/" + postagem.getId());
+        String etag = primeira.getHeaders().getETag();
+
+        assertEquals(HttpStatus.OK, primeira.getStatusCode());
+        assertEquals(HttpStatus.NOT_MODIFIED, listarCondicional("/postagens/" + postagem.getId(), etag).getStatusCode());
+
+        Statistics estatisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        estatisticas.clear();
+
+        String etagLista = listar("/postagens").getHeaders().getETag();
+        estatisticas.clear();
+
+        assertEquals(HttpStatus.NOT_MODIFIED, listarCondicional("/postagens", etagLista).getStatusCode());
+        assertEquals(0, estatisticas.getEntityLoadCount());
+        /* A resposta 304 é decidida apenas com a consulta de agregação, sem carregar nenhuma Postagem. */
+
+        postagem.setTexto("Texto da postagem alterado");
+        postagemRepository.save(postagem);
+
+        assertEquals(HttpStatus.OK, listarCondicional("/postagens/" + postagem.getId(), etag).getStatusCode());
+        assertEquals(HttpStatus.OK, listarCondicional("/postagens", etagLista).getStatusCode());
+    }
+
+    @Test
+    @DisplayName("Mudar o ETag da listagem quando uma Postagem antiga é apagada")
+    public void deveMudarEtagDaListagemAoApagarPostagem() {
+
+        Postagem antiga = postagemRepository.findAll().get(0);
+
+        Postagem apagada = new Postagem();
+        apagada.setTitulo("Postagem apagada");
+        apagada.setTexto("Texto da postagem apagada");
+        apagada.setTema(antiga.getTema());
+        apagada = postagemRepository.save(apagada);
+
+        Postagem recente = new Postagem();
+        recente.setTitulo("Postagem mais recente");
+        recente.setTexto("Texto da postagem mais recente");
+        recente.setTema(antiga.getTema());
+        postagemRepository.save(recente);
+
+        String etagLista = listar("/postagens").getHeaders().getETag();
+
+        ResponseEntity<String> resposta = testRestTemplate
+                .withBasicAuth("root@root.com", "rootroot")
+                .exchange("/postagens/" + apagada.getId(), HttpMethod.DELETE, null, String.class);
+
+        assertEquals(HttpStatus.NO_CONTENT, resposta.getStatusCode());
+        assertEquals(HttpStatus.OK, listarCondicional("/postagens", etagLista).getStatusCode());
+        /* A maior data e o maior id continuam os mesmos: quem muda o ETag é o contador de exclusões. */
+    }
+
+    @Test
+    @DisplayName("Manter o ETag das Postagens de um Usuario e de um Tema quando outra Postagem é gravada")
+    public void deveLimitarEtagAoFiltroDaListagem() {
+
+        Usuario usuario = usuarioRepository.findByUsuario("autor5@email.com.br").get();
+        Usuario outro = usuarioRepository.findByUsuario("autor6@email.com.br").get();
+        Tema tema = temaRepository.findAll().get(7);
+        Tema outroTema = temaRepository.findAll().get(8);
+
+        String etagUsuario = listar("/usuarios/" + usuario.getId() + "/postagens").getHeaders().getETag();
+        String etagTema = listar("/temas/" + tema.getId() + "/postagens").getHeaders().getETag();
+
+        Postagem alheia = new Postagem();
+        alheia.setTitulo("Postagem de outro Usuario");
+        alheia.setTexto("Texto de outro Usuario em outro Tema");
+        alheia.setTema(outroTema);
+        alheia.setUsuario(outro);
+        postagemRepository.save(alheia);
+
+        assertEquals(HttpStatus.NOT_MODIFIED,
+                listarCondicional("/usuarios/" + usuario.getId() + "/postagens", etagUsuario).getStatusCode());
+        assertEquals(HttpStatus.NOT_MODIFIED,
+                listarCondicional("/temas/" + tema.getId() + "/postagens", etagTema).getStatusCode());
+
+        Postagem propria = new Postagem();
+        propria.setTitulo("Postagem do Usuario no Tema");
+        propria.setTexto("Texto do Usuario no Tema");
+        propria.setTema(tema);
+        propria.setUsuario(usuario);
+        postagemRepository.save(propria);
+
+        assertEquals(HttpStatus.OK,
+                listarCondicional("/usuarios/" + usuario.getId() + "/postagens", etagUsuario).getStatusCode());
+        assertEquals(HttpStatus.OK,
+                listarCondicional("/temas/" + tema.getId() + "/postagens", etagTema).getStatusCode());
+    }
+
+    @Test
+    @DisplayName("Não enviar Last-Modified nas listagens: a exclusão de uma Postagem não altera a maior data")
+    public void naoDeveEnviarLastModifiedNasListagens() {
+
+        Postagem postagem = postagemRepository.findAll().get(0);
+
+        assertTrue(listar("/postagens/" + postagem.getId()).getHeaders().getLastModified() > 0);
+        assertEquals(-1, listar("/postagens").getHeaders().getLastModified());
+
+        HttpHeaders cabecalhos = new HttpHeaders();
+        cabecalhos.setIfModifiedSince(System.currentTimeMillis());
+
+        ResponseEntity<String> resposta = testRestTemplate
+                .withBasicAuth("root@root.com", "rootroot")
+                .exchange("/postagens", HttpMethod.GET, new HttpEntity<>(cabecalhos), String.class);
+
+        assertEquals(HttpStatus.OK, resposta.getStatusCode());
+        /* Sem Last-Modified, o If-Modified-Since é ignorado e a resposta depende apenas do ETag. */
+    }
+
+    @Test
+    @DisplayName("Responder em CBOR quando o cliente envia Accept: application/cbor")
+    public void deveResponderEmCbor() throws IOException {
+
+        Postagem postagem = postagemRepository.findAll().get(0);
+
+        HttpHeaders cabecalhos = new HttpHeaders();
+        cabecalhos.setAccept(List.of(MediaType.parseMediaType("application/cbor")));
+
+        ResponseEntity<byte[]> resposta = testRestTemplate
+                .withBasicAuth("root@root.com", "rootroot")
+                .exchange("/postagens/" + postagem.getId(), HttpMethod.GET, new HttpEntity<>(cabecalhos), byte[].class);
+
+        assertEquals(HttpStatus.OK, resposta.getStatusCode());
+        assertEquals(MediaType.parseMediaType("application/cbor"), resposta.getHeaders().getContentType());
+        assertEquals(postagem.getTitulo(), new CBORMapper().readValue(resposta.getBody(), Map.class).get("titulo"));
+        assertNotEquals(listar("/postagens/" + postagem.getId()).getHeaders().getETag(), resposta.getHeaders().getETag());
+        /* O JSON e o CBOR são representações diferentes da mesma Postagem, por isso não podem ter o mesmo ETag. */
+    }
+
+    @Test
+    @DisplayName("Derivar o ETag do formato negociado, respeitando a qualidade (q) do cabeçalho Accept")
+    public void deveDerivarEtagDoFormatoNegociado() {
+
+        Postagem postagem = postagemRepository.findAll().get(0);
+        String endereco = "/postagens/" + postagem.getId();
+        String etagJson = listar(endereco).getHeaders().getETag();
+
+        ResponseEntity<byte[]> preferindoJson = listarNoFormato(endereco, "application/cbor;q=0.5, application/json", null);
+
+        assertEquals(MediaType.APPLICATION_JSON, preferindoJson.getHeaders().getContentType());
+        assertEquals(etagJson, preferindoJson.getHeaders().getETag());
+        assertTrue(preferindoJson.getHeaders().getVary().contains(HttpHeaders.ACCEPT));
+
+        ResponseEntity<byte[]> preferindoCbor = listarNoFormato(endereco, "application/json;q=0.5, application/cbor", null);
+        String etagCbor = preferindoCbor.getHeaders().getETag();
+
+        assertEquals(MediaType.parseMediaType("application/cbor"), preferindoCbor.getHeaders().getContentType());
+        assertNotEquals(etagJson, etagCbor);
+
+        assertEquals(HttpStatus.NOT_MODIFIED,
+                listarNoFormato(endereco, "application/json;q=0.5, application/cbor", etagCbor).getStatusCode());
+        assertEquals(HttpStatus.OK, listarNoFormato(endereco, "application/json", etagCbor).getStatusCode());
+        /* O ETag do CBOR não vale para uma resposta em JSON. */
+    }
+
+    @Test
+    @DisplayName("Atualizar a Postagem com uma instrução SQL e recusar as versões desatualizadas")
+    public void deveAtualizarComControleDeVersao() throws IOException {
+
+        Postagem postagem = postagemRepository.findAll().get(1);
+        String etag = listar("/postagens/" + postagem.getId()).getHeaders().getETag();
+
+        Map<String, Object> corpo = new HashMap<>(Map.of("id", postagem.getId(), "titulo", "Postagem editada",
+                "texto", "Texto da postagem editado", "tema", Map.of("id", postagem.getTema().getId()),
+                "usuario", Map.of("id", postagem.getUsuario().getId())));
+
+        ResponseEntity<String> primeira = atualizar(corpo, etag);
+
+        assertEquals(HttpStatus.OK, primeira.getStatusCode());
+        assertEquals(postagem.getVersao() + 1, objectMapper.readTree(primeira.getBody()).get("versao").asLong());
+
+        /* O mesmo ETag (ou a mesma versao no corpo) agora está desatualizado: a segunda edição não apaga a primeira. */
+        assertEquals(HttpStatus.PRECONDITION_FAILED, atualizar(corpo, etag).getStatusCode());
+
+        corpo.put("versao", postagem.getVersao());
+        assertEquals(HttpStatus.CONFLICT, atualizar(corpo, null).getStatusCode());
+
+        corpo.put("versao", postagem.getVersao() + 1);
+        corpo.put("texto", "Texto da postagem editado de novo");
+
+        assertEquals(HttpStatus.OK, atualizar(corpo, null).getStatusCode());
+        assertEquals(2, contadorSql.ultima("PUT /postagens"));
+        /* O select do Tema e do Usuario anteriores (estatísticas) e a instrução update: o Tema já está no Cache da Classe
+        TemaService e a Postagem não é carregada inteira antes. */
+
+        Postagem gravada = postagemRepository.findById(postagem.getId()).get();
+        assertEquals("Texto da postagem editado de novo", gravada.getTexto());
+        assertEquals(postagem.getVersao() + 2, gravada.getVersao());
+
+        corpo.put("id", 0L);
+        assertEquals(HttpStatus.NOT_FOUND, atualizar(corpo, null).getStatusCode());
+
+        /* O Tema enviado apenas com o id (sem a versão) continua aceito na criação de uma Postagem. */
+        corpo.remove("id");
+        corpo.remove("versao");
+        ResponseEntity<String> criada = testRestTemplate
+                .withBasicAuth("root@root.com", "rootroot")
+                .exchange("/postagens", HttpMethod.POST, new HttpEntity<>(corpo), String.class);
+
+        assertEquals(HttpStatus.CREATED, criada.getStatusCode());
+        assertEquals(0, objectMapper.readTree(criada.getBody()).get("versao").asLong());
+    }
+
+    @AfterAll
+    public void end() {
+        postagemRepository.deleteAll();
+        temaRepository.deleteAll();
+    }
+
+    /* Percorre todas as páginas (de 4 em 4 Postagens) e devolve os ids na ordem em que foram recebidos. */
+    private List<Long> percorrer(String endereco) throws IOException {
+
+        List<Long> ids = new ArrayList<>();
+        String cursor = null;
+
+        do {
+            ResponseEntity<String> resposta = listar(endereco + "?tamanho=4" + (cursor == null ? "" : "&cursor=" + cursor));
+            assertEquals(HttpStatus.OK, resposta.getStatusCode());
+
+            JsonNode pagina = objectMapper.readTree(resposta.getBody());
+            pagina.get("conteudo").forEach(postagem -> ids.add(postagem.get("id").asLong()));
+            cursor = pagina.get("proximoCursor").isNull() ? null : pagina.get("proximoCursor").asText();
+        } while (cursor != null);
+
+        return ids;
+    }
+
+    private static List<Long> recentesPrimeiro(List<Postagem> postagens) {
+        return postagens.stream()
+                .sorted(Comparator.comparing(Postagem::getData).thenComparing(Postagem::getId).reversed())
+                .map(Postagem::getId)
+                .toList();
+    }
+
+    private ResponseEntity<byte[]> listarNoFormato(String endereco, String accept, String etag) {
+
+        HttpHeaders cabecalhos = new HttpHeaders();
+        cabecalhos.set(HttpHeaders.ACCEPT, accept);
+
+        if (etag != null)
+            cabecalhos.setIfNoneMatch(etag);
+
+        return testRestTemplate
+                .withBasicAuth("root@root.com", "rootroot")
+                .exchange(endereco, HttpMethod.GET, new HttpEntity<>(cabecalhos), byte[].class);
+    }
+
+    private ResponseEntity<String> listarCondicional(String endereco, String etag) {
+
+        HttpHeaders cabecalhos = new HttpHeaders();
+        cabecalhos.setIfNoneMatch(etag);
+
+        return testRestTemplate
+                .withBasicAuth("root@root.com", "rootroot")
+                .exchange(endereco, HttpMethod.GET, new HttpEntity<>(cabecalhos), String.class);
+    }
+
+    private ResponseEntity<String> atualizar(Map<String, Object> corpo, String ifMatch) {
+
+        HttpHeaders cabecalhos = new HttpHeaders();
+
+        if (ifMatch != null)
+            cabecalhos.setIfMatch(ifMatch);
+
+        return testRestTemplate
+                .withBasicAuth("root@root.com", "rootroot")
+                .exchange("/postagens", HttpMethod.PUT, new HttpEntity<>(corpo, cabecalhos), String.class);
+    }
+
+    private ResponseEntity<String> listar(String endereco) {
+        return testRestTemplate
+                .withBasicAuth("root@root.com", "rootroot")
+                .exchange(endereco, HttpMethod.GET, null, String.class);
+    }
+
+}
@@ -0,0 +1,148 @@
+package com.generation.blogpessoal.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.generation.blogpessoal.model.Postagem;
+import com.generation.blogpessoal.model.Tema;
+import com.generation.blogpessoal.model.Usuario;
+import com.generation.blogpessoal.repository.PostagemRepository;
+import com.generation.blogpessoal.repository.TemaRepository;
+import com.generation.blogpessoal.repository.UsuarioRepository;
+import com.generation.blogpessoal.service.UsuarioService;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+/* Os testes da Classe PostagemReativaController utilizam o driver R2DBC do H2 (spring.r2dbc.url no arquivo application.properties
+de testes), que acessa o mesmo Banco de dados em memória onde o JPA grava as Postagens. */
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class PostagemReativaControllerTest {
+
+    private static final int QUANTIDADE_POSTAGENS = 25;
+
+    @Autowired
+    private TestRestTemplate testRestTemplate;
+
+    @Autowired
+    private UsuarioService usuarioService;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @Autowired
+    private TemaRepository temaRepository;
+
+    @Autowired
+    private PostagemRepository postagemRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @BeforeAll
+    void start() {
+
+        postagemRepository.deleteAll();
+        temaRepository.deleteAll();
+        usuarioRepository.deleteAll();
+
+        Usuario usuario = usuarioService.cadastrarUsuario(new Usuario(0L,
+                "Root", "root@root.com", "rootroot", " ")).get();
+
+        Tema tema = new Tema();
+        tema.setDescricao("Reativo");
+        tema = temaRepository.save(tema);
+
+        List<Postagem> postagens = new ArrayList<>();
+        for (int i = 0; i < QUANTIDADE_POSTAGENS; i++) {
+            Postagem postagem = new Postagem();
+            postagem.setTitulo(i % 2 == 0 ? "Postagem azul " + i : "Postagem verde " + i);
+            postagem.setTexto("Texto da postagem número " + i);
+            postagem.setTema(tema);
+            postagem.setUsuario(usuario);
+            postagens.add(postagem);
+        }
+        postagemRepository.saveAll(postagens);
+    }
+
+    @Test
+    @DisplayName("Listar as Postagens pela API reativa na mesma ordem da API tradicional")
+    public void deveListarPostagensComCursor() throws Exception {
+
+        List<Long> reativas = new ArrayList<>();
+        String cursor = null;
+
+        do {
+            JsonNode pagina = ler(consultar("/reativo/postagens?tamanho=10" + (cursor == null ? "" : "&cursor=" + cursor)));
+            pagina.get("conteudo").forEach(postagem -> reativas.add(postagem.get("id").asLong()));
+            cursor = pagina.get("proximoCursor").isNull() ? null : pagina.get("proximoCursor").asText();
+        } while (cursor != null);
+
+        List<Long> tradicionais = new ArrayList<>();
+        ler(consultar("/postagens?tamanho=100")).get("conteudo")
+                .forEach(postagem -> tradicionais.add(postagem.get("id").asLong()));
+
+        assertEquals(QUANTIDADE_POSTAGENS, reativas.size());
+        assertEquals(tradicionais, reativas);
+    }
+
+    @Test
+    @DisplayName("Buscar uma Postagem por id pela API reativa")
+    public void deveBuscarPostagemPorId() throws Exception {
+
+        Postagem postagem = postagemRepository.findAll().get(0);
+
+        JsonNode resposta = ler(consultar("/reativo/postagens/" + postagem.getId()));
+
+        assertEquals(postagem.getTitulo(), resposta.get("titulo").asText());
+        assertEquals("Reativo", resposta.get("tema").get("descricao").asText());
+        assertTrue(resposta.get("usuario").get("senha").isNull());
+
+        assertEquals(HttpStatus.NOT_FOUND, consultar("/reativo/postagens/0").getStatusCode());
+    }
+
+    @Test
+    @DisplayName("Buscar Postagens por título pela API reativa")
+    public void deveBuscarPostagensPorTitulo() throws Exception {
+
+        JsonNode pagina = ler(consultar("/reativo/postagens/titulo/AZUL?tamanho=100"));
+
+        assertEquals(13, pagina.get("conteudo").size());
+
+        assertEquals(0, ler(consultar("/reativo/postagens/titulo/azul_?tamanho=100")).get("conteudo").size());
+        /* O _ é procurado no título, e não funciona como curinga do like (o mesmo vale para o %). */
+    }
+
+    @AfterAll
+    public void end() {
+        postagemRepository.deleteAll();
+        temaRepository.deleteAll();
+    }
+
+    private ResponseEntity<String> consultar(String endereco) {
+        return testRestTemplate
+                .withBasicAuth("root@root.com", "rootroot")
+                .exchange(endereco, HttpMethod.GET, null, String.class);
+    }
+
+    private JsonNode ler(ResponseEntity<String> resposta) throws Exception {
+        assertEquals(HttpStatus.OK, resposta.getStatusCode());
+        return objectMapper.readTree(resposta.getBody());
+    }
+
+}
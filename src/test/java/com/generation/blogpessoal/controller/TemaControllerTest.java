@@ -0,0 +1,316 @@
+package com.generation.blogpessoal.controller;
+
+import com.generation.blogpessoal.configuration.ContadorSql;
+import com.generation.blogpessoal.model.Postagem;
+import com.generation.blogpessoal.model.Tema;
+import com.generation.blogpessoal.model.Usuario;
+import com.generation.blogpessoal.repository.PostagemRepository;
+import com.generation.blogpessoal.repository.TemaRepository;
+import com.generation.blogpessoal.repository.UsuarioRepository;
+import com.generation.blogpessoal.service.EstatisticasService;
+import com.generation.blogpessoal.service.UsuarioService;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+/* Os testes conferem o número de instruções SQL de cada requisição com a Classe ContadorSql. Nos testes, o orçamento está no
+modo "falha" (application.properties): uma consulta N+1 nas associações entre Tema, Postagem e Usuario faz a requisição
+responder 500 e o teste falhar, antes mesmo das asserções de contagem. */
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class TemaControllerTest {
+
+    private static final int QUANTIDADE_TEMAS = 30;
+
+    @Autowired
+    private TestRestTemplate testRestTemplate;
+
+    @Autowired
+    private UsuarioService usuarioService;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @Autowired
+    private TemaRepository temaRepository;
+
+    @Autowired
+    private PostagemRepository postagemRepository;
+
+    @Autowired
+    private ContadorSql contadorSql;
+
+    @Autowired
+    private EstatisticasService estatisticasService;
+
+    private List<Tema> temas = new ArrayList<>();
+
+    @BeforeAll
+    void start() {
+        /* Apaga os dados das tabelas e cria 30 Temas com 5 Postagens cada, escritas por 10 Usuários diferentes. */
+
+        postagemRepository.deleteAll();
+        temaRepository.deleteAll();
+        usuarioRepository.deleteAll();
+
+        usuarioService.cadastrarUsuario(new Usuario(0L,
+                "Root", "root@root.com", "rootroot", " "));
+
+        List<Usuario> usuarios = new ArrayList<>();
+        for (int i = 0; i < 10; i++)
+            usuarios.add(usuarioRepository.save(new Usuario(0L,
+                    "Autor " + i, "autor" + i + "@email.com.br", "13465278", " ")));
+
+        List<Postagem> postagens = new ArrayList<>();
+        for (int i = 0; i < QUANTIDADE_TEMAS; i++) {
+            Tema tema = new Tema();
+            tema.setDescricao("Tema " + i);
+            temas.add(temaRepository.save(tema));
+
+            for (int j = 0; j < 5; j++) {
+                Postagem postagem = new Postagem();
+                postagem.setTitulo("Postagem " + i + "." + j);
+                postagem.setTexto("Texto da postagem " + j + " do tema " + i);
+                postagem.setTema(tema);
+                postagem.setUsuario(usuarios.get((i + j) % usuarios.size()));
+                postagens.add(postagem);
+            }
+        }
+        postagemRepository.saveAll(postagens);
+
+        /* As Postagens foram gravadas direto no repositório, sem passar pelo Controlador: as estatísticas são reconstruídas. */
+        estatisticasService.reconstruir();
+
+        /* A primeira requisição autentica o usuário root no Banco de dados e guarda as credenciais no Cache. */
+        listar("/temas");
+    }
+
+    @Test
+    @DisplayName("Listar o resumo dos Temas com duas instruções SQL")
+    public void deveListarResumosDosTemas() {
+
+        ResponseEntity<String> resposta = listar("/temas?tamanho=100");
+
+        assertEquals(HttpStatus.OK, resposta.getStatusCode());
+        assertEquals(2, contadorSql.ultima("GET /temas"));
+        /* A consulta do ETag e a consulta dos resumos (a quantidade de Postagens é uma subconsulta do mesmo SELECT). */
+    }
+
+    @Test
+    @DisplayName("Listar os Temas completos sem uma consulta por Tema")
+    public void deveListarTemasCompletosSemConsultaPorTema() {
+
+        ResponseEntity<String> resposta = listar("/temas?tamanho=100&completo=true");
+
+        assertEquals(HttpStatus.OK, resposta.getStatusCode());
+        assertTrue(contadorSql.ultima("GET /temas") <= 4);
+        /* ETag, Temas, Postagens dos 30 Temas e Usuários das Postagens: as Postagens e os Usuários são carregados em lotes
+        (default_batch_fetch_size), por isso a contagem não cresce com o número de Temas da página. */
+    }
+
+    @Test
+    @DisplayName("Listar as Postagens de um Tema dentro do orçamento de instruções SQL")
+    public void deveListarPostagensDoTemaDentroDoOrcamento() {
+
+        Tema tema = temas.get(0);
+
+        ResponseEntity<String> resposta = listar("/temas/" + tema.getId() + "/postagens");
+
+        assertEquals(HttpStatus.OK, resposta.getStatusCode());
+        assertTrue(contadorSql.ultima("GET /temas/{id}/postagens") <= 3);
+        assertEquals(HttpStatus.NOT_FOUND, listar("/temas/0/postagens").getStatusCode());
+    }
+
+    @Test
+    @DisplayName("Buscar um Tema com as suas Postagens sem uma consulta por Postagem")
+    public void deveBuscarTemaPorId() {
+
+        Tema tema = temas.get(1);
+
+        ResponseEntity<String> resposta = listar("/temas/" + tema.getId());
+
+        assertEquals(HttpStatus.OK, resposta.getStatusCode());
+        assertTrue(contadorSql.ultima("GET /temas/{id}") <= 4);
+        /* ETag, Tema, Postagens do Tema e os Usuários das Postagens (em um único lote). */
+    }
+
+    @Test
+    @DisplayName("Atualizar o Tema apenas na versão atual")
+    public void deveAtualizarTemaNaVersaoAtual() {
+
+        Tema tema = temaRepository.findById(temas.get(2).getId()).get();
+
+        Map<String, Object> corpo = new HashMap<>(Map.of("id", tema.getId(), "descricao", "Tema editado",
+                "versao", tema.getVersao()));
+
+        assertEquals(HttpStatus.CREATED, atualizar(corpo).getStatusCode());
+        assertEquals(HttpStatus.CONFLICT, atualizar(corpo).getStatusCode());
+        assertEquals(tema.getVersao() + 1, temaRepository.findById(tema.getId()).get().getVersao());
+
+        corpo.put("id", 0L);
+        assertEquals(HttpStatus.NOT_FOUND, atualizar(corpo).getStatusCode());
+    }
+
+    @Test
+    @DisplayName("Apagar o Tema e as suas Postagens com uma instrução por tabela")
+    public void deveApagarTemaComAsPostagens() {
+
+        Tema tema = temas.get(3);
+
+        assertEquals(HttpStatus.NO_CONTENT, apagar("/temas/" + tema.getId()).getStatusCode());
+        assertEquals(4, contadorSql.ultima("DELETE /temas/{id}"));
+        /* Os ids das Postagens (índice de busca), o delete das Postagens, o delete do Tema e o contador de exclusões (ETag das
+        listagens). */
+
+        assertTrue(postagemRepository.findReferenciasByTema(tema.getId(), PageRequest.of(0, 10)).isEmpty());
+        assertEquals(HttpStatus.NOT_FOUND, apagar("/temas/" + tema.getId()).getStatusCode());
+        assertEquals(HttpStatus.NOT_FOUND, listar("/temas/" + tema.getId() + "/postagens").getStatusCode());
+    }
+
+    @Test
+    @DisplayName("Apagar em segundo plano o Tema com mais Postagens do que o limite síncrono")
+    public void deveApagarTemaComMuitasPostagensEmSegundoPlano() throws InterruptedException {
+
+        /* Nos testes, blogpessoal.exclusao.limite-sincrono=20 e tamanho-lote=10: as 25 Postagens são apagadas em três lotes. */
+        Tema tema = new Tema();
+        tema.setDescricao("Tema com muitas Postagens");
+        temaRepository.save(tema);
+
+        Usuario usuario = usuarioRepository.findByUsuario("root@root.com").get();
+        List<Postagem> postagens = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            Postagem postagem = new Postagem();
+            postagem.setTitulo("Postagem em lote " + i);
+            postagem.setTexto("Texto da postagem em lote " + i);
+            postagem.setTema(tema);
+            postagem.setUsuario(usuario);
+            postagens.add(postagem);
+        }
+        postagemRepository.saveAll(postagens);
+
+        ResponseEntity<String> resposta = apagar("/temas/" + tema.getId());
+
+        assertEquals(HttpStatus.ACCEPTED, resposta.getStatusCode());
+        assertEquals("/temas/" + tema.getId() + "/exclusao", resposta.getHeaders().getLocation().toString());
+
+        String andamento = "";
+        for (int tentativa = 0; tentativa < 100 && !andamento.contains("CONCLUIDA"); tentativa++) {
+            Thread.sleep(50);
+            andamento = listar("/temas/" + tema.getId() + "/exclusao").getBody();
+        }
+
+        assertTrue(andamento.contains("\"situacao\":\"CONCLUIDA\""));
+        assertTrue(andamento.contains("\"postagensApagadas\":25"));
+        assertFalse(temaRepository.existsById(tema.getId()));
+    }
+
+    @Test
+    @DisplayName("Manter as estatísticas do Tema a cada Postagem criada e apagada, sem instruções SQL na leitura")
+    public void deveManterEstatisticasDoTema() {
+
+        String tema = String.valueOf(temas.get(4).getId());
+
+        Map<String, Object> estatisticas = estatisticasDoTema(tema);
+
+        assertEquals(0, contadorSql.ultima("GET /temas/estatisticas"));
+        assertEquals(5, estatisticas.get("postagens"));
+        assertEquals(5, estatisticas.get("autoresDistintos"));
+        /* As 5 Postagens de cada Tema foram escritas por 5 Usuários diferentes (ver start()). */
+
+        Map<String, Object> corpo = Map.of("titulo", "Postagem nova", "texto", "Texto da postagem nova",
+                "tema", Map.of("id", temas.get(4).getId()));
+        ResponseEntity<Map> criada = testRestTemplate
+                .withBasicAuth("root@root.com", "rootroot")
+                .exchange("/postagens", HttpMethod.POST, new HttpEntity<>(corpo), Map.class);
+
+        assertEquals(HttpStatus.CREATED, criada.getStatusCode());
+        assertEquals(6, estatisticasDoTema(tema).get("postagens"));
+
+        assertEquals(HttpStatus.NO_CONTENT, apagar("/postagens/" + criada.getBody().get("id")).getStatusCode());
+        assertEquals(5, estatisticasDoTema(tema).get("postagens"));
+    }
+
+    @Test
+    @DisplayName("Mover a Postagem atualizada para outro Tema nas estatísticas")
+    public void deveMoverPostagemEntreTemasNasEstatisticas() {
+
+        String origem = String.valueOf(temas.get(5).getId());
+        String destino = String.valueOf(temas.get(6).getId());
+
+        Map<String, Object> corpo = new HashMap<>(Map.of("titulo", "Postagem movida", "texto", "Texto da postagem movida",
+                "tema", Map.of("id", temas.get(5).getId())));
+        ResponseEntity<Map> criada = testRestTemplate
+                .withBasicAuth("root@root.com", "rootroot")
+                .exchange("/postagens", HttpMethod.POST, new HttpEntity<>(corpo), Map.class);
+
+        assertEquals(HttpStatus.CREATED, criada.getStatusCode());
+        assertEquals(6, estatisticasDoTema(origem).get("postagens"));
+        assertEquals(5, estatisticasDoTema(destino).get("postagens"));
+
+        corpo.put("id", criada.getBody().get("id"));
+        corpo.put("tema", Map.of("id", temas.get(6).getId()));
+        ResponseEntity<Map> atualizada = testRestTemplate
+                .withBasicAuth("root@root.com", "rootroot")
+                .exchange("/postagens", HttpMethod.PUT, new HttpEntity<>(corpo), Map.class);
+
+        assertEquals(HttpStatus.OK, atualizada.getStatusCode());
+        assertEquals(5, estatisticasDoTema(origem).get("postagens"));
+        assertEquals(6, estatisticasDoTema(destino).get("postagens"));
+
+        assertEquals(HttpStatus.NO_CONTENT, apagar("/postagens/" + criada.getBody().get("id")).getStatusCode());
+        assertEquals(5, estatisticasDoTema(destino).get("postagens"));
+    }
+
+    @AfterAll
+    public void end() {
+        postagemRepository.deleteAll();
+        temaRepository.deleteAll();
+    }
+
+    private ResponseEntity<String> atualizar(Map<String, Object> corpo) {
+        return testRestTemplate
+                .withBasicAuth("root@root.com", "rootroot")
+                .exchange("/temas", HttpMethod.PUT, new HttpEntity<>(corpo), String.class);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> estatisticasDoTema(String id) {
+        return (Map<String, Object>) testRestTemplate
+                .withBasicAuth("root@root.com", "rootroot")
+                .exchange("/temas/estatisticas", HttpMethod.GET, null, Map.class)
+                .getBody().get(id);
+    }
+
+    private ResponseEntity<String> apagar(String endereco) {
+        return testRestTemplate
+                .withBasicAuth("root@root.com", "rootroot")
+                .exchange(endereco, HttpMethod.DELETE, null, String.class);
+    }
+
+    private ResponseEntity<String> listar(String endereco) {
+        return testRestTemplate
+                .withBasicAuth("root@root.com", "rootroot")
+                .exchange(endereco, HttpMethod.GET, null, String.class);
+    }
+
+}
@@ -1,7 +1,11 @@
 package com.generation.blogpessoal.controller;
 
+import com.generation.blogpessoal.configuration.ContadorSql;
 import com.generation.blogpessoal.model.Usuario;
+import com.generation.blogpessoal.model.UsuarioLogin;
 import com.generation.blogpessoal.repository.UsuarioRepository;
+import com.generation.blogpessoal.security.SenhaEncoder;
+import com.generation.blogpessoal.security.TokenService;
 import com.generation.blogpessoal.service.UsuarioService;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.DisplayName;
@@ -11,13 +15,18 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.web.client.TestRestTemplate;
 import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
 /* A anotação @SpringBootTest indica que a Classe UsuarioControllerTest é uma Classe Spring Boot Testing.
@@ -40,6 +49,13 @@ public class UsuarioControllerTest {
     private UsuarioRepository usuarioRepository;
     /* Foi injetado (@Autowired), um objeto da Interface UsuarioRepository para limpar o Banco de dados de testes. */
 
+    @Autowired
+    private ContadorSql contadorSql;
+
+    @Autowired
+    private TokenService tokenService;
+    /* Foi injetado (@Autowired), um objeto da Classe ContadorSql para conferir quantas instruções SQL cada requisição executou. */
+
     @BeforeAll
     void start() {
         /* o Método start(), anotado com a anotação @BeforeAll, apaga todos os dados da tabela e cria o usuário root@root.com
@@ -198,6 +214,127 @@ Atributos que serão comparados. */
                 .exchange("/usuarios/all", HttpMethod.GET, null, String.class);
 
         assertEquals(HttpStatus.OK, resposta.getStatusCode());
+        assertEquals(1, contadorSql.ultima("GET /usuarios/all"));
+        /* O resumo dos Usuários é lido em uma única consulta, sem carregar as Postagens de cada Usuario. */
+    }
+
+    @Test
+    @DisplayName("Limitar as tentativas de login e de autenticação Http Basic com senha errada")
+    public void deveLimitarTentativasComSenhaErrada() {
+
+        usuarioService.cadastrarUsuario(new Usuario(0L,
+                "Limite", "limite@email.com.br", "limite123", " "));
+
+        HttpEntity<UsuarioLogin> login = new HttpEntity<>(new UsuarioLogin());
+        login.getBody().setUsuario("limite@email.com.br");
+        login.getBody().setSenha("senhaerrada");
+
+        /* O balde de cada usuário tem 5 fichas (blogpessoal.seguranca.limite.usuario.capacidade): as 5 primeiras tentativas
+        executam o BCrypt e recebem 401, a sexta é recusada antes, com 429 e o cabeçalho Retry-After. */
+        for (int i = 0; i < 5; i++)
+            assertEquals(HttpStatus.UNAUTHORIZED, testRestTemplate
+                    .exchange("/usuarios/logar", HttpMethod.POST, login, UsuarioLogin.class).getStatusCode());
+
+        ResponseEntity<UsuarioLogin> recusada = testRestTemplate
+                .exchange("/usuarios/logar", HttpMethod.POST, login, UsuarioLogin.class);
+
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, recusada.getStatusCode());
+        assertTrue(Long.parseLong(recusada.getHeaders().getFirst(HttpHeaders.RETRY_AFTER)) > 0);
+
+        /* O limite é do usuário: a autenticação Http Basic com o mesmo usuário também é recusada,
+        enquanto os outros usuários continuam entrando normalmente. */
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, testRestTemplate
+                .withBasicAuth("limite@email.com.br", "senhaerrada")
+                .exchange("/usuarios/all", HttpMethod.GET, null, String.class).getStatusCode());
+
+        assertEquals(HttpStatus.OK, testRestTemplate
+                .withBasicAuth("root@root.com", "rootroot")
+                .exchange("/usuarios/all", HttpMethod.GET, null, String.class).getStatusCode());
+    }
+
+    @Test
+    @DisplayName("Apagar somente a própria conta")
+    public void deveApagarSomenteOProprioUsuario() {
+
+        Usuario dono = usuarioService.cadastrarUsuario(new Usuario(0L,
+                "Dono", "dono@email.com.br", "dono1234", " ")).get();
+        Usuario outro = usuarioService.cadastrarUsuario(new Usuario(0L,
+                "Outro", "outro@email.com.br", "outro1234", " ")).get();
+
+        /* Outro usuário autenticado não pode apagar a conta: 403, e o Usuario continua cadastrado. */
+        assertEquals(HttpStatus.FORBIDDEN, testRestTemplate
+                .withBasicAuth("outro@email.com.br", "outro1234")
+                .exchange("/usuarios/" + dono.getId(), HttpMethod.DELETE, null, String.class).getStatusCode());
+        assertTrue(usuarioRepository.existsById(dono.getId()));
+
+        assertEquals(HttpStatus.NO_CONTENT, testRestTemplate
+                .withBasicAuth("dono@email.com.br", "dono1234")
+                .exchange("/usuarios/" + dono.getId(), HttpMethod.DELETE, null, String.class).getStatusCode());
+        assertFalse(usuarioRepository.existsById(dono.getId()));
+        assertTrue(usuarioRepository.existsById(outro.getId()));
+
+        /* As credenciais do Usuario apagado saem do Cache: a mesma autenticação deixa de ser aceita. */
+        assertEquals(HttpStatus.UNAUTHORIZED, testRestTemplate
+                .withBasicAuth("dono@email.com.br", "dono1234")
+                .exchange("/usuarios/all", HttpMethod.GET, null, String.class).getStatusCode());
+    }
+
+    @Test
+    @DisplayName("Recusar os Tokens assinados emitidos antes da troca de senha e da exclusão do Usuario")
+    public void deveRecusarTokensDeGeracaoAnterior() {
+
+        Usuario cadastrado = usuarioService.cadastrarUsuario(new Usuario(0L,
+                "Token", "token@email.com.br", "token1234", " ")).get();
+
+        String token = tokenService.gerarToken(usuarioRepository.findByUsuario("token@email.com.br").get());
+        TokenService.Token valido = tokenService.validarToken(token).get();
+        assertEquals(tokenService.geracaoAtual("token@email.com.br"), valido.geracao());
+
+        /* A troca de senha muda a geração do Usuario: o Token emitido antes deixa de conferir, o emitido depois confere. */
+        usuarioService.atualizarUsuario(new Usuario(cadastrado.getId(), "Token", "token@email.com.br", "novaSenha1234", " "));
+        assertNotEquals(tokenService.geracaoAtual("token@email.com.br"), tokenService.validarToken(token).get().geracao());
+
+        String novoToken = tokenService.gerarToken(usuarioRepository.findByUsuario("token@email.com.br").get());
+        assertEquals(tokenService.geracaoAtual("token@email.com.br"), tokenService.validarToken(novoToken).get().geracao());
+
+        assertEquals(HttpStatus.NO_CONTENT, testRestTemplate
+                .withBasicAuth("token@email.com.br", "novaSenha1234")
+                .exchange("/usuarios/" + cadastrado.getId(), HttpMethod.DELETE, null, String.class).getStatusCode());
+        assertNotEquals(tokenService.geracaoAtual("token@email.com.br"), tokenService.validarToken(novoToken).get().geracao());
+    }
+
+    @Test
+    @DisplayName("Trocar no login o hash da senha gerado com outra força do BCrypt quando a força é fixa")
+    public void deveCriptografarNovamenteComAForcaAtual() {
+
+        /* Os testes utilizam a força 10 (blogpessoal.seguranca.bcrypt.forca). Os hashes abaixo foram gerados com as forças 4 e 12. */
+        usuarioRepository.save(new Usuario(0L, "Força Menor", "forca4@email.com.br",
+                new BCryptPasswordEncoder(4).encode("forca1234"), " "));
+        usuarioRepository.save(new Usuario(0L, "Força Maior", "forca12@email.com.br",
+                new BCryptPasswordEncoder(12).encode("forca1234"), " "));
+
+        HttpEntity<UsuarioLogin> login = new HttpEntity<>(new UsuarioLogin());
+        login.getBody().setUsuario("forca4@email.com.br");
+        login.getBody().setSenha("forca1234");
+
+        assertEquals(HttpStatus.OK, testRestTemplate
+                .exchange("/usuarios/logar", HttpMethod.POST, login, UsuarioLogin.class).getStatusCode());
+        assertTrue(usuarioRepository.findByUsuario("forca4@email.com.br").get().getSenha().startsWith("$2a$10$"));
+
+        /* Com a força fixa, o hash de força maior também volta para a força configurada. */
+        assertEquals(HttpStatus.OK, testRestTemplate
+                .withBasicAuth("forca12@email.com.br", "forca1234")
+                .exchange("/usuarios/all", HttpMethod.GET, null, String.class).getStatusCode());
+        assertTrue(usuarioRepository.findByUsuario("forca12@email.com.br").get().getSenha().startsWith("$2a$10$"));
+
+        /* Com a força calibrada, que pode variar entre instâncias, o hash de força maior é mantido. */
+        SenhaEncoder calibrado = new SenhaEncoder(10, false, null);
+        assertTrue(calibrado.upgradeEncoding(new BCryptPasswordEncoder(4).encode("forca1234")));
+        assertFalse(calibrado.upgradeEncoding(new BCryptPasswordEncoder(12).encode("forca1234")));
+
+        /* O novo hash continua aceitando a mesma senha. */
+        assertEquals(HttpStatus.OK, testRestTemplate
+                .exchange("/usuarios/logar", HttpMethod.POST, login, UsuarioLogin.class).getStatusCode());
     }
 }
 /* A através do Método de asserção AssertEquals(), checaremos se a resposta da requisição (Response), é a resposta esperada
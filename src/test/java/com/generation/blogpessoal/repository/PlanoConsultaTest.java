@@ -0,0 +1,216 @@
+package com.generation.blogpessoal.repository;
+
+import com.generation.blogpessoal.model.Postagem;
+import com.generation.blogpessoal.model.Tema;
+import com.generation.blogpessoal.model.Usuario;
+import com.generation.blogpessoal.service.VersaoService;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.ParameterMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "com.generation.blogpessoal.repository.PlanoConsultaTest$Inspetor")
+/* O StatementInspector do Hibernate (Classe Inspetor, abaixo) guarda as instruções SQL geradas pelos Métodos dos repositórios.
+Cada instrução é executada com EXPLAIN no H2 e o teste falha se o plano de execução percorrer uma tabela inteira (tableScan),
+ou seja, se a consulta não encontrar um índice criado pelas migrações do Flyway (db/migration). */
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class PlanoConsultaTest {
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @Autowired
+    private TemaRepository temaRepository;
+
+    @Autowired
+    private PostagemRepository postagemRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private VersaoService versaoService;
+
+    private Usuario usuario;
+
+    private Tema tema;
+
+    private Postagem postagem;
+
+    @BeforeAll
+    void start() {
+
+        postagemRepository.deleteAll();
+        temaRepository.deleteAll();
+        usuarioRepository.deleteAll();
+
+        List<Usuario> usuarios = new ArrayList<>();
+        for (int i = 0; i < 50; i++)
+            usuarios.add(usuarioRepository.save(new Usuario(0L,
+                    "Autor " + i, "autor" + i + "@email.com.br", "13465278", " ")));
+
+        List<Tema> temas = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            Tema novo = new Tema();
+            novo.setDescricao("Tema " + i);
+            temas.add(temaRepository.save(novo));
+        }
+
+        List<Postagem> postagens = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            Postagem nova = new Postagem();
+            nova.setTitulo("Postagem " + i);
+            nova.setTexto("Texto da postagem número " + i);
+            nova.setTema(temas.get(i % temas.size()));
+            nova.setUsuario(usuarios.get(i % usuarios.size()));
+            postagens.add(nova);
+        }
+        postagemRepository.saveAll(postagens);
+
+        usuario = usuarios.get(0);
+        tema = temas.get(0);
+        postagem = postagens.get(0);
+
+        /* Atualiza as estatísticas (seletividade das colunas) utilizadas pelo H2 para escolher os índices. */
+        jdbcTemplate.execute("analyze");
+    }
+
+    @Test
+    @DisplayName("As consultas frequentes dos repositórios utilizam índices")
+    public void consultasDevemUtilizarIndices() {
+
+        LocalDateTime agora = LocalDateTime.now();
+
+        Map<String, Runnable> consultas = new LinkedHashMap<>();
+        consultas.put("UsuarioRepository.findByUsuario", () -> usuarioRepository.findByUsuario(usuario.getUsuario()));
+        consultas.put("UsuarioRepository.findParaAutenticacao",
+                () -> usuarioRepository.findParaAutenticacao(usuario.getUsuario()));
+        consultas.put("UsuarioRepository.findById", () -> usuarioRepository.findById(usuario.getId()));
+        consultas.put("UsuarioRepository.findResumos", () -> usuarioRepository.findResumos(0L, PageRequest.of(0, 21)));
+        consultas.put("UsuarioRepository.findIdsExistentes", () -> usuarioRepository.findIdsExistentes(Set.of(usuario.getId())));
+        consultas.put("TemaRepository.existsById", () -> temaRepository.existsById(tema.getId()));
+        consultas.put("TemaRepository.findResumos", () -> temaRepository.findResumos(0L, PageRequest.of(0, 21)));
+        consultas.put("TemaRepository.findIdsExistentes", () -> temaRepository.findIdsExistentes(Set.of(tema.getId())));
+        consultas.put("PostagemRepository.findById", () -> postagemRepository.findById(postagem.getId()));
+        consultas.put("PostagemRepository.findPagina", () -> postagemRepository.findPagina(PageRequest.of(0, 21)));
+        consultas.put("PostagemRepository.findPaginaApos",
+                () -> postagemRepository.findPaginaApos(agora, postagem.getId(), PageRequest.of(0, 21)));
+        consultas.put("PostagemRepository.findPaginaByUsuario",
+                () -> postagemRepository.findPaginaByUsuario(usuario.getId(), PageRequest.of(0, 21)));
+        consultas.put("PostagemRepository.findPaginaByUsuarioApos",
+                () -> postagemRepository.findPaginaByUsuarioApos(usuario.getId(), agora, postagem.getId(), PageRequest.of(0, 21)));
+        consultas.put("PostagemRepository.findPaginaByTema",
+                () -> postagemRepository.findPaginaByTema(tema.getId(), PageRequest.of(0, 21)));
+        consultas.put("PostagemRepository.findPaginaByTemaApos",
+                () -> postagemRepository.findPaginaByTemaApos(tema.getId(), agora, postagem.getId(), PageRequest.of(0, 21)));
+        consultas.put("PostagemRepository.findVersao", () -> postagemRepository.findVersao(postagem.getId()));
+        consultas.put("TemaRepository.findVersao", () -> temaRepository.findVersao(tema.getId()));
+        consultas.put("PostagemRepository.findReferencia", () -> postagemRepository.findReferencia(postagem.getId()));
+        consultas.put("PostagemRepository.findReferenciasByTema",
+                () -> postagemRepository.findReferenciasByTema(tema.getId(), PageRequest.of(0, 1001)));
+        consultas.put("PostagemRepository.findReferenciasByUsuario",
+                () -> postagemRepository.findReferenciasByUsuario(usuario.getId(), PageRequest.of(0, 1001)));
+        consultas.put("VersaoService.postagens", () -> versaoService.postagens());
+        consultas.put("VersaoService.temas", () -> versaoService.temas());
+        consultas.put("VersaoService.postagensDoUsuario", () -> versaoService.postagensDoUsuario(usuario.getId()));
+        consultas.put("VersaoService.postagensDoTema", () -> versaoService.postagensDoTema(tema.getId()));
+
+        /* As instruções update e delete são executadas com ids inexistentes: o plano é o mesmo e os dados do teste não mudam. */
+        consultas.put("PostagemRepository.atualizar", () -> postagemRepository.atualizar(-1L, 0L, "Título", "Texto",
+                tema, usuario, agora));
+        consultas.put("TemaRepository.atualizar", () -> temaRepository.atualizar(-1L, 0L, "Descrição", agora));
+        consultas.put("PostagemRepository.apagarPorIds", () -> postagemRepository.apagarPorIds(List.of(-1L, -2L)));
+        consultas.put("PostagemRepository.apagarPorTema", () -> postagemRepository.apagarPorTema(-1L));
+        consultas.put("PostagemRepository.apagarPorUsuario", () -> postagemRepository.apagarPorUsuario(-1L));
+
+        List<String> falhas = new ArrayList<>();
+
+        consultas.forEach((nome, consulta) -> {
+
+            Inspetor.INSTRUCOES.clear();
+            consulta.run();
+
+            assertFalse(Inspetor.INSTRUCOES.isEmpty(), nome + " não executou nenhuma instrução SQL");
+
+            for (String instrucao : Inspetor.INSTRUCOES) {
+                String plano = explicar(instrucao);
+
+                if (plano.contains("tableScan"))
+                    falhas.add(nome + ":\n" + plano);
+            }
+        });
+
+        assertTrue(falhas.isEmpty(), "Consultas que percorrem a tabela inteira:\n\n" + String.join("\n\n", falhas));
+    }
+
+    @AfterAll
+    public void end() {
+        postagemRepository.deleteAll();
+        temaRepository.deleteAll();
+        usuarioRepository.deleteAll();
+    }
+
+    /* Executa EXPLAIN da instrução. Os parâmetros (?) recebem valores do tipo da coluna, apenas para que a instrução seja válida:
+    o plano de execução do H2 depende dos índices e das estatísticas, não dos valores. */
+    private String explicar(String instrucao) {
+
+        return jdbcTemplate.execute((ConnectionCallback<String>) conexao -> {
+
+            try (PreparedStatement explain = conexao.prepareStatement("explain " + instrucao)) {
+
+                ParameterMetaData parametros = explain.getParameterMetaData();
+
+                for (int i = 1; i <= parametros.getParameterCount(); i++) {
+                    switch (parametros.getParameterType(i)) {
+                        case Types.VARCHAR, Types.CHAR, Types.CLOB -> explain.setString(i, "explain");
+                        case Types.TIMESTAMP, Types.TIMESTAMP_WITH_TIMEZONE -> explain.setTimestamp(i, Timestamp.valueOf(LocalDateTime.now()));
+                        default -> explain.setLong(i, 1L);
+                    }
+                }
+
+                try (ResultSet plano = explain.executeQuery()) {
+                    return plano.next() ? plano.getString(1) : "";
+                }
+            }
+        });
+    }
+
+    /* Guarda as instruções SQL preparadas pelo Hibernate, sem alterá-las. */
+    public static class Inspetor implements StatementInspector {
+
+        static final List<String> INSTRUCOES = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            INSTRUCOES.add(sql);
+            return sql;
+        }
+
+    }
+
+}
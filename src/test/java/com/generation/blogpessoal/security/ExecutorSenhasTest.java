@@ -0,0 +1,73 @@
+package com.generation.blogpessoal.security;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/* Testes da Classe ExecutorSenhas sem o contexto do Spring: as tarefas ficam bloqueadas em um CountDownLatch (no lugar do BCrypt)
+para ocupar a thread e a fila do executor. */
+public class ExecutorSenhasTest {
+
+    @Test
+    @DisplayName("Recusar na hora quando a thread e a fila estão ocupadas")
+    public void deveRecusarComFilaCheia() throws Exception {
+
+        ExecutorSenhas executor = new ExecutorSenhas(1, 1, 5000);
+        CountDownLatch liberar = new CountDownLatch(1);
+
+        try {
+            CompletableFuture<Boolean> emExecucao = CompletableFuture.supplyAsync(() -> executor.executar(() -> aguardar(liberar)));
+            CompletableFuture<Boolean> naFila = CompletableFuture.supplyAsync(() -> executor.executar(() -> aguardar(liberar)));
+
+            long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (executor.tamanhoFila() < 1 && System.nanoTime() < limite)
+                Thread.sleep(10);
+
+            long inicio = System.nanoTime();
+            assertThrows(SenhasIndisponiveisException.class, () -> executor.executar(() -> true));
+            assertTrue(System.nanoTime() - inicio < TimeUnit.SECONDS.toNanos(1));
+
+            liberar.countDown();
+            assertTrue(emExecucao.get(5, TimeUnit.SECONDS));
+            assertTrue(naFila.get(5, TimeUnit.SECONDS));
+            assertEquals(1L, executor.estatisticas().get("recusadas"));
+        } finally {
+            liberar.countDown();
+            executor.encerrar();
+        }
+    }
+
+    @Test
+    @DisplayName("Recusar quando o resultado não fica pronto dentro da espera máxima")
+    public void deveRecusarAposEsperaMaxima() {
+
+        ExecutorSenhas executor = new ExecutorSenhas(1, 10, 50);
+        CountDownLatch liberar = new CountDownLatch(1);
+
+        try {
+            assertThrows(SenhasIndisponiveisException.class, () -> executor.executar(() -> aguardar(liberar)));
+            assertEquals(1L, executor.estatisticas().get("recusadas"));
+        } finally {
+            liberar.countDown();
+            executor.encerrar();
+        }
+    }
+
+    private static boolean aguardar(CountDownLatch liberar) {
+
+        try {
+            return liberar.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+}
@@ -0,0 +1,40 @@
+package com.generation.blogpessoal.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/* Testes da Classe HyperLogLog sem o contexto do Spring: ids sequenciais, como os ids dos Usuários no Banco de dados. */
+public class HyperLogLogTest {
+
+    @Test
+    @DisplayName("Contar sem erro poucos valores distintos e ignorar os valores repetidos")
+    public void deveContarPoucosValoresDistintos() {
+
+        HyperLogLog autores = new HyperLogLog();
+
+        for (int repeticao = 0; repeticao < 10; repeticao++)
+            for (long id = 1; id <= 20; id++)
+                autores.adicionar(id);
+
+        assertEquals(20, autores.estimar());
+    }
+
+    @Test
+    @DisplayName("Estimar muitos valores distintos dentro do erro esperado com memória fixa")
+    public void deveEstimarMuitosValoresDistintos() {
+
+        HyperLogLog autores = new HyperLogLog();
+
+        for (long id = 1; id <= 100_000; id++)
+            autores.adicionar(id);
+
+        long estimativa = autores.estimar();
+
+        /* Erro padrão de cerca de 3% com 1024 registradores: a margem de 10% corresponde a mais de três desvios. */
+        assertTrue(Math.abs(estimativa - 100_000) < 10_000, "estimativa: " + estimativa);
+    }
+
+}